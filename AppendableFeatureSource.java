@@ -0,0 +1,301 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.geotools.api.data.FeatureEvent;
+import org.geotools.api.data.FeatureListener;
+import org.geotools.api.data.Query;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.filter.Filter;
+import org.geotools.data.collection.CollectionFeatureSource;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.filter.visitor.ExtractBoundsFilterVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.quadtree.Quadtree;
+
+/**
+ * AppendableFeatureSource: In-memory
+ * {@link org.geotools.data.collection.CollectionFeatureSource} that features
+ * can be appended to while it is being rendered. Features live in an
+ * append-only array; every query works on a snapshot of the array size, so
+ * appends never disturb running reads. Bounding box queries go through a JTS
+ * {@link org.locationtech.jts.index.quadtree.Quadtree}, which unlike an STRtree
+ * accepts inserts after construction. Appends are announced to
+ * {@link org.geotools.api.data.FeatureListener}s with the bounds of the new
+ * features, so a {@link org.geotools.map.FeatureLayer} redraws without being
+ * replaced.
+ */
+public class AppendableFeatureSource extends CollectionFeatureSource implements Closeable {
+
+	private final SimpleFeatureType featureType;
+
+	// Published after the array has been filled => readers see complete features
+	private volatile Snapshot snapshot;
+
+	private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+	private Quadtree tree = new Quadtree();
+
+	private final List<FeatureListener> listeners = new CopyOnWriteArrayList<>();
+	private final List<Closeable> resources = new CopyOnWriteArrayList<>();
+
+	private volatile ReferencedEnvelope lastChangeBounds;
+
+	/**
+	 * Constructor: Constructs an empty {@link AppendableFeatureSource}.
+	 *
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 */
+	public AppendableFeatureSource(SimpleFeatureType featureType) {
+		super(new ListFeatureCollection(featureType));
+		this.featureType = featureType;
+		this.snapshot = new Snapshot(new SimpleFeature[16], 0,
+				new ReferencedEnvelope(featureType.getCoordinateReferenceSystem()));
+	}
+
+	/**
+	 * Appends features and notifies the listeners with the bounds of the appended
+	 * features. Appends must come from a single thread.
+	 *
+	 * @param features the {@link org.geotools.api.feature.simple.SimpleFeature}s
+	 *                 to be appended.
+	 */
+	public void append(List<SimpleFeature> features) {
+
+		if (features.isEmpty()) {
+			return;
+		}
+
+		Snapshot current = this.snapshot;
+		SimpleFeature[] array = current.features;
+		int size = current.size;
+
+		// Grow by copying => readers of the old array are unaffected
+		if (size + features.size() > array.length) {
+			array = Arrays.copyOf(array, Math.max(array.length * 2, size + features.size()));
+		}
+
+		ReferencedEnvelope changed = new ReferencedEnvelope(this.featureType.getCoordinateReferenceSystem());
+		ReferencedEnvelope bounds = new ReferencedEnvelope(current.bounds);
+
+		this.indexLock.writeLock().lock();
+		try {
+			for (SimpleFeature feature : features) {
+				array[size] = feature;
+				Geometry geometry = (Geometry) feature.getDefaultGeometry();
+
+				// Empty geometries never match a bounding box
+				if (geometry != null && !geometry.isEmpty()) {
+					Envelope envelope = geometry.getEnvelopeInternal();
+					this.tree.insert(envelope, size);
+					changed.expandToInclude(envelope);
+				}
+				size++;
+			}
+		} finally {
+			this.indexLock.writeLock().unlock();
+		}
+
+		bounds.expandToInclude(changed);
+		this.snapshot = new Snapshot(array, size, bounds);
+
+		fireChanged(FeatureEvent.Type.ADDED, changed);
+	}
+
+	/**
+	 * Removes all features, e.g. after the followed file has been truncated.
+	 */
+	public void clear() {
+
+		this.indexLock.writeLock().lock();
+		try {
+			this.tree = new Quadtree();
+			this.snapshot = new Snapshot(new SimpleFeature[16], 0,
+					new ReferencedEnvelope(this.featureType.getCoordinateReferenceSystem()));
+		} finally {
+			this.indexLock.writeLock().unlock();
+		}
+
+		fireChanged(FeatureEvent.Type.REMOVED, null);
+	}
+
+	/**
+	 * Retrieves the area affected by the most recent change, so listeners of the
+	 * resulting map layer event can limit their refresh to it.
+	 *
+	 * @return the changed {@link org.geotools.geometry.jts.ReferencedEnvelope},
+	 *         or {@code null} if the whole source changed.
+	 */
+	public ReferencedEnvelope getLastChangeBounds() {
+		return this.lastChangeBounds;
+	}
+
+	/**
+	 * Retrieves the number of features.
+	 *
+	 * @return the current number of features.
+	 */
+	public int size() {
+		return this.snapshot.size;
+	}
+
+	private void fireChanged(FeatureEvent.Type type, ReferencedEnvelope changed) {
+
+		this.lastChangeBounds = changed;
+
+		FeatureEvent event = new FeatureEvent(this, type, changed);
+		for (FeatureListener listener : this.listeners) {
+			listener.changed(event);
+		}
+	}
+
+	@Override
+	public void addFeatureListener(FeatureListener listener) {
+		this.listeners.add(listener);
+	}
+
+	@Override
+	public void removeFeatureListener(FeatureListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Registers a resource to be closed together with this source, such as the
+	 * {@link TXTFileFollower} feeding it.
+	 *
+	 * @param resource the {@link java.io.Closeable} resource.
+	 */
+	public void attach(Closeable resource) {
+		this.resources.add(resource);
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Closeable resource : this.resources) {
+			resource.close();
+		}
+		this.resources.clear();
+	}
+
+	@Override
+	public ReferencedEnvelope getBounds() {
+		return new ReferencedEnvelope(this.snapshot.bounds);
+	}
+
+	@Override
+	public ReferencedEnvelope getBounds(Query query) throws IOException {
+
+		if (Filter.INCLUDE.equals(query.getFilter())) {
+			return getBounds();
+		}
+
+		return getFeatures(query).getBounds();
+	}
+
+	@Override
+	public int getCount(Query query) throws IOException {
+
+		if (Filter.INCLUDE.equals(query.getFilter()) && query.getMaxFeatures() == Integer.MAX_VALUE
+				&& query.getStartIndex() == null) {
+			return this.snapshot.size;
+		}
+
+		return getFeatures(query).size();
+	}
+
+	@Override
+	public SimpleFeatureCollection getFeatures() throws IOException {
+		return getFeatures(Query.ALL);
+	}
+
+	@Override
+	public SimpleFeatureCollection getFeatures(Filter filter) throws IOException {
+		return getFeatures(new Query(this.featureType.getTypeName(), filter));
+	}
+
+	@Override
+	public SimpleFeatureCollection getFeatures(Query query) throws IOException {
+
+		List<SimpleFeature> candidates;
+
+		Envelope bbox = (Envelope) query.getFilter().accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, null);
+		if (bbox == null || bbox.isNull() || Double.isInfinite(bbox.getWidth())
+				|| Double.isInfinite(bbox.getHeight())) {
+			Snapshot current = this.snapshot;
+			candidates = Arrays.asList(current.features).subList(0, current.size);
+		} else {
+			candidates = query(bbox);
+		}
+
+		// Let a collection source over the candidates apply the exact query
+		CollectionFeatureSource candidateSource = new CollectionFeatureSource(
+				new ListFeatureCollection(this.featureType, new ArrayList<>(candidates)));
+
+		return candidateSource.getFeatures(query);
+	}
+
+	/**
+	 * Collects the features whose envelope may intersect a bounding box, in
+	 * append order.
+	 */
+	private List<SimpleFeature> query(Envelope bbox) {
+
+		// Snapshot and tree are taken together => a concurrent clear can't mix them
+		Snapshot current;
+		List<?> items;
+		this.indexLock.readLock().lock();
+		try {
+			current = this.snapshot;
+			items = this.tree.query(bbox);
+		} finally {
+			this.indexLock.readLock().unlock();
+		}
+
+		// Skip features appended after the snapshot was taken
+		int[] indexes = new int[items.size()];
+		int count = 0;
+		for (Object item : items) {
+			int index = (Integer) item;
+			if (index < current.size) {
+				indexes[count++] = index;
+			}
+		}
+		Arrays.sort(indexes, 0, count);
+
+		List<SimpleFeature> candidates = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			candidates.add(current.features[indexes[i]]);
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Snapshot class: Nested class inside of {@link AppendableFeatureSource}. An
+	 * immutable view on the first {@code size} features of the feature array.
+	 */
+	private static class Snapshot {
+
+		private final SimpleFeature[] features;
+		private final int size;
+		private final ReferencedEnvelope bounds;
+
+		Snapshot(SimpleFeature[] features, int size, ReferencedEnvelope bounds) {
+			this.features = features;
+			this.size = size;
+			this.bounds = bounds;
+		}
+	}
+}
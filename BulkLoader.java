@@ -0,0 +1,254 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.geotools.util.logging.Logging;
+
+/**
+ * BulkLoader: Loads many TXT files concurrently on a fixed number of threads.
+ * Before a file is parsed, the heap it is estimated to take is reserved from a
+ * budget, so a folder of large files is parsed a few at a time instead of all
+ * at once; files larger than the whole budget are parsed alone. The budget
+ * only covers files while they are parsed: a reservation is released as soon
+ * as its file is parsed, so it bounds the peak of concurrent parsing, not the
+ * heap retained by the loaded features, which together may exceed it. Progress
+ * is reported per file and the whole load can be cancelled. A loader loads a
+ * single list of files.
+ */
+public class BulkLoader {
+
+	private static final Logger LOGGER = Logging.getLogger(BulkLoader.class);
+
+	private final LoadOptions options;
+	private final int threads;
+
+	// One permit per KB of estimated heap, held while a file is parsed
+	private final int heapBudget;
+	private final Semaphore heapPermits;
+
+	private volatile boolean cancelled;
+	private final List<Future<LoadResult>> futures = new CopyOnWriteArrayList<>();
+
+	// Stops running parsers at their next progress check
+	private final LoadProgress progress = new LoadProgress() {
+		@Override
+		public boolean isCancelled() {
+			return BulkLoader.this.cancelled;
+		}
+	};
+
+	/**
+	 * Constructor: Constructs a {@link BulkLoader}.
+	 *
+	 * @param options         the {@link LoadOptions} of every file.
+	 * @param threads         the number of files loaded concurrently.
+	 * @param heapBudgetBytes the heap that files being parsed may take together.
+	 */
+	public BulkLoader(LoadOptions options, int threads, long heapBudgetBytes) {
+		this.options = options;
+		this.threads = Math.max(1, threads);
+		this.heapBudget = (int) Math.max(1, Math.min(Integer.MAX_VALUE, heapBudgetBytes / 1024));
+		this.heapPermits = new Semaphore(this.heapBudget);
+	}
+
+	/**
+	 * Constructs a {@link BulkLoader} with the default {@link LoadOptions}, one
+	 * thread per core and a heap budget of
+	 * {@value Constants#BULK_LOAD_HEAP_FRACTION} of the maximum heap.
+	 *
+	 * @return a new {@link BulkLoader}.
+	 */
+	public static BulkLoader createDefault() {
+		return new BulkLoader(LoadOptions.getDefault(), Runtime.getRuntime().availableProcessors(),
+				(long) (Runtime.getRuntime().maxMemory() * Constants.BULK_LOAD_HEAP_FRACTION));
+	}
+
+	/**
+	 * Expands a path into TXT files. A directory contributes the TXT, CSV and
+	 * TSV files directly inside of it, compressed or not; a file name containing {@code *}, {@code ?},
+	 * {@code [} or <code>{</code> is matched as a glob against the files of its
+	 * directory, e.g. {@code tiles/tile_*.txt}.
+	 *
+	 * @param path a TXT file, a directory or a glob.
+	 * @return a sorted {@link java.util.List} of files.
+	 * @throws IOException if the directory can't be listed.
+	 */
+	public static List<File> listFiles(File path) throws IOException {
+
+		File directory;
+		String glob;
+		if (path.isDirectory()) {
+			directory = path;
+			glob = "*.{txt,csv,tsv}{,.gz,.bz2,.zst}";
+		} else if (path.getName().matches(".*[*?\\[{].*")) {
+			directory = path.getAbsoluteFile().getParentFile();
+			glob = path.getName();
+		} else {
+			return Collections.singletonList(path);
+		}
+
+		List<File> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), glob)) {
+			for (Path file : stream) {
+				if (Files.isRegularFile(file)) {
+					files.add(file.toFile());
+				}
+			}
+		}
+		Collections.sort(files);
+
+		return files;
+	}
+
+	/**
+	 * Loads files concurrently. Files that fail to load are reported to the
+	 * listener and left out of the result.
+	 *
+	 * @param sourceFiles the TXT files to be loaded.
+	 * @param listener    the {@link Listener} notified after every file, on the
+	 *                    loading threads.
+	 * @return the {@link LoadResult}s of the loaded files in input order.
+	 * @throws InterruptedException  if the calling thread is interrupted.
+	 * @throws CancellationException if the load has been cancelled.
+	 */
+	public List<LoadResult> loadAll(List<File> sourceFiles, Listener listener) throws InterruptedException {
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(this.threads, sourceFiles.size())));
+		AtomicInteger completed = new AtomicInteger();
+
+		try {
+			for (File sourceFile : sourceFiles) {
+				this.futures.add(pool.submit(() -> {
+					LoadResult result = null;
+					Exception error = null;
+					try {
+						result = load(sourceFile);
+					} catch (Exception e) {
+						error = e;
+					}
+					if (!this.cancelled) {
+						listener.fileDone(sourceFile, error, completed.incrementAndGet(), sourceFiles.size());
+					}
+					if (error != null) {
+						throw error;
+					}
+					return result;
+				}));
+			}
+
+			// Cancelled while submitting => also cancel the files submitted afterwards
+			if (this.cancelled) {
+				cancel();
+			}
+
+			// Collect in input order => layers keep the order of the files. A
+			// cancelled future throws a CancellationException
+			List<LoadResult> results = new ArrayList<>();
+			for (int i = 0; i < this.futures.size(); i++) {
+				try {
+					results.add(this.futures.get(i).get());
+				} catch (ExecutionException e) {
+					LOGGER.warning("Could not load " + sourceFiles.get(i) + ": " + e.getCause().getMessage());
+				}
+			}
+
+			return results;
+
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Loads a single file once its estimated heap has been reserved.
+	 *
+	 * @param sourceFile the TXT file.
+	 * @return the {@link LoadResult} of the file.
+	 * @throws Exception if the file can't be loaded or the load was cancelled.
+	 */
+	private LoadResult load(File sourceFile) throws Exception {
+
+		int permits = estimatePermits(sourceFile);
+		this.heapPermits.acquire(permits);
+		try {
+			if (this.cancelled) {
+				throw new CancellationException("Loading cancelled");
+			}
+			return TXTFileParser.openTXTFile(sourceFile, this.options.withProgress(this.progress));
+		} finally {
+			this.heapPermits.release(permits);
+		}
+	}
+
+	/**
+	 * Estimates the heap a file takes while being parsed, in KB, capped at the
+	 * whole budget. Streamed files are never held in memory; compressed files are
+	 * never streamed and expand by about {@value Constants#COMPRESSION_RATIO}.
+	 */
+	private int estimatePermits(File sourceFile) {
+
+		long size = sourceFile.length();
+		if (Compression.of(sourceFile) != Compression.NONE) {
+			size *= Constants.COMPRESSION_RATIO;
+		} else if (size >= Constants.STREAMING_FILE_SIZE) {
+			return 0;
+		}
+
+		return (int) Math.max(1, Math.min(this.heapBudget, size * Constants.BULK_LOAD_HEAP_PER_BYTE / 1024));
+	}
+
+	/**
+	 * Cancels the load. Files that haven't started are skipped, running loads
+	 * stop at their next progress check and {@link #loadAll(List, Listener)} returns right away.
+	 */
+	public void cancel() {
+
+		this.cancelled = true;
+
+		for (Future<LoadResult> future : this.futures) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Checks whether the load has been cancelled with {@link #cancel()}.
+	 *
+	 * @return {@code true} if the load was cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * Listener interface: Nested interface inside of {@link BulkLoader}. Notified
+	 * whenever a file has been loaded or failed to load.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after a file has been loaded or failed to load.
+		 *
+		 * @param sourceFile the TXT file.
+		 * @param error      the reason the file failed to load, or {@code null}.
+		 * @param completed  the number of files done so far.
+		 * @param total      the number of files being loaded.
+		 */
+		void fileDone(File sourceFile, Exception error, int completed, int total);
+	}
+}
@@ -0,0 +1,648 @@
+package org.geotools.tutorial.txtreader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.feature.simple.SimpleFeatureImpl;
+import org.geotools.filter.identity.FeatureIdImpl;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+/**
+ * CompactFeatureList: Append-only {@link java.util.List} of features for a
+ * schema holding nothing but a geometry. Instead of a
+ * {@link org.geotools.api.feature.simple.SimpleFeature} with its own attribute
+ * array, user data and generated feature id per line, the coordinates of all
+ * features are packed into a single {@code double[]} and their structure into
+ * an {@code int[]}, so a point takes about 40 bytes instead of several
+ * hundred. {@link #get(int)} decodes a new feature view on every call; views
+ * are not cached and changes to them are not stored.
+ * <p>
+ * Structure of a feature: {@code dimension, measures}, followed by its
+ * geometry, encoded recursively as {@code POINT|LINESTRING|LINEARRING,
+ * coordinate count}, {@code POLYGON, ring count, coordinate count per ring} or
+ * {@code MULTI*|COLLECTION, part count, parts...}. A {@code null} geometry is a
+ * single {@code NULL}. Coordinates follow in the same order, packed with the
+ * largest spatial dimension and measure count of any sequence of their
+ * feature. Appends must come from a single thread and happen before the list
+ * is shared.
+ * <p>
+ * With a {@link DelimitedFormat}, the unparsed text of the non-geometry
+ * columns is packed as UTF-8 next to the geometries and {@link #get(int)}
+ * returns {@link DelimitedFeature}s that parse it on first access.
+ */
+public class CompactFeatureList extends AbstractList<SimpleFeature> implements RandomAccess {
+
+	private static final int NULL = 0;
+	private static final int POINT = 1;
+	private static final int LINESTRING = 2;
+	private static final int LINEARRING = 3;
+	private static final int POLYGON = 4;
+	private static final int MULTIPOINT = 5;
+	private static final int MULTILINESTRING = 6;
+	private static final int MULTIPOLYGON = 7;
+	private static final int COLLECTION = 8;
+
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 0,
+			PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+	private final SimpleFeatureType featureType;
+	private final DelimitedFormat format;
+	private final String idPrefix;
+
+	private int size;
+
+	// Feature i spans structure[structureOffsets[i], structureOffsets[i + 1])
+	private int[] structureOffsets = new int[17];
+	private int[] structure = new int[64];
+	private int structureSize;
+
+	// Feature i spans ordinates[ordinateOffsets[i], ordinateOffsets[i + 1])
+	private int[] ordinateOffsets = new int[17];
+	private double[] ordinates = new double[128];
+	private int ordinateSize;
+
+	// Attribute text of feature i spans text[textOffsets[i], textOffsets[i + 1])
+	private int[] textOffsets;
+	private byte[] text;
+	private int textSize;
+
+	/**
+	 * Constructor: Constructs an empty {@link CompactFeatureList}.
+	 *
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    with the geometry as its only attribute.
+	 */
+	public CompactFeatureList(SimpleFeatureType featureType) {
+		this(featureType, null);
+	}
+
+	/**
+	 * Constructor: Constructs an empty {@link CompactFeatureList} for the
+	 * features of a delimited file.
+	 *
+	 * @param format the {@link DelimitedFormat} of the file.
+	 */
+	public CompactFeatureList(DelimitedFormat format) {
+		this(format.getFeatureType(), format);
+	}
+
+	private CompactFeatureList(SimpleFeatureType featureType, DelimitedFormat format) {
+		this.featureType = featureType;
+		this.format = format;
+		this.idPrefix = featureType.getTypeName() + ".";
+		if (format != null) {
+			this.textOffsets = new int[17];
+			this.text = new byte[256];
+		}
+	}
+
+	/**
+	 * Creates an empty list for the same schema.
+	 *
+	 * @return a new {@link CompactFeatureList}.
+	 */
+	public CompactFeatureList emptyCopy() {
+		return emptyCopy(this.featureType);
+	}
+
+	/**
+	 * Creates an empty list with the same {@link DelimitedFormat} for another
+	 * schema with the same attributes, e.g. in another CRS.
+	 *
+	 * @param featureType the schema of the new list.
+	 * @return a new {@link CompactFeatureList}.
+	 */
+	public CompactFeatureList emptyCopy(SimpleFeatureType featureType) {
+		return new CompactFeatureList(featureType, this.format);
+	}
+
+	/**
+	 * Retrieves the schema of the features of this list.
+	 *
+	 * @return the {@link org.geotools.api.feature.simple.SimpleFeatureType}.
+	 */
+	public SimpleFeatureType getFeatureType() {
+		return this.featureType;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Creates a view on a feature. The feature id is derived from the index, so
+	 * views of the same feature are equal.
+	 *
+	 * @param index the index of the feature.
+	 * @return a new {@link org.geotools.api.feature.simple.SimpleFeature}.
+	 */
+	@Override
+	public SimpleFeature get(int index) {
+		return get(index, getGeometry(index));
+	}
+
+	/**
+	 * Creates a view on a feature with another geometry, e.g. a simplified one.
+	 * The attributes and the feature id are those of the stored feature.
+	 *
+	 * @param index    the index of the feature.
+	 * @param geometry the {@link org.locationtech.jts.geom.Geometry} of the
+	 *                 view.
+	 * @return a new {@link org.geotools.api.feature.simple.SimpleFeature}.
+	 */
+	public SimpleFeature get(int index, Geometry geometry) {
+
+		checkIndex(index);
+
+		if (this.format != null) {
+			Object[] values = new Object[this.featureType.getAttributeCount()];
+			values[this.featureType.indexOf(Constants.GEOMETRY_ATTRIBUTE)] = geometry;
+			return new DelimitedFeature(this.format, this.featureType, values, getAttributeText(index),
+					new FeatureIdImpl(this.idPrefix + index));
+		}
+
+		return new SimpleFeatureImpl(new Object[] { geometry }, this.featureType,
+				new FeatureIdImpl(this.idPrefix + index), false);
+	}
+
+	/**
+	 * Appends the geometry of a feature, and the attribute text of a
+	 * {@link DelimitedFeature}; other attributes and the feature id are dropped.
+	 *
+	 * @param feature the {@link org.geotools.api.feature.simple.SimpleFeature}
+	 *                to be appended.
+	 * @return {@code true}.
+	 */
+	@Override
+	public boolean add(SimpleFeature feature) {
+		addGeometry((Geometry) feature.getDefaultGeometry(),
+				feature instanceof DelimitedFeature ? ((DelimitedFeature) feature).getAttributeText() : null);
+		return true;
+	}
+
+	/**
+	 * Appends features, copying the packed arrays directly if they come from
+	 * another {@link CompactFeatureList}.
+	 *
+	 * @param features the features to be appended.
+	 * @return {@code true} if any feature was appended.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends SimpleFeature> features) {
+
+		if (!(features instanceof CompactFeatureList)) {
+			return super.addAll(features);
+		}
+
+		CompactFeatureList other = (CompactFeatureList) features;
+		addRange(other, 0, other.size);
+
+		return other.size > 0;
+	}
+
+	/**
+	 * Appends a range of the features of another {@link CompactFeatureList} by
+	 * copying their packed arrays, without decoding any geometry.
+	 *
+	 * @param other the list holding the features.
+	 * @param from  the index of the first feature to be appended.
+	 * @param to    the index after the last feature to be appended.
+	 */
+	public void addRange(CompactFeatureList other, int from, int to) {
+
+		if (from < 0 || to > other.size || from > to) {
+			throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of size " + other.size);
+		}
+
+		int count = to - from;
+		int structureStart = other.structureOffsets[from];
+		int structureLength = other.structureOffsets[to] - structureStart;
+		int ordinateStart = other.ordinateOffsets[from];
+		int ordinateLength = other.ordinateOffsets[to] - ordinateStart;
+
+		ensureFeatures(count);
+		ensureStructure(structureLength);
+		ensureOrdinates(ordinateLength);
+
+		// Offsets of the appended features move by the current array sizes
+		for (int i = 1; i <= count; i++) {
+			this.structureOffsets[this.size + i] = other.structureOffsets[from + i] - structureStart
+					+ this.structureSize;
+			this.ordinateOffsets[this.size + i] = other.ordinateOffsets[from + i] - ordinateStart
+					+ this.ordinateSize;
+		}
+		System.arraycopy(other.structure, structureStart, this.structure, this.structureSize, structureLength);
+		System.arraycopy(other.ordinates, ordinateStart, this.ordinates, this.ordinateSize, ordinateLength);
+
+		if (this.format != null && other.format != null) {
+			int textStart = other.textOffsets[from];
+			int textLength = other.textOffsets[to] - textStart;
+			ensureText(textLength);
+			for (int i = 1; i <= count; i++) {
+				this.textOffsets[this.size + i] = other.textOffsets[from + i] - textStart + this.textSize;
+			}
+			System.arraycopy(other.text, textStart, this.text, this.textSize, textLength);
+			this.textSize += textLength;
+		} else if (this.format != null) {
+			for (int i = 1; i <= count; i++) {
+				this.textOffsets[this.size + i] = this.textSize;
+			}
+		}
+
+		this.size += count;
+		this.structureSize += structureLength;
+		this.ordinateSize += ordinateLength;
+		this.modCount++;
+	}
+
+	/**
+	 * Appends a geometry as a new feature.
+	 *
+	 * @param geometry the {@link org.locationtech.jts.geom.Geometry}, or
+	 *                 {@code null}.
+	 */
+	public void addGeometry(Geometry geometry) {
+		addGeometry(geometry, null);
+	}
+
+	/**
+	 * Appends a geometry and the attribute text of a delimited line as a new
+	 * feature. The text is dropped if the list has no {@link DelimitedFormat}.
+	 *
+	 * @param geometry      the {@link org.locationtech.jts.geom.Geometry}, or
+	 *                      {@code null}.
+	 * @param attributeText the delimited text of the other columns, or
+	 *                      {@code null}.
+	 */
+	public void addGeometry(Geometry geometry, String attributeText) {
+
+		ensureFeatures(1);
+
+		if (geometry == null) {
+			appendStructure(NULL);
+		} else {
+			// Spatial dimension and measures of the richest sequence => no ordinate is lost
+			int[] dimensions = { 2, 0 };
+			collectDimensions(geometry, dimensions);
+			int measures = dimensions[1];
+			int dimension = dimensions[0] + measures;
+			appendStructure(dimension);
+			appendStructure(measures);
+			encode(geometry, dimension, measures);
+		}
+
+		if (this.format != null && attributeText != null) {
+			byte[] bytes = attributeText.getBytes(StandardCharsets.UTF_8);
+			ensureText(bytes.length);
+			System.arraycopy(bytes, 0, this.text, this.textSize, bytes.length);
+			this.textSize += bytes.length;
+		}
+
+		this.size++;
+		this.structureOffsets[this.size] = this.structureSize;
+		this.ordinateOffsets[this.size] = this.ordinateSize;
+		if (this.format != null) {
+			this.textOffsets[this.size] = this.textSize;
+		}
+		this.modCount++;
+	}
+
+	/**
+	 * Retrieves the unparsed text of the non-geometry columns of a feature.
+	 *
+	 * @param index the index of the feature.
+	 * @return the delimited text, or {@code null} if the list has no
+	 *         {@link DelimitedFormat}.
+	 */
+	public String getAttributeText(int index) {
+
+		checkIndex(index);
+		if (this.format == null) {
+			return null;
+		}
+
+		int start = this.textOffsets[index];
+		return new String(this.text, start, this.textOffsets[index + 1] - start, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decodes the geometry of a feature.
+	 *
+	 * @param index the index of the feature.
+	 * @return a new {@link org.locationtech.jts.geom.Geometry}, or {@code null}.
+	 */
+	public Geometry getGeometry(int index) {
+
+		checkIndex(index);
+
+		// Cursor into the structure and the ordinates
+		int[] cursor = { this.structureOffsets[index], this.ordinateOffsets[index] };
+		if (this.structure[cursor[0]] == NULL) {
+			return null;
+		}
+
+		int dimension = this.structure[cursor[0]++];
+		int measures = this.structure[cursor[0]++];
+
+		return decode(cursor, dimension, measures);
+	}
+
+	/**
+	 * Checks whether a feature is a point or multipoint, without decoding its
+	 * geometry.
+	 *
+	 * @param index the index of the feature.
+	 * @return {@code true} for points and multipoints.
+	 */
+	public boolean isPuntal(int index) {
+
+		checkIndex(index);
+
+		// Structure of a geometry: dimension, measures, type, ...
+		int offset = this.structureOffsets[index];
+		if (this.structure[offset] == NULL) {
+			return false;
+		}
+
+		int type = this.structure[offset + 2];
+		return type == POINT || type == MULTIPOINT;
+	}
+
+	/**
+	 * Computes the envelope of a feature from its packed coordinates, without
+	 * decoding its geometry.
+	 *
+	 * @param index the index of the feature.
+	 * @return the {@link org.locationtech.jts.geom.Envelope}; a null envelope for
+	 *         empty or {@code null} geometries.
+	 */
+	public Envelope getEnvelope(int index) {
+
+		checkIndex(index);
+
+		Envelope envelope = new Envelope();
+		int start = this.ordinateOffsets[index];
+		int end = this.ordinateOffsets[index + 1];
+		if (start == end) {
+			return envelope;
+		}
+
+		int dimension = this.structure[this.structureOffsets[index]];
+		for (int i = start; i < end; i += dimension) {
+			envelope.expandToInclude(this.ordinates[i], this.ordinates[i + 1]);
+		}
+
+		return envelope;
+	}
+
+	/**
+	 * Releases the spare capacity of the packed arrays once all features have
+	 * been appended.
+	 */
+	public void trimToSize() {
+		this.structureOffsets = Arrays.copyOf(this.structureOffsets, this.size + 1);
+		this.ordinateOffsets = Arrays.copyOf(this.ordinateOffsets, this.size + 1);
+		this.structure = Arrays.copyOf(this.structure, this.structureSize);
+		this.ordinates = Arrays.copyOf(this.ordinates, this.ordinateSize);
+		if (this.format != null) {
+			this.textOffsets = Arrays.copyOf(this.textOffsets, this.size + 1);
+			this.text = Arrays.copyOf(this.text, this.textSize);
+		}
+	}
+
+	/**
+	 * Retrieves the heap taken by the packed arrays, including spare capacity.
+	 *
+	 * @return the number of bytes.
+	 */
+	public long getEstimatedHeapBytes() {
+		long bytes = ((long) this.structureOffsets.length + this.ordinateOffsets.length + this.structure.length)
+				* Integer.BYTES + (long) this.ordinates.length * Double.BYTES;
+		if (this.format != null) {
+			bytes += (long) this.textOffsets.length * Integer.BYTES + this.text.length;
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Appends the structure and coordinates of a geometry.
+	 */
+	private void encode(Geometry geometry, int dimension, int measures) {
+
+		if (geometry instanceof Point) {
+			appendStructure(POINT);
+			appendSequence(((Point) geometry).getCoordinateSequence(), dimension, measures);
+		} else if (geometry instanceof LinearRing) {
+			appendStructure(LINEARRING);
+			appendSequence(((LinearRing) geometry).getCoordinateSequence(), dimension, measures);
+		} else if (geometry instanceof LineString) {
+			appendStructure(LINESTRING);
+			appendSequence(((LineString) geometry).getCoordinateSequence(), dimension, measures);
+		} else if (geometry instanceof Polygon) {
+			Polygon polygon = (Polygon) geometry;
+			appendStructure(POLYGON);
+			appendStructure(polygon.isEmpty() ? 0 : polygon.getNumInteriorRing() + 1);
+			if (!polygon.isEmpty()) {
+				appendSequence(polygon.getExteriorRing().getCoordinateSequence(), dimension, measures);
+				for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+					appendSequence(polygon.getInteriorRingN(i).getCoordinateSequence(), dimension, measures);
+				}
+			}
+		} else {
+			// Multi geometries are collections => check them first
+			if (geometry instanceof MultiPoint) {
+				appendStructure(MULTIPOINT);
+			} else if (geometry instanceof MultiLineString) {
+				appendStructure(MULTILINESTRING);
+			} else if (geometry instanceof MultiPolygon) {
+				appendStructure(MULTIPOLYGON);
+			} else if (geometry instanceof GeometryCollection) {
+				appendStructure(COLLECTION);
+			} else {
+				throw new IllegalArgumentException("Unsupported geometry type: " + geometry.getGeometryType());
+			}
+			appendStructure(geometry.getNumGeometries());
+			for (int i = 0; i < geometry.getNumGeometries(); i++) {
+				encode(geometry.getGeometryN(i), dimension, measures);
+			}
+		}
+	}
+
+	/**
+	 * Appends the coordinate count and the coordinates of a sequence. Spatial
+	 * ordinates come first, followed by the measures; ordinates the sequence
+	 * lacks are stored as NaN.
+	 */
+	private void appendSequence(CoordinateSequence sequence, int dimension, int measures) {
+
+		int count = sequence.size();
+		appendStructure(count);
+		ensureOrdinates(count * dimension);
+
+		int spatial = dimension - measures;
+		int sequenceMeasures = sequence.getMeasures();
+		int sequenceSpatial = sequence.getDimension() - sequenceMeasures;
+
+		for (int i = 0; i < count; i++) {
+			for (int d = 0; d < spatial; d++) {
+				this.ordinates[this.ordinateSize++] = d < sequenceSpatial ? sequence.getOrdinate(i, d) : Double.NaN;
+			}
+			for (int m = 0; m < measures; m++) {
+				this.ordinates[this.ordinateSize++] = m < sequenceMeasures
+						? sequence.getOrdinate(i, sequenceSpatial + m)
+						: Double.NaN;
+			}
+		}
+	}
+
+	/**
+	 * Decodes a geometry, advancing the structure and ordinate cursor.
+	 */
+	private Geometry decode(int[] cursor, int dimension, int measures) {
+
+		int type = this.structure[cursor[0]++];
+
+		switch (type) {
+		case POINT:
+			return GEOMETRY_FACTORY.createPoint(readSequence(cursor, dimension, measures));
+		case LINESTRING:
+			return GEOMETRY_FACTORY.createLineString(readSequence(cursor, dimension, measures));
+		case LINEARRING:
+			return GEOMETRY_FACTORY.createLinearRing(readSequence(cursor, dimension, measures));
+		case POLYGON: {
+			int ringCount = this.structure[cursor[0]++];
+			if (ringCount == 0) {
+				return GEOMETRY_FACTORY.createPolygon();
+			}
+			LinearRing shell = GEOMETRY_FACTORY.createLinearRing(readSequence(cursor, dimension, measures));
+			LinearRing[] holes = new LinearRing[ringCount - 1];
+			for (int i = 0; i < holes.length; i++) {
+				holes[i] = GEOMETRY_FACTORY.createLinearRing(readSequence(cursor, dimension, measures));
+			}
+			return GEOMETRY_FACTORY.createPolygon(shell, holes);
+		}
+		default: {
+			Geometry[] parts = new Geometry[this.structure[cursor[0]++]];
+			for (int i = 0; i < parts.length; i++) {
+				parts[i] = decode(cursor, dimension, measures);
+			}
+			if (type == MULTIPOINT) {
+				return GEOMETRY_FACTORY.createMultiPoint(Arrays.copyOf(parts, parts.length, Point[].class));
+			} else if (type == MULTILINESTRING) {
+				return GEOMETRY_FACTORY
+						.createMultiLineString(Arrays.copyOf(parts, parts.length, LineString[].class));
+			} else if (type == MULTIPOLYGON) {
+				return GEOMETRY_FACTORY.createMultiPolygon(Arrays.copyOf(parts, parts.length, Polygon[].class));
+			}
+			return GEOMETRY_FACTORY.createGeometryCollection(parts);
+		}
+		}
+	}
+
+	private CoordinateSequence readSequence(int[] cursor, int dimension, int measures) {
+
+		int count = this.structure[cursor[0]++];
+		int start = cursor[1];
+		cursor[1] += count * dimension;
+
+		return PackedCoordinateSequenceFactory.DOUBLE_FACTORY
+				.create(Arrays.copyOfRange(this.ordinates, start, cursor[1]), dimension, measures);
+	}
+
+	/**
+	 * Collects the largest spatial dimension and measure count of all coordinate
+	 * sequences of a geometry, which define the dimension stored for the whole
+	 * feature.
+	 *
+	 * @param dimensions the spatial dimension and measures found so far, updated
+	 *                   in place.
+	 */
+	private static void collectDimensions(Geometry geometry, int[] dimensions) {
+
+		if (geometry instanceof Point) {
+			collectDimensions(((Point) geometry).getCoordinateSequence(), dimensions);
+		} else if (geometry instanceof LineString) {
+			collectDimensions(((LineString) geometry).getCoordinateSequence(), dimensions);
+		} else if (geometry instanceof Polygon) {
+			Polygon polygon = (Polygon) geometry;
+			collectDimensions(polygon.getExteriorRing().getCoordinateSequence(), dimensions);
+			for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+				collectDimensions(polygon.getInteriorRingN(i).getCoordinateSequence(), dimensions);
+			}
+		} else {
+			for (int i = 0; i < geometry.getNumGeometries(); i++) {
+				collectDimensions(geometry.getGeometryN(i), dimensions);
+			}
+		}
+	}
+
+	private static void collectDimensions(CoordinateSequence sequence, int[] dimensions) {
+		dimensions[0] = Math.max(dimensions[0], sequence.getDimension() - sequence.getMeasures());
+		dimensions[1] = Math.max(dimensions[1], sequence.getMeasures());
+	}
+
+	private void appendStructure(int value) {
+		ensureStructure(1);
+		this.structure[this.structureSize++] = value;
+	}
+
+	private void ensureFeatures(int count) {
+		if (this.size + count + 1 > this.structureOffsets.length) {
+			int capacity = Math.max(this.size + count + 1,
+					this.structureOffsets.length + (this.structureOffsets.length >> 1));
+			this.structureOffsets = Arrays.copyOf(this.structureOffsets, capacity);
+			this.ordinateOffsets = Arrays.copyOf(this.ordinateOffsets, capacity);
+			if (this.format != null) {
+				this.textOffsets = Arrays.copyOf(this.textOffsets, capacity);
+			}
+		}
+	}
+
+	private void ensureStructure(int count) {
+		if (this.structureSize + count > this.structure.length) {
+			this.structure = Arrays.copyOf(this.structure,
+					Math.max(this.structureSize + count, this.structure.length + (this.structure.length >> 1)));
+		}
+	}
+
+	private void ensureOrdinates(int count) {
+		if (this.ordinateSize + count > this.ordinates.length) {
+			this.ordinates = Arrays.copyOf(this.ordinates,
+					Math.max(this.ordinateSize + count, this.ordinates.length + (this.ordinates.length >> 1)));
+		}
+	}
+
+	private void ensureText(int count) {
+		if (this.textSize + count > this.text.length) {
+			this.text = Arrays.copyOf(this.text,
+					Math.max(this.textSize + count, this.text.length + (this.text.length >> 1)));
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+
+/**
+ * Compression: Enum representing the compression of an input file, derived
+ * from its last extension, e.g. {@code tiles.txt.gz}. Compressed files are
+ * decompressed while being read, without temporary files.
+ */
+public enum Compression {
+
+	/**
+	 * Uncompressed file.
+	 */
+	NONE(null),
+
+	/**
+	 * gzip compressed file, possibly of several concatenated members.
+	 */
+	GZIP("gz"),
+
+	/**
+	 * bzip2 compressed file, possibly of several concatenated streams.
+	 */
+	BZIP2("bz2"),
+
+	/**
+	 * Zstandard compressed file.
+	 */
+	ZSTD("zst");
+
+	private final String extension;
+
+	Compression(String extension) {
+		this.extension = extension;
+	}
+
+	public String getExtension() {
+		return this.extension;
+	}
+
+	/**
+	 * Determines the compression of a file from its last extension.
+	 *
+	 * @param file the input file.
+	 * @return the matching {@link Compression}; {@link #NONE} for unknown
+	 *         extensions.
+	 */
+	public static Compression of(File file) {
+
+		String name = file.getName().toLowerCase();
+		for (Compression compression : values()) {
+			if (compression.extension != null && name.endsWith("." + compression.extension)) {
+				return compression;
+			}
+		}
+
+		return NONE;
+	}
+
+	/**
+	 * Removes the compression extension of a file, e.g. {@code tiles.txt.gz}
+	 * becomes {@code tiles.txt}, so extension checks and sidecar files look at
+	 * the name of the decompressed content.
+	 *
+	 * @param file the input file.
+	 * @return the path without compression extension.
+	 */
+	public static String stripExtension(File file) {
+
+		Compression compression = of(file);
+		String path = file.getPath();
+		if (compression == NONE) {
+			return path;
+		}
+
+		return path.substring(0, path.length() - compression.extension.length() - 1);
+	}
+
+	/**
+	 * Wraps a stream of the raw file in a decompressing stream.
+	 *
+	 * @param raw the {@link java.io.InputStream} of the file content.
+	 * @return the decompressed {@link java.io.InputStream}; the raw stream itself
+	 *         for {@link #NONE}.
+	 * @throws IOException if the header of the compressed stream is invalid.
+	 */
+	public InputStream open(InputStream raw) throws IOException {
+
+		switch (this) {
+		case GZIP:
+			return new GZIPInputStream(raw, Constants.READ_BUFFER_SIZE);
+		case BZIP2:
+			return new BZip2CompressorInputStream(new BufferedInputStream(raw, Constants.READ_BUFFER_SIZE), true);
+		case ZSTD:
+			return new ZstdCompressorInputStream(new BufferedInputStream(raw, Constants.READ_BUFFER_SIZE));
+		default:
+			return raw;
+		}
+	}
+}
@@ -1,18 +1,82 @@
-package org.geotools.tutorial.txtreader;
-	
-public final class Constants {
-	
-	public static final int WINDOW_WIDTH = 800;
-	public static final int WINDOW_HEIGHT = 600;
-	
-	public static final int REMOVEMENU_COL_COUNT = 1;
-	
-	public static final int STYLEMENU_COL_COUNT = 2;
-	public static final int STYLEMENU_ROW_COUNT = 3;
-	
-	public static final int DIALOG_PADDING = 20;
-	
-	public static final double MARKER_SIZE = 1.0;
-	public static final double MARKER_ROTATION = 1.0;
-	
-}
+package org.geotools.tutorial.txtreader;
+	
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+	
+public final class Constants {
+	
+	public static final int WINDOW_WIDTH = 800;
+	public static final int WINDOW_HEIGHT = 600;
+	
+	public static final int REMOVEMENU_COL_COUNT = 1;
+	
+	public static final int STYLEMENU_COL_COUNT = 2;
+	public static final int STYLEMENU_ROW_COUNT = 3;
+	
+	public static final int DIALOG_PADDING = 20;
+	
+	public static final String GEOMETRY_ATTRIBUTE = "the_geom";
+	
+	public static final double MARKER_SIZE = 1.0;
+	public static final double MARKER_ROTATION = 1.0;
+	
+	public static final int READ_BUFFER_SIZE = 64 * 1024;
+	public static final int MAPPED_WINDOW_SIZE = 256 * 1024 * 1024;
+	
+	public static final long PARALLEL_FILE_SIZE = 64L * 1024 * 1024;
+	public static final long PARALLEL_MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+	public static final int PARALLEL_CHUNKS_PER_CORE = 4;
+	
+	public static final long STREAMING_FILE_SIZE = 1024L * 1024 * 1024;
+	
+	public static final int SIMPLIFICATION_LEVELS = 5;
+	public static final double SIMPLIFICATION_LEVEL_FACTOR = 4.0;
+	public static final double SIMPLIFICATION_BASE_TOLERANCE = 1.0 / 65536;
+	
+	public static final String RENDER_MODE_PROPERTY = "txtreader.renderMode";
+	public static final int TILE_SIZE = 256;
+	public static final long TILE_CACHE_BYTES = 256L * 1024 * 1024;
+	public static final int TILE_SCALE_DIGITS = 10;
+	public static final int TILE_INVALIDATION_HISTORY = 256;
+	
+	public static final String CACHE_DIR_PROPERTY = "txtreader.cacheDir";
+	public static final String CACHE_QUOTA_PROPERTY = "txtreader.cacheQuota";
+	public static final long CACHE_QUOTA_BYTES = 1024L * 1024 * 1024;
+	public static final int CACHE_SAMPLE_SIZE = 64 * 1024;
+	
+	public static final long FOLLOW_POLL_INTERVAL = 1000;
+	public static final int FOLLOW_BATCH_SIZE = 10000;
+	
+	public static final String INVALID_LINE_POLICY_PROPERTY = "txtreader.invalidLinePolicy";
+	public static final String MAX_INVALID_LINES_PROPERTY = "txtreader.maxInvalidLines";
+	public static final int MAX_INVALID_LINES = 1000;
+	public static final int ERROR_SAMPLE_LIMIT = 10;
+	
+	public static final double BULK_LOAD_HEAP_FRACTION = 0.5;
+	public static final int BULK_LOAD_HEAP_PER_BYTE = 4;
+	
+	public static final int PHASE_SAMPLE_INTERVAL = 64;
+	public static final long PROGRESS_INTERVAL = 1024L * 1024;
+	public static final int PREVIEW_FEATURE_COUNT = 10000;
+	
+	public static final String COMPACT_FEATURES_PROPERTY = "txtreader.compactFeatures";
+	
+	public static final String[] INPUT_EXTENSIONS = { "txt", "csv", "tsv" };
+	public static final Charset INPUT_CHARSET = StandardCharsets.UTF_8;
+	public static final int DELIMITED_SAMPLE_LINES = 100;
+	
+	public static final int REPROJECTION_CACHE_SIZE = 2;
+	
+	public static final int DECOMPRESSION_BLOCK_SIZE = 1024 * 1024;
+	public static final int DECOMPRESSION_QUEUE_BLOCKS = 8;
+	public static final int COMPRESSION_RATIO = 5;
+	
+	public static final int PREPARED_GEOMETRY_CACHE_SIZE = 10000;
+	public static final int IDENTIFY_PIXEL_TOLERANCE = 3;
+	public static final int IDENTIFY_DIALOG_ROWS = 20;
+	public static final int IDENTIFY_RESULT_LIMIT = 10;
+	
+	public static final String GEOMETRY_VALIDATION_PROPERTY = "txtreader.geometryValidation";
+	public static final int VALIDATION_BATCH_SIZE = 4096;
+	
+}
@@ -0,0 +1,225 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * DecompressionPipeline: {@link java.io.InputStream} over the decompressed
+ * content of a compressed file. A dedicated thread decompresses the file into
+ * blocks of {@value Constants#DECOMPRESSION_BLOCK_SIZE} bytes and hands them to
+ * the reading thread through a queue of at most
+ * {@value Constants#DECOMPRESSION_QUEUE_BLOCKS} blocks, so decompression and
+ * line splitting overlap while the memory in flight stays bounded. Nothing is
+ * written to disk. Reading must happen on a single thread.
+ */
+public class DecompressionPipeline extends InputStream {
+
+	// Marks the end of the content, or a failure of the decompression thread
+	private static final byte[] END = new byte[0];
+
+	private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(Constants.DECOMPRESSION_QUEUE_BLOCKS);
+	private final CountingInputStream compressed;
+	private final Thread thread;
+
+	private volatile Throwable failure;
+
+	// Block being read
+	private byte[] block;
+	private int position;
+
+	private long reportedBytes;
+
+	/**
+	 * Constructor: Opens a compressed file and starts decompressing it.
+	 *
+	 * @param sourceFile  the compressed file.
+	 * @param compression the {@link Compression} of the file.
+	 * @throws IOException if the file can't be opened or its header is invalid.
+	 */
+	public DecompressionPipeline(File sourceFile, Compression compression) throws IOException {
+
+		this.compressed = new CountingInputStream(new FileInputStream(sourceFile));
+		InputStream decompressed;
+		try {
+			decompressed = compression.open(this.compressed);
+		} catch (IOException e) {
+			this.compressed.close();
+			throw e;
+		}
+
+		this.thread = new Thread(() -> decompress(decompressed), "decompress-" + sourceFile.getName());
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Runs on the decompression thread: fills blocks until the end of the
+	 * content, the first failure or until the pipeline is closed. Any failure,
+	 * including runtime exceptions and errors of the codecs, is handed to the
+	 * reader, so it never waits for a block that doesn't come.
+	 */
+	private void decompress(InputStream decompressed) {
+
+		boolean closed = false;
+		try (InputStream input = decompressed) {
+			while (true) {
+				byte[] next = new byte[Constants.DECOMPRESSION_BLOCK_SIZE];
+				int length = input.readNBytes(next, 0, next.length);
+				if (length == 0) {
+					break;
+				}
+				this.blocks.put(length == next.length ? next : Arrays.copyOf(next, length));
+			}
+		} catch (InterruptedException e) {
+			closed = true; // Closed by the reader => nobody waits for the end
+		} catch (Throwable e) {
+			this.failure = e;
+		} finally {
+			if (!closed) {
+				try {
+					this.blocks.put(END);
+				} catch (InterruptedException e) {
+					// Closed by the reader
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes the next block current once the current one is consumed.
+	 *
+	 * @return {@code false} at the end of the content.
+	 * @throws IOException if decompression failed or the reading thread was
+	 *                     interrupted.
+	 */
+	private boolean nextBlock() throws IOException {
+
+		while (this.block == null || this.position == this.block.length) {
+			if (this.block == END) {
+				return false;
+			}
+			try {
+				this.block = this.blocks.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for decompression");
+			}
+			this.position = 0;
+			if (this.block == END && this.failure != null) {
+				throw new IOException("Could not decompress file: " + this.failure.getMessage(), this.failure);
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+
+		if (!nextBlock()) {
+			return -1;
+		}
+
+		return this.block[this.position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+
+		if (length == 0) {
+			return 0;
+		}
+		if (!nextBlock()) {
+			return -1;
+		}
+
+		int count = Math.min(length, this.block.length - this.position);
+		System.arraycopy(this.block, this.position, buffer, offset, count);
+		this.position += count;
+
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return this.block != null ? this.block.length - this.position : 0;
+	}
+
+	/**
+	 * Retrieves the compressed bytes the decompression thread consumed since the
+	 * previous call, for progress reporting in terms of the file size.
+	 *
+	 * @return the number of compressed bytes.
+	 */
+	public long takeCompressedBytes() {
+
+		long count = this.compressed.count;
+		long bytes = count - this.reportedBytes;
+		this.reportedBytes = count;
+
+		return bytes;
+	}
+
+	/**
+	 * Stops the decompression thread and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		this.thread.interrupt();
+		this.blocks.clear();
+		this.block = END;
+
+		try {
+			this.thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * CountingInputStream class: Nested class inside of
+	 * {@link DecompressionPipeline}. Counts the bytes read from the compressed
+	 * file.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		private volatile long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				this.count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int count = super.read(buffer, offset, length);
+			if (count > 0) {
+				this.count += count;
+			}
+			return count;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			this.count += skipped;
+			return skipped;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.geotools.api.feature.Property;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.feature.type.Name;
+import org.geotools.api.filter.identity.FeatureId;
+import org.geotools.feature.simple.SimpleFeatureImpl;
+
+/**
+ * DelimitedFeature: Feature of a {@link DelimitedFormat} file whose geometry is
+ * parsed while loading and whose other attributes are kept as the text of their
+ * columns until first read. Rendering only needs the geometry, so the
+ * attributes of most features are never parsed.
+ */
+public class DelimitedFeature extends SimpleFeatureImpl {
+
+	private final DelimitedFormat format;
+	private final String attributeText;
+
+	private volatile boolean parsed;
+
+	/**
+	 * Constructor: Constructs a {@link DelimitedFeature}.
+	 *
+	 * @param format        the {@link DelimitedFormat} of the file.
+	 * @param featureType   the schema of the feature, with the attributes of the
+	 *                      format.
+	 * @param values        the attribute values holding the parsed geometry.
+	 * @param attributeText the delimited text of the other columns.
+	 * @param id            the {@link org.geotools.api.filter.identity.FeatureId}.
+	 */
+	public DelimitedFeature(DelimitedFormat format, SimpleFeatureType featureType, Object[] values,
+			String attributeText, FeatureId id) {
+		super(values, featureType, id, false);
+		this.format = format;
+		this.attributeText = attributeText;
+	}
+
+	/**
+	 * Retrieves the unparsed text of the non-geometry columns.
+	 *
+	 * @return the delimited text.
+	 */
+	public String getAttributeText() {
+		return this.attributeText;
+	}
+
+	/**
+	 * Parses the non-geometry columns on first access.
+	 */
+	private void ensureParsed() {
+		if (!this.parsed) {
+			synchronized (this) {
+				if (!this.parsed) {
+					this.format.parseAttributes(this.attributeText, this.values);
+					this.parsed = true;
+				}
+			}
+		}
+	}
+
+	@Override
+	public Object getAttribute(int index) {
+		ensureParsed();
+		return super.getAttribute(index);
+	}
+
+	@Override
+	public Object getAttribute(String name) {
+		ensureParsed();
+		return super.getAttribute(name);
+	}
+
+	@Override
+	public Object getAttribute(Name name) {
+		ensureParsed();
+		return super.getAttribute(name);
+	}
+
+	@Override
+	public List<Object> getAttributes() {
+		ensureParsed();
+		return super.getAttributes();
+	}
+
+	@Override
+	public void setAttribute(int index, Object value) {
+		ensureParsed();
+		super.setAttribute(index, value);
+	}
+
+	@Override
+	public void setAttribute(String name, Object value) {
+		ensureParsed();
+		super.setAttribute(name, value);
+	}
+
+	@Override
+	public void setAttribute(Name name, Object value) {
+		ensureParsed();
+		super.setAttribute(name, value);
+	}
+
+	@Override
+	public void setAttributes(List<Object> values) {
+		ensureParsed();
+		super.setAttributes(values);
+	}
+
+	@Override
+	public void setAttributes(Object[] values) {
+		ensureParsed();
+		super.setAttributes(values);
+	}
+
+	@Override
+	public Collection<Property> getProperties() {
+		ensureParsed();
+		return super.getProperties();
+	}
+
+	@Override
+	public Collection<Property> getProperties(Name name) {
+		ensureParsed();
+		return super.getProperties(name);
+	}
+
+	@Override
+	public Collection<Property> getProperties(String name) {
+		ensureParsed();
+		return super.getProperties(name);
+	}
+
+	@Override
+	public Property getProperty(Name name) {
+		ensureParsed();
+		return super.getProperty(name);
+	}
+
+	@Override
+	public Property getProperty(String name) {
+		ensureParsed();
+		return super.getProperty(name);
+	}
+
+	@Override
+	public Collection<? extends Property> getValue() {
+		ensureParsed();
+		return super.getValue();
+	}
+
+	@Override
+	public void setValue(Collection<Property> values) {
+		ensureParsed();
+		super.setValue(values);
+	}
+
+	@Override
+	public void setValue(Object newValue) {
+		ensureParsed();
+		super.setValue(newValue);
+	}
+
+	@Override
+	public int hashCode() {
+		ensureParsed();
+		return super.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		ensureParsed();
+		if (obj instanceof DelimitedFeature) {
+			((DelimitedFeature) obj).ensureParsed();
+		}
+		return super.equals(obj);
+	}
+}
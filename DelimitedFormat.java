@@ -0,0 +1,496 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.filter.identity.FeatureIdImpl;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * DelimitedFormat: Layout of a TXT file whose lines hold a WKT geometry next to
+ * other columns, such as {@code id;class;WKT} or a CSV or TSV file with a
+ * header. Detected from the first lines of a file: the delimiter is the first of
+ * tab, semicolon, pipe and comma that splits every sampled line into the same
+ * number of columns, one of which is WKT on every line. Delimiters inside
+ * double quotes or parentheses don't split, so a WKT column with commas needs
+ * no quoting. A first line without WKT in the geometry column is a header.
+ * <p>
+ * Header names can declare their type as {@code name:Type}, with
+ * {@code String}, {@code Integer}, {@code Long}, {@code Double},
+ * {@code Boolean}, {@code Date} or {@code Geometry}. Undeclared types are
+ * inferred from the sampled values. Only the geometry is parsed while loading;
+ * the other columns are kept as text and parsed by {@link DelimitedFeature} on
+ * first access. Values that don't match their column type read as
+ * {@code null}.
+ */
+public class DelimitedFormat {
+
+	private static final char[] DELIMITERS = { '\t', ';', '|', ',' };
+
+	private final char delimiter;
+	private final boolean header;
+	private final int geometryColumn;
+	private final Class<?>[] types;
+	private final SimpleFeatureType featureType;
+
+	/**
+	 * Constructor: Constructs a {@link DelimitedFormat}.
+	 *
+	 * @param delimiter      the column delimiter.
+	 * @param header         whether the first line holds the column names.
+	 * @param names          the column names; the name of the geometry column is
+	 *                       replaced by {@value Constants#GEOMETRY_ATTRIBUTE}.
+	 * @param types          the column types; the type of the geometry column is
+	 *                       ignored.
+	 * @param geometryColumn the index of the WKT column.
+	 * @param crs            the
+	 *                       {@link org.geotools.api.referencing.crs.CoordinateReferenceSystem}
+	 *                       of the geometries.
+	 */
+	public DelimitedFormat(char delimiter, boolean header, String[] names, Class<?>[] types, int geometryColumn,
+			CoordinateReferenceSystem crs) {
+		this.delimiter = delimiter;
+		this.header = header;
+		this.geometryColumn = geometryColumn;
+		this.types = types.clone();
+		this.types[geometryColumn] = Geometry.class;
+		this.featureType = createFeatureType(names, this.types, geometryColumn, crs);
+	}
+
+	/**
+	 * Detects the layout of a file from its first
+	 * {@value Constants#DELIMITED_SAMPLE_LINES} non-blank lines. The CRS comes
+	 * from {@link TXTFileParser#getSourceCRS(File)}.
+	 *
+	 * @param sourceFile the file to be inspected.
+	 * @return the {@link DelimitedFormat}, or {@code null} if the file holds a
+	 *         plain WKT geometry per line.
+	 * @throws IOException if the file or its CRS can't be read.
+	 */
+	public static DelimitedFormat detect(File sourceFile) throws IOException {
+
+		List<String> sample = new ArrayList<>();
+		try (InputStream raw = new FileInputStream(sourceFile);
+				BufferedReader reader = new BufferedReader(
+						new InputStreamReader(Compression.of(sourceFile).open(raw), Constants.INPUT_CHARSET))) {
+			String line;
+			while (sample.size() < Constants.DELIMITED_SAMPLE_LINES && (line = reader.readLine()) != null) {
+				if (!MappedLineReader.isBlank(line)) {
+					sample.add(line);
+				}
+			}
+		}
+
+		// A plain WKT line first => plain WKT file
+		FastWKTReader reader = new FastWKTReader();
+		if (sample.isEmpty() || isWKT(reader, sample.get(0))) {
+			return null;
+		}
+
+		CoordinateReferenceSystem crs = TXTFileParser.getSourceCRS(sourceFile);
+		for (char delimiter : DELIMITERS) {
+			DelimitedFormat format = detect(sample, delimiter, reader, crs);
+			if (format != null) {
+				return format;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Tries to read the sampled lines as columns split by a delimiter.
+	 *
+	 * @return the {@link DelimitedFormat}, or {@code null} if the delimiter
+	 *         doesn't fit.
+	 */
+	private static DelimitedFormat detect(List<String> sample, char delimiter, FastWKTReader reader,
+			CoordinateReferenceSystem crs) {
+
+		// Every sampled line needs the same number of columns
+		List<String[]> rows = new ArrayList<>();
+		for (String line : sample) {
+			String[] fields = split(line, delimiter);
+			if (fields.length < 2 || (!rows.isEmpty() && fields.length != rows.get(0).length)) {
+				return null;
+			}
+			rows.add(fields);
+		}
+
+		String[] first = rows.get(0);
+		int columnCount = first.length;
+
+		// Header declarations take precedence over inference
+		String[] names = new String[columnCount];
+		Class<?>[] declared = new Class<?>[columnCount];
+		int geometryColumn = -1;
+		for (int c = 0; c < columnCount; c++) {
+			String[] declaration = unquote(first[c]).split(":", 2);
+			names[c] = declaration[0].trim().isEmpty() ? "column" + (c + 1) : declaration[0].trim();
+			declared[c] = declaration.length == 2 ? parseType(declaration[1].trim()) : null;
+			if (declared[c] == Geometry.class) {
+				geometryColumn = c;
+			}
+		}
+
+		// Otherwise the geometry is the first column holding WKT on every data line
+		boolean header = geometryColumn >= 0;
+		for (int c = 0; c < columnCount && geometryColumn < 0; c++) {
+			if (isWKT(reader, rows.subList(1, rows.size()), c)) {
+				geometryColumn = c;
+				header = !isWKT(reader, unquote(first[c]));
+			}
+		}
+		if (geometryColumn < 0 || (rows.size() == 1 && header)) {
+			return null;
+		}
+
+		if (!header) {
+			for (int c = 0; c < columnCount; c++) {
+				names[c] = "column" + (c + 1);
+				declared[c] = null;
+			}
+		}
+
+		// Infer the types that weren't declared from the data lines
+		List<String[]> data = header ? rows.subList(1, rows.size()) : rows;
+		Class<?>[] types = new Class<?>[columnCount];
+		for (int c = 0; c < columnCount; c++) {
+			types[c] = declared[c] != null ? declared[c] : inferType(data, c);
+		}
+
+		return new DelimitedFormat(delimiter, header, names, types, geometryColumn, crs);
+	}
+
+	private static boolean isWKT(FastWKTReader reader, List<String[]> rows, int column) {
+
+		for (String[] row : rows) {
+			if (!isWKT(reader, unquote(row[column]))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isWKT(FastWKTReader reader, String text) {
+		try {
+			reader.read(text);
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Picks the narrowest type that every non-empty sampled value of a column
+	 * parses as.
+	 */
+	private static Class<?> inferType(List<String[]> rows, int column) {
+
+		Class<?>[] candidates = { Integer.class, Long.class, Double.class, Boolean.class, Date.class };
+
+		for (Class<?> candidate : candidates) {
+			boolean matches = true;
+			boolean present = false;
+			for (String[] row : rows) {
+				String value = unquote(row[column]).trim();
+				if (!value.isEmpty()) {
+					present = true;
+					matches &= parseValue(candidate, value) != null;
+				}
+			}
+			if (matches && present) {
+				return candidate;
+			}
+		}
+
+		return String.class;
+	}
+
+	private static Class<?> parseType(String name) {
+
+		switch (name.toLowerCase(Locale.ROOT)) {
+		case "string":
+			return String.class;
+		case "integer":
+		case "int":
+			return Integer.class;
+		case "long":
+			return Long.class;
+		case "double":
+			return Double.class;
+		case "boolean":
+			return Boolean.class;
+		case "date":
+			return Date.class;
+		case "geometry":
+		case "wkt":
+			return Geometry.class;
+		default:
+			throw new IllegalArgumentException("Unknown column type: " + name);
+		}
+	}
+
+	/**
+	 * Creates the schema: the columns in file order, with the geometry as default
+	 * geometry.
+	 */
+	private static SimpleFeatureType createFeatureType(String[] names, Class<?>[] types, int geometryColumn,
+			CoordinateReferenceSystem crs) {
+
+		SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
+		builder.setName("WKT_to_geom");
+		builder.setCRS(crs);
+
+		for (int c = 0; c < names.length; c++) {
+			builder.add(c == geometryColumn ? Constants.GEOMETRY_ATTRIBUTE : names[c], types[c]);
+		}
+		builder.setDefaultGeometry(Constants.GEOMETRY_ATTRIBUTE);
+
+		return builder.buildFeatureType();
+	}
+
+	/**
+	 * Retrieves the schema of the features, with an attribute per column and the
+	 * WKT column as default geometry.
+	 *
+	 * @return the {@link org.geotools.api.feature.simple.SimpleFeatureType}.
+	 */
+	public SimpleFeatureType getFeatureType() {
+		return this.featureType;
+	}
+
+	/**
+	 * Retrieves the character separating the columns.
+	 *
+	 * @return the delimiter.
+	 */
+	public char getDelimiter() {
+		return this.delimiter;
+	}
+
+	/**
+	 * Checks whether the first line of the file holds the column names and has to
+	 * be skipped.
+	 *
+	 * @return {@code true} if the file has a header line.
+	 */
+	public boolean hasHeader() {
+		return this.header;
+	}
+
+	/**
+	 * Parses a line into a {@link DelimitedFeature}. Only the geometry column is
+	 * parsed; the text of the other columns is kept for lazy parsing.
+	 *
+	 * @param reader a {@link FastWKTReader} object.
+	 * @param line   the input line.
+	 * @param timer  the running {@link PhaseTimer}.
+	 * @return a {@link DelimitedFeature}.
+	 * @throws ParseException if the line has the wrong number of columns or the
+	 *                        geometry is not valid WKT.
+	 */
+	SimpleFeature parseLine(FastWKTReader reader, CharSequence line, PhaseTimer timer) throws ParseException {
+
+		int columnCount = this.types.length;
+		int[] bounds = new int[2 * columnCount];
+		int count = split(line, this.delimiter, bounds);
+		if (count != columnCount) {
+			throw new ParseException("Expected " + columnCount + " columns, found " + count);
+		}
+
+		// Parse the geometry now, without the quotes around it
+		int start = bounds[2 * this.geometryColumn];
+		int end = bounds[2 * this.geometryColumn + 1];
+		if (end - start >= 2 && line.charAt(start) == '"' && line.charAt(end - 1) == '"') {
+			start++;
+			end--;
+		}
+		Geometry geometry = reader.read(line.subSequence(start, end));
+		timer.lap(LoadPhase.WKT_PARSE);
+
+		// Keep the remaining columns as delimited text, decoded by toString()
+		// rather than copied char by char => mapped lines aren't read as bytes
+		StringBuilder attributes = new StringBuilder();
+		for (int c = 0; c < columnCount; c++) {
+			if (c != this.geometryColumn) {
+				if (attributes.length() > 0 || c > (this.geometryColumn == 0 ? 1 : 0)) {
+					attributes.append(this.delimiter);
+				}
+				attributes.append(line.subSequence(bounds[2 * c], bounds[2 * c + 1]).toString());
+			}
+		}
+
+		Object[] values = new Object[columnCount];
+		values[this.geometryColumn] = geometry;
+		SimpleFeature feature = new DelimitedFeature(this, this.featureType, values, attributes.toString(),
+				new FeatureIdImpl(SimpleFeatureBuilder.createDefaultFeatureId()));
+		timer.lap(LoadPhase.FEATURE_BUILD);
+
+		return feature;
+	}
+
+	/**
+	 * Parses the text of the non-geometry columns into a value array.
+	 *
+	 * @param attributes the delimited text kept by
+	 *                   {@link #parseLine(FastWKTReader, CharSequence, PhaseTimer)}.
+	 * @param values     the values of the feature, receiving every column but the
+	 *                   geometry.
+	 */
+	void parseAttributes(String attributes, Object[] values) {
+
+		String[] fields = split(attributes, this.delimiter);
+
+		int field = 0;
+		for (int c = 0; c < this.types.length && field < fields.length; c++) {
+			if (c != this.geometryColumn) {
+				String value = unquote(fields[field++]).trim();
+				values[c] = value.isEmpty() ? null : parseValue(this.types[c], value);
+			}
+		}
+	}
+
+	/**
+	 * Parses a value as a column type.
+	 *
+	 * @return the value, or {@code null} if it doesn't match the type.
+	 */
+	private static Object parseValue(Class<?> type, String value) {
+
+		try {
+			if (type == Integer.class) {
+				return Integer.valueOf(value);
+			} else if (type == Long.class) {
+				return Long.valueOf(value);
+			} else if (type == Double.class) {
+				return Double.valueOf(value);
+			} else if (type == Boolean.class) {
+				return value.equalsIgnoreCase("true") ? Boolean.TRUE
+						: value.equalsIgnoreCase("false") ? Boolean.FALSE : null;
+			} else if (type == Date.class) {
+				return parseDate(value);
+			}
+		} catch (NumberFormatException | DateTimeParseException e) {
+			return null;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Parses an ISO-8601 date, date-time or date-time with offset; times without
+	 * an offset are taken as UTC.
+	 */
+	private static Date parseDate(String value) {
+
+		if (value.length() <= 10) {
+			return Date.from(LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant());
+		}
+
+		try {
+			return Date.from(OffsetDateTime.parse(value).toInstant());
+		} catch (DateTimeParseException e) {
+			return Date.from(LocalDateTime.parse(value).toInstant(ZoneOffset.UTC));
+		}
+	}
+
+	/**
+	 * Splits a line into its fields, without removing quotes.
+	 */
+	private static String[] split(CharSequence line, char delimiter) {
+
+		int[] bounds = new int[2 * (count(line, delimiter) + 1)];
+		int count = split(line, delimiter, bounds);
+
+		String[] fields = new String[count];
+		for (int i = 0; i < count; i++) {
+			fields[i] = line.subSequence(bounds[2 * i], bounds[2 * i + 1]).toString();
+		}
+
+		return fields;
+	}
+
+	private static int count(CharSequence line, char delimiter) {
+
+		int count = 0;
+		for (int i = 0; i < line.length(); i++) {
+			if (line.charAt(i) == delimiter) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Finds the field boundaries of a line. Delimiters within double quotes or
+	 * parentheses are part of the field.
+	 *
+	 * @param line      the input line.
+	 * @param delimiter the column delimiter.
+	 * @param bounds    receives start and end of every field, as far as it fits.
+	 * @return the number of fields.
+	 */
+	private static int split(CharSequence line, char delimiter, int[] bounds) {
+
+		int count = 0;
+		int start = 0;
+		int depth = 0;
+		boolean quoted = false;
+
+		for (int i = 0; i <= line.length(); i++) {
+			char c = i < line.length() ? line.charAt(i) : delimiter;
+
+			if (i < line.length() && c == '"') {
+				quoted = !quoted;
+			} else if (!quoted && c == '(') {
+				depth++;
+			} else if (!quoted && c == ')') {
+				depth--;
+			} else if (i == line.length() || (!quoted && depth <= 0 && c == delimiter)) {
+				if (2 * count + 1 < bounds.length) {
+					bounds[2 * count] = start;
+					bounds[2 * count + 1] = i;
+				}
+				count++;
+				start = i + 1;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Removes the double quotes around a field and unescapes doubled quotes.
+	 */
+	private static String unquote(String field) {
+
+		String trimmed = field.trim();
+		if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+			return trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"");
+		}
+
+		return field;
+	}
+}
@@ -0,0 +1,549 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * FastWKTReader: Allocation-light reader for the WKT geometries found in TXT
+ * files (POINT, LINESTRING, POLYGON, their MULTI variants and
+ * GEOMETRYCOLLECTION). Numbers are parsed directly from the
+ * {@link java.lang.CharSequence} into packed coordinate arrays, without
+ * tokenizer or per-coordinate objects. Input that this reader does not handle
+ * itself (other geometry types, mixed ordinate counts, unusual number formats)
+ * is passed on to a {@link org.locationtech.jts.io.WKTReader}, so the result is
+ * always the geometry {@link org.locationtech.jts.io.WKTReader} would return.
+ *
+ * Instances are not thread-safe; use one reader per thread.
+ */
+public class FastWKTReader {
+
+	// Powers of ten that are exactly representable as double
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	// Mantissas with at most this many digits are exactly representable as double
+	private static final int MAX_EXACT_DIGITS = 15;
+
+	private static final Fallback FALLBACK = new Fallback();
+
+	private final GeometryFactory geometryFactory;
+	private final WKTReader fallbackReader;
+
+	private CharSequence text;
+	private int position;
+
+	// Scratch buffer for the ordinates of the coordinate list being read
+	private double[] ordinates = new double[256];
+
+	/**
+	 * Constructor: Constructs a {@link FastWKTReader} creating geometries with
+	 * {@link org.locationtech.jts.geom.impl.PackedCoordinateSequence.Double}
+	 * coordinates.
+	 */
+	public FastWKTReader() {
+		this(new GeometryFactory(new PrecisionModel(), 0, PackedCoordinateSequenceFactory.DOUBLE_FACTORY));
+	}
+
+	/**
+	 * Constructor: Constructs a {@link FastWKTReader} using the specified
+	 * {@link org.locationtech.jts.geom.GeometryFactory}.
+	 *
+	 * @param geometryFactory the
+	 *                        {@link org.locationtech.jts.geom.GeometryFactory} used
+	 *                        to create geometries.
+	 */
+	public FastWKTReader(GeometryFactory geometryFactory) {
+		this.geometryFactory = geometryFactory;
+		this.fallbackReader = new WKTReader(geometryFactory);
+	}
+
+	/**
+	 * Reads a WKT geometry.
+	 *
+	 * @param wkt the WKT text.
+	 * @return the {@link org.locationtech.jts.geom.Geometry} described by the
+	 *         text.
+	 * @throws ParseException if the text is not valid WKT.
+	 */
+	public Geometry read(CharSequence wkt) throws ParseException {
+
+		this.text = wkt;
+		this.position = 0;
+
+		try {
+			Geometry geometry = readGeometryTaggedText();
+
+			// Let WKTReader decide what trailing text means
+			skipWhitespace();
+			if (this.position != this.text.length()) {
+				throw FALLBACK;
+			}
+
+			return geometry;
+
+		} catch (Fallback e) {
+			return this.fallbackReader.read(wkt.toString());
+		} finally {
+			this.text = null;
+		}
+	}
+
+	/**
+	 * Reads a geometry starting with its type tag.
+	 *
+	 * @return the {@link org.locationtech.jts.geom.Geometry} that was read.
+	 * @throws ParseException if the text is not valid WKT.
+	 */
+	private Geometry readGeometryTaggedText() throws ParseException {
+
+		int tagStart = readWord();
+		int tagEnd = this.position;
+
+		int dimension = readDimension();
+
+		if (wordEquals(tagStart, tagEnd, "POINT")) {
+			return readPoint(dimension);
+		} else if (wordEquals(tagStart, tagEnd, "LINESTRING")) {
+			return readLineString(dimension);
+		} else if (wordEquals(tagStart, tagEnd, "POLYGON")) {
+			return readPolygon(dimension);
+		} else if (wordEquals(tagStart, tagEnd, "MULTIPOINT")) {
+			return readMultiPoint(dimension);
+		} else if (wordEquals(tagStart, tagEnd, "MULTILINESTRING")) {
+			return readMultiLineString(dimension);
+		} else if (wordEquals(tagStart, tagEnd, "MULTIPOLYGON")) {
+			return readMultiPolygon(dimension);
+		} else if (wordEquals(tagStart, tagEnd, "GEOMETRYCOLLECTION")) {
+			return readGeometryCollection();
+		}
+
+		// Other (or invalid) types are handled by WKTReader
+		throw FALLBACK;
+	}
+
+	/**
+	 * Reads the optional Z, M or ZM tag following a geometry type.
+	 *
+	 * @return the encoded dimension: 0 if not specified, otherwise the number of
+	 *         ordinates, negated if the last ordinate is a measure.
+	 * @throws ParseException if the text is not valid WKT.
+	 */
+	private int readDimension() throws ParseException {
+
+		skipWhitespace();
+		int start = this.position;
+		if (!Character.isLetter(peek())) {
+			return 0;
+		}
+
+		readWord();
+		if (wordEquals(start, this.position, "Z")) {
+			return 3;
+		} else if (wordEquals(start, this.position, "M")) {
+			return -3;
+		} else if (wordEquals(start, this.position, "ZM")) {
+			return -4;
+		}
+
+		// Not a dimension tag (e.g. EMPTY) => read it again later
+		this.position = start;
+		return 0;
+	}
+
+	private Point readPoint(int dimension) throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createPoint();
+		}
+
+		return this.geometryFactory.createPoint(readCoordinates(dimension, 1, true));
+	}
+
+	private LineString readLineString(int dimension) throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createLineString();
+		}
+
+		return this.geometryFactory.createLineString(readCoordinates(dimension, Integer.MAX_VALUE, true));
+	}
+
+	private Polygon readPolygon(int dimension) throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createPolygon();
+		}
+
+		// Shell followed by any number of holes
+		LinearRing shell = readLinearRing(dimension);
+		List<LinearRing> holes = new ArrayList<>();
+		while (readSeparator()) {
+			holes.add(readLinearRing(dimension));
+		}
+
+		return this.geometryFactory.createPolygon(shell, holes.toArray(new LinearRing[0]));
+	}
+
+	private LinearRing readLinearRing(int dimension) throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createLinearRing();
+		}
+
+		return this.geometryFactory.createLinearRing(readCoordinates(dimension, Integer.MAX_VALUE, true));
+	}
+
+	private Geometry readMultiPoint(int dimension) throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createMultiPoint();
+		}
+
+		// Both MULTIPOINT ((1 2), (3 4)) and MULTIPOINT (1 2, 3 4) are valid
+		List<Point> points = new ArrayList<>();
+		do {
+			skipWhitespace();
+			if (peek() == '(' || Character.isLetter(peek())) {
+				points.add(readPoint(dimension));
+			} else {
+				points.add(this.geometryFactory.createPoint(readCoordinates(dimension, 1, false)));
+			}
+		} while (readSeparator());
+
+		return this.geometryFactory.createMultiPoint(points.toArray(new Point[0]));
+	}
+
+	private Geometry readMultiLineString(int dimension) throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createMultiLineString();
+		}
+
+		List<LineString> lineStrings = new ArrayList<>();
+		do {
+			lineStrings.add(readLineString(dimension));
+		} while (readSeparator());
+
+		return this.geometryFactory.createMultiLineString(lineStrings.toArray(new LineString[0]));
+	}
+
+	private Geometry readMultiPolygon(int dimension) throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createMultiPolygon();
+		}
+
+		List<Polygon> polygons = new ArrayList<>();
+		do {
+			polygons.add(readPolygon(dimension));
+		} while (readSeparator());
+
+		return this.geometryFactory.createMultiPolygon(polygons.toArray(new Polygon[0]));
+	}
+
+	private Geometry readGeometryCollection() throws ParseException {
+
+		if (readEmptyOrOpener()) {
+			return this.geometryFactory.createGeometryCollection();
+		}
+
+		List<Geometry> geometries = new ArrayList<>();
+		do {
+			skipWhitespace();
+			geometries.add(readGeometryTaggedText());
+		} while (readSeparator());
+
+		return this.geometryFactory.createGeometryCollection(geometries.toArray(new Geometry[0]));
+	}
+
+	/**
+	 * Reads a comma-separated list of coordinates. The opening parenthesis must
+	 * already have been consumed.
+	 *
+	 * @param dimension the encoded dimension from {@link #readDimension()}, or 0
+	 *                  to infer it from the first coordinate.
+	 * @param maxCount  the maximum number of coordinates in the list.
+	 * @param closed    whether to consume the closing parenthesis after the list.
+	 * @return a {@link org.locationtech.jts.geom.impl.PackedCoordinateSequence.Double}
+	 *         holding the coordinates.
+	 * @throws ParseException if the text is not valid WKT.
+	 */
+	private PackedCoordinateSequence.Double readCoordinates(int dimension, int maxCount, boolean closed)
+			throws ParseException {
+
+		int ordinateCount = Math.abs(dimension);
+		int count = 0;
+		int coordinateCount = 0;
+
+		while (true) {
+
+			// Read the ordinates of one coordinate
+			int ordinatesRead = 0;
+			skipWhitespace();
+			while (isNumberStart(peek())) {
+				if (count + ordinatesRead == this.ordinates.length) {
+					this.ordinates = Arrays.copyOf(this.ordinates, this.ordinates.length * 2);
+				}
+				this.ordinates[count + ordinatesRead++] = readNumber();
+				skipWhitespace();
+			}
+
+			// The first coordinate decides the dimension if no tag was given
+			if (ordinateCount == 0) {
+				if (ordinatesRead < 2 || ordinatesRead > 4) {
+					throw FALLBACK;
+				}
+				ordinateCount = ordinatesRead;
+			} else if (ordinatesRead != ordinateCount) {
+				throw FALLBACK;
+			}
+			count += ordinatesRead;
+			coordinateCount++;
+
+			// Leave the separator to the caller for bare MULTIPOINT coordinates
+			if (!closed) {
+				break;
+			}
+
+			char c = next();
+			if (c == ')') {
+				break;
+			} else if (c != ',' || coordinateCount == maxCount) {
+				throw FALLBACK;
+			}
+		}
+
+		// M without Z, or four ordinates, means the last ordinate is a measure
+		int measures = (dimension < 0 || ordinateCount == 4) ? 1 : 0;
+
+		return new PackedCoordinateSequence.Double(Arrays.copyOf(this.ordinates, count), ordinateCount, measures);
+	}
+
+	/**
+	 * Reads a number without creating intermediate objects. Numbers with more
+	 * significant digits than a double can represent exactly are parsed by
+	 * {@link java.lang.Double#parseDouble(String)}.
+	 *
+	 * @return the value of the number.
+	 * @throws ParseException if the text is not a valid number.
+	 */
+	private double readNumber() throws ParseException {
+
+		int start = this.position;
+		int length = this.text.length();
+
+		boolean negative = false;
+		char c = peek();
+		if (c == '-' || c == '+') {
+			negative = c == '-';
+			this.position++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigit = false;
+
+		// Integer part
+		while (this.position < length && isDigit(c = this.text.charAt(this.position))) {
+			if (mantissa != 0 || c != '0') {
+				if (digits < 18) {
+					mantissa = mantissa * 10 + (c - '0');
+				} else {
+					exponent++;
+				}
+				digits++;
+			}
+			anyDigit = true;
+			this.position++;
+		}
+
+		// Fraction part
+		if (this.position < length && this.text.charAt(this.position) == '.') {
+			this.position++;
+			while (this.position < length && isDigit(c = this.text.charAt(this.position))) {
+				if (mantissa != 0 || c != '0') {
+					if (digits < 18) {
+						mantissa = mantissa * 10 + (c - '0');
+						exponent--;
+					}
+					digits++;
+				} else {
+					exponent--;
+				}
+				anyDigit = true;
+				this.position++;
+			}
+		}
+
+		if (!anyDigit) {
+			throw FALLBACK;
+		}
+
+		// Exponent part
+		if (this.position < length && Character.toUpperCase(this.text.charAt(this.position)) == 'E') {
+			this.position++;
+			boolean negativeExponent = false;
+			c = peek();
+			if (c == '-' || c == '+') {
+				negativeExponent = c == '-';
+				this.position++;
+			}
+			int value = 0;
+			boolean anyExponentDigit = false;
+			while (this.position < length && isDigit(c = this.text.charAt(this.position))) {
+				value = Math.min(value * 10 + (c - '0'), 100000);
+				anyExponentDigit = true;
+				this.position++;
+			}
+			if (!anyExponentDigit) {
+				throw FALLBACK;
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+
+		// Numbers must be followed by a delimiter
+		if (this.position < length) {
+			c = this.text.charAt(this.position);
+			if (!Character.isWhitespace(c) && c != ',' && c != ')') {
+				throw FALLBACK;
+			}
+		}
+
+		// Exact fast path: both mantissa and power of ten are exact doubles
+		if (digits <= MAX_EXACT_DIGITS && Math.abs(exponent) < POWERS_OF_TEN.length) {
+			double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+			return negative ? -value : value;
+		}
+
+		return Double.parseDouble(this.text.subSequence(start, this.position).toString());
+	}
+
+	/**
+	 * Reads either the EMPTY keyword or an opening parenthesis.
+	 *
+	 * @return {@code true} if EMPTY was read, {@code false} if an opening
+	 *         parenthesis was read.
+	 * @throws ParseException if the text is not valid WKT.
+	 */
+	private boolean readEmptyOrOpener() throws ParseException {
+
+		skipWhitespace();
+		if (peek() == '(') {
+			this.position++;
+			return false;
+		}
+
+		int start = readWord();
+		if (wordEquals(start, this.position, "EMPTY")) {
+			return true;
+		}
+
+		throw FALLBACK;
+	}
+
+	/**
+	 * Reads the separator between two elements or the closing parenthesis of a
+	 * list.
+	 *
+	 * @return {@code true} if a comma was read, {@code false} if a closing
+	 *         parenthesis was read.
+	 * @throws ParseException if the text is not valid WKT.
+	 */
+	private boolean readSeparator() throws ParseException {
+
+		skipWhitespace();
+		char c = next();
+		if (c == ',') {
+			return true;
+		} else if (c == ')') {
+			return false;
+		}
+
+		throw FALLBACK;
+	}
+
+	/**
+	 * Reads a word of letters.
+	 *
+	 * @return the start position of the word; the end is the current position.
+	 * @throws ParseException if the text is not valid WKT.
+	 */
+	private int readWord() throws ParseException {
+
+		skipWhitespace();
+		int start = this.position;
+		while (this.position < this.text.length() && Character.isLetter(this.text.charAt(this.position))) {
+			this.position++;
+		}
+
+		if (start == this.position) {
+			throw FALLBACK;
+		}
+
+		return start;
+	}
+
+	private boolean wordEquals(int start, int end, String word) {
+
+		if (end - start != word.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < word.length(); i++) {
+			if (Character.toUpperCase(this.text.charAt(start + i)) != word.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void skipWhitespace() {
+		while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+			this.position++;
+		}
+	}
+
+	private char peek() {
+		return this.position < this.text.length() ? this.text.charAt(this.position) : 0;
+	}
+
+	private char next() {
+		return this.position < this.text.length() ? this.text.charAt(this.position++) : 0;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isNumberStart(char c) {
+		return isDigit(c) || c == '-' || c == '+' || c == '.';
+	}
+
+	/**
+	 * Fallback class: Nested class inside of {@link FastWKTReader}. Signals that
+	 * the text should be parsed by {@link org.locationtech.jts.io.WKTReader}.
+	 */
+	private static class Fallback extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		Fallback() {
+			super(null, null, false, false);
+		}
+	}
+}
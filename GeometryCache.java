@@ -0,0 +1,407 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+/**
+ * GeometryCache: Persistent cache of parsed TXT files, so reopening a file
+ * decodes binary WKB instead of tokenizing WKT. Every source file has one cache
+ * file, named after its path and validated against its size, modification time
+ * and a checksum of sampled content. Cache files are written in the background
+ * and memory-mapped when read back. The cache directory is kept below a disk
+ * quota by deleting the least recently used cache files.
+ *
+ * <p>
+ * Cache file layout: {@code MAGIC, VERSION, path length, path (UTF-8), source
+ * size, source modification time, sampled checksum, feature count, error type
+ * count, invalid count per ParseErrorType}, followed by one {@code length, WKB} record per feature. Every record
+ * keeps the Z and M ordinates present anywhere in its geometry.
+ */
+public class GeometryCache {
+
+	private static final Logger LOGGER = Logging.getLogger(GeometryCache.class);
+
+	private static final int MAGIC = 0x54585443; // "TXTC"
+	private static final int VERSION = 3;
+	private static final String EXTENSION = ".wkbc";
+
+	private static final GeometryCache DEFAULT = createDefault();
+
+	private final File directory;
+	private final long quota;
+
+	private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 0,
+			PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+	// Single writer => cache files and quota checks never race each other
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "geometry-cache-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Constructor: Constructs a {@link GeometryCache} in a directory.
+	 *
+	 * @param directory the directory holding the cache files.
+	 * @param quota     the maximum total size of the cache files in bytes.
+	 */
+	public GeometryCache(File directory, long quota) {
+		this.directory = directory;
+		this.quota = quota;
+	}
+
+	/**
+	 * Retrieves the cache configured by the
+	 * {@value Constants#CACHE_DIR_PROPERTY} and
+	 * {@value Constants#CACHE_QUOTA_PROPERTY} system properties.
+	 *
+	 * @return the default {@link GeometryCache}, or {@code null} if the quota is
+	 *         zero.
+	 */
+	public static GeometryCache getDefault() {
+		return DEFAULT;
+	}
+
+	private static GeometryCache createDefault() {
+
+		File directory = new File(System.getProperty(Constants.CACHE_DIR_PROPERTY,
+				System.getProperty("user.home") + File.separator + ".txtreader" + File.separator + "cache"));
+		long quota = Long.getLong(Constants.CACHE_QUOTA_PROPERTY, Constants.CACHE_QUOTA_BYTES);
+
+		return quota > 0 ? new GeometryCache(directory, quota) : null;
+	}
+
+	/**
+	 * Reads the cached features of a source file.
+	 *
+	 * @param sourceFile  the TXT file.
+	 * @param featureType the schema of the features.
+	 * @return the cached {@link Entry}, or {@code null} if there is no valid cache
+	 *         file for the current state of the source file.
+	 */
+	public Entry read(File sourceFile, SimpleFeatureType featureType) {
+
+		File cacheFile = getCacheFile(sourceFile);
+		if (!cacheFile.isFile()) {
+			return null;
+		}
+
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+
+			RecordReader records = new RecordReader(channel);
+
+			// Header must describe the current state of the source file
+			if (records.getInt() != MAGIC || records.getInt() != VERSION) {
+				return null;
+			}
+			byte[] path = new byte[records.getInt()];
+			records.get(path);
+			if (!new String(path, StandardCharsets.UTF_8).equals(sourceFile.getCanonicalPath())
+					|| records.getLong() != sourceFile.length() || records.getLong() != sourceFile.lastModified()
+					|| records.getLong() != checksum(sourceFile)) {
+				return null;
+			}
+
+			int featureCount = records.getInt();
+			long[] errorCounts = new long[records.getInt()];
+			for (int i = 0; i < errorCounts.length; i++) {
+				errorCounts[i] = records.getLong();
+			}
+
+			// Decode WKB records into features
+			WKBReader wkbReader = new WKBReader(this.geometryFactory);
+			SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
+			List<SimpleFeature> features = TXTFileParser.createFeatureList(featureType);
+			byte[] wkb = new byte[256];
+
+			for (int i = 0; i < featureCount; i++) {
+				int length = records.getInt();
+				if (length > wkb.length) {
+					wkb = new byte[Math.max(length, wkb.length * 2)];
+				}
+				records.get(wkb, length);
+				featureBuilder.add(wkbReader.read(wkb));
+				features.add(featureBuilder.buildFeature(null));
+			}
+
+			// Mark as recently used for the eviction order
+			cacheFile.setLastModified(System.currentTimeMillis());
+
+			return new Entry(features, ParseErrorReport.fromCounts(errorCounts));
+
+		} catch (IOException | ParseException | RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Ignoring unreadable cache file " + cacheFile, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the features of a source file to the cache in the background. The
+	 * list must not be modified afterwards.
+	 *
+	 * @param sourceFile   the TXT file.
+	 * @param features     the parsed features.
+	 * @param errors       the {@link ParseErrorReport} of the lines that could
+	 *                     not be parsed; only its counts are cached.
+	 */
+	public void write(File sourceFile, List<SimpleFeature> features, ParseErrorReport errors) {
+
+		// Source state is taken now, so a later change invalidates the entry
+		long size = sourceFile.length();
+		long lastModified = sourceFile.lastModified();
+		long[] errorCounts = errors.getCounts();
+
+		this.writer.execute(() -> {
+			try {
+				writeFile(sourceFile, size, lastModified, features, errorCounts);
+				evict();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Could not cache " + sourceFile, e);
+			}
+		});
+	}
+
+	private void writeFile(File sourceFile, long size, long lastModified, List<SimpleFeature> features,
+			long[] errorCounts) throws IOException {
+
+		Files.createDirectories(this.directory.toPath());
+
+		File cacheFile = getCacheFile(sourceFile);
+		File tempFile = new File(cacheFile.getPath() + ".tmp");
+		byte[] path = sourceFile.getCanonicalPath().getBytes(StandardCharsets.UTF_8);
+
+		// Writes only the ordinates found in any coordinate of a geometry => XY stays compact
+		WKBWriter wkbWriter = new WKBWriter(4);
+
+		try (OutputStream file = Files.newOutputStream(tempFile.toPath());
+				DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(file, Constants.READ_BUFFER_SIZE))) {
+
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(path.length);
+			output.write(path);
+			output.writeLong(size);
+			output.writeLong(lastModified);
+			output.writeLong(checksum(sourceFile));
+			output.writeInt(features.size());
+			output.writeInt(errorCounts.length);
+			for (long count : errorCounts) {
+				output.writeLong(count);
+			}
+
+			for (SimpleFeature feature : features) {
+				Geometry geometry = (Geometry) feature.getDefaultGeometry();
+				byte[] wkb = wkbWriter.write(geometry);
+				output.writeInt(wkb.length);
+				output.write(wkb);
+			}
+		}
+
+		// Readers see either the old or the complete new file
+		Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Deletes the least recently used cache files until the cache fits its
+	 * quota.
+	 */
+	private void evict() {
+
+		File[] files = this.directory.listFiles((directory, name) -> name.endsWith(EXTENSION));
+		if (files == null) {
+			return;
+		}
+
+		long total = 0;
+		for (File file : files) {
+			total += file.length();
+		}
+
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length && total > this.quota; i++) {
+			long length = files[i].length();
+			if (files[i].delete()) {
+				total -= length;
+			}
+		}
+	}
+
+	private File getCacheFile(File sourceFile) {
+
+		String path;
+		try {
+			path = sourceFile.getCanonicalPath();
+		} catch (IOException e) {
+			path = sourceFile.getAbsolutePath();
+		}
+
+		return new File(this.directory, UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8)) + EXTENSION);
+	}
+
+	/**
+	 * Computes a checksum over samples from the start, middle and end of a file,
+	 * so content changes that keep size and modification time are detected
+	 * without reading the whole file.
+	 *
+	 * @param sourceFile the file.
+	 * @return the checksum.
+	 * @throws IOException if the file cannot be read.
+	 */
+	static long checksum(File sourceFile) throws IOException {
+
+		CRC32C crc = new CRC32C();
+		ByteBuffer buffer = ByteBuffer.allocate(Constants.CACHE_SAMPLE_SIZE);
+
+		try (FileChannel channel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long[] positions = { 0, Math.max(0, size / 2 - buffer.capacity() / 2), Math.max(0, size - buffer.capacity()) };
+			for (long position : positions) {
+				buffer.clear();
+				channel.read(buffer, position);
+				buffer.flip();
+				crc.update(buffer);
+			}
+		}
+
+		return crc.getValue();
+	}
+
+	/**
+	 * Entry class: Nested class inside of {@link GeometryCache}. The features and
+	 * invalid line counts read from a cache file.
+	 */
+	public static class Entry {
+
+		private final List<SimpleFeature> features;
+		private final ParseErrorReport errors;
+
+		Entry(List<SimpleFeature> features, ParseErrorReport errors) {
+			this.features = features;
+			this.errors = errors;
+		}
+
+		/**
+		 * Retrieves the cached features of the source file.
+		 *
+		 * @return a {@link java.util.List} of the features, in line order.
+		 */
+		public List<SimpleFeature> getFeatures() {
+			return this.features;
+		}
+
+		/**
+		 * Retrieves the number of lines of the source file that could not be
+		 * parsed.
+		 *
+		 * @return the invalid line count.
+		 */
+		public int getInvalidCount() {
+			return (int) this.errors.getErrorCount();
+		}
+
+		/**
+		 * Retrieves the invalid line counts of the source file. Samples aren't
+		 * cached, so the report holds counts only.
+		 *
+		 * @return a {@link ParseErrorReport} without samples.
+		 */
+		public ParseErrorReport getErrors() {
+			return this.errors;
+		}
+	}
+
+	/**
+	 * RecordReader class: Nested class inside of {@link GeometryCache}. Reads
+	 * big-endian values from a file through memory-mapped windows, remapping when
+	 * a value crosses the end of the current window.
+	 */
+	private static class RecordReader {
+
+		private final FileChannel channel;
+		private final long size;
+
+		private MappedByteBuffer window;
+		private long windowStart;
+
+		RecordReader(FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+			map(0, 0);
+		}
+
+		int getInt() throws IOException {
+			ensure(Integer.BYTES);
+			return this.window.getInt();
+		}
+
+		long getLong() throws IOException {
+			ensure(Long.BYTES);
+			return this.window.getLong();
+		}
+
+		void get(byte[] bytes) throws IOException {
+			get(bytes, bytes.length);
+		}
+
+		void get(byte[] bytes, int length) throws IOException {
+			ensure(length);
+			this.window.get(bytes, 0, length);
+		}
+
+		/**
+		 * Makes sure the current window holds the next bytes.
+		 */
+		private void ensure(int bytes) throws IOException {
+
+			if (this.window.remaining() >= bytes) {
+				return;
+			}
+
+			long position = this.windowStart + this.window.position();
+			if (position + bytes > this.size) {
+				throw new IOException("Truncated cache file");
+			}
+			map(position, bytes);
+		}
+
+		private void map(long position, int minimum) throws IOException {
+			long length = Math.min(this.size - position, Math.max(Constants.MAPPED_WINDOW_SIZE, minimum));
+			this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			this.windowStart = position;
+		}
+	}
+}
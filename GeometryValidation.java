@@ -0,0 +1,27 @@
+package org.geotools.tutorial.txtreader;
+
+/**
+ * GeometryValidation: Enum representing what {@link TXTFileParser} does with
+ * geometries that parse but aren't valid, e.g. self-intersecting polygons. The
+ * mode is selected with the {@value Constants#GEOMETRY_VALIDATION_PROPERTY}
+ * system property.
+ */
+public enum GeometryValidation {
+
+	/**
+	 * Keeps all geometries as parsed, without validating them.
+	 */
+	OFF,
+
+	/**
+	 * Drops invalid geometries; they are counted in the
+	 * {@link ValidationReport}.
+	 */
+	REJECT,
+
+	/**
+	 * Repairs invalid geometries and drops those that collapse to an empty
+	 * geometry.
+	 */
+	REPAIR;
+}
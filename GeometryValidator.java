@@ -0,0 +1,169 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Puntal;
+import org.locationtech.jts.geom.util.GeometryFixer;
+import org.locationtech.jts.operation.valid.IsValidOp;
+
+/**
+ * GeometryValidator: Ingestion stage testing the parsed features of a file
+ * with {@link org.locationtech.jts.operation.valid.IsValidOp} and, depending
+ * on the {@link GeometryValidation}, dropping or repairing invalid ones with
+ * {@link org.locationtech.jts.geom.util.GeometryFixer}. Features are validated
+ * in parallel batches of {@value Constants#VALIDATION_BATCH_SIZE}. Points are
+ * skipped, since they can only be invalid through non-finite coordinates, and
+ * the points of a {@link CompactFeatureList} aren't even decoded. The list is
+ * only copied if a geometry actually changes, and repaired features are copies,
+ * so the given features are never modified.
+ */
+public class GeometryValidator {
+
+	/**
+	 * Validates features.
+	 *
+	 * @param features   the parsed
+	 *                   {@link org.geotools.api.feature.simple.SimpleFeature}s.
+	 * @param validation the {@link GeometryValidation} mode.
+	 * @param report     the {@link ValidationReport} the counts are added to.
+	 * @return the features without rejected ones and with repaired geometries,
+	 *         in the same order; the given list itself if all geometries are
+	 *         valid.
+	 */
+	public static List<SimpleFeature> validate(List<SimpleFeature> features, GeometryValidation validation,
+			ValidationReport report) {
+
+		if (validation == GeometryValidation.OFF || features.isEmpty()) {
+			return features;
+		}
+
+		int batchCount = (features.size() + Constants.VALIDATION_BATCH_SIZE - 1) / Constants.VALIDATION_BATCH_SIZE;
+		List<Batch> batches = IntStream.range(0, batchCount).parallel()
+				.mapToObj(batch -> validateBatch(features, batch, validation)).collect(Collectors.toList());
+
+		boolean changed = false;
+		for (Batch batch : batches) {
+			report.add(batch.checked, batch.skipped, batch.repaired, batch.rejected);
+			changed |= !batch.indexes.isEmpty();
+		}
+
+		return changed ? apply(features, batches) : features;
+	}
+
+	/**
+	 * Validates the features of a single batch.
+	 */
+	private static Batch validateBatch(List<SimpleFeature> features, int batch, GeometryValidation validation) {
+
+		CompactFeatureList compact = features instanceof CompactFeatureList ? (CompactFeatureList) features : null;
+
+		Batch result = new Batch();
+		int end = Math.min(features.size(), (batch + 1) * Constants.VALIDATION_BATCH_SIZE);
+		for (int i = batch * Constants.VALIDATION_BATCH_SIZE; i < end; i++) {
+
+			// Check the packed type first => points are never decoded
+			if (compact != null && compact.isPuntal(i)) {
+				result.skipped++;
+				continue;
+			}
+
+			Geometry geometry = compact != null ? compact.getGeometry(i)
+					: (Geometry) features.get(i).getDefaultGeometry();
+			if (geometry == null || geometry instanceof Puntal) {
+				result.skipped++;
+				continue;
+			}
+
+			result.checked++;
+			if (new IsValidOp(geometry).isValid()) {
+				continue;
+			}
+
+			Geometry fixed = validation == GeometryValidation.REPAIR ? GeometryFixer.fix(geometry) : null;
+			if (fixed == null || fixed.isEmpty()) {
+				fixed = null;
+				result.rejected++;
+			} else {
+				result.repaired++;
+			}
+			result.indexes.add(i);
+			result.geometries.add(fixed);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Builds the validated list: rejected features are left out and repaired
+	 * ones are replaced by copies with their new geometry. A
+	 * {@link CompactFeatureList} is packed again.
+	 */
+	private static List<SimpleFeature> apply(List<SimpleFeature> features, List<Batch> batches) {
+
+		CompactFeatureList compact = features instanceof CompactFeatureList ? (CompactFeatureList) features : null;
+		List<SimpleFeature> validated = compact != null ? compact.emptyCopy() : new ArrayList<>(features.size());
+
+		int index = 0;
+		for (Batch batch : batches) {
+			for (int b = 0; b < batch.indexes.size(); b++) {
+				int changed = batch.indexes.get(b);
+				addRange(validated, features, index, changed);
+
+				Geometry fixed = batch.geometries.get(b);
+				if (fixed != null) {
+					if (compact != null) {
+						((CompactFeatureList) validated).addGeometry(fixed, compact.getAttributeText(changed));
+					} else {
+						// Repair a copy => the parsed features may still be written by the cache
+						SimpleFeature copy = SimpleFeatureBuilder.copy(features.get(changed));
+						copy.setDefaultGeometry(fixed);
+						validated.add(copy);
+					}
+				}
+				index = changed + 1;
+			}
+		}
+		addRange(validated, features, index, features.size());
+
+		if (compact != null) {
+			((CompactFeatureList) validated).trimToSize();
+		}
+
+		return validated;
+	}
+
+	/**
+	 * Appends a range of unchanged features. Packed features are copied without
+	 * decoding their geometries.
+	 */
+	private static void addRange(List<SimpleFeature> validated, List<SimpleFeature> features, int from, int to) {
+
+		if (features instanceof CompactFeatureList) {
+			((CompactFeatureList) validated).addRange((CompactFeatureList) features, from, to);
+		} else {
+			validated.addAll(features.subList(from, to));
+		}
+	}
+
+	/**
+	 * Batch class: Nested class inside of {@link GeometryValidator}. The counts
+	 * of a validated batch and its invalid features, with their repaired
+	 * geometry or {@code null} if they are rejected.
+	 */
+	private static class Batch {
+
+		private final List<Integer> indexes = new ArrayList<>();
+		private final List<Geometry> geometries = new ArrayList<>();
+
+		private long checked;
+		private long skipped;
+		private long repaired;
+		private long rejected;
+	}
+}
@@ -0,0 +1,117 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
+
+import org.geotools.api.feature.Property;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.geometry.Position2D;
+import org.geotools.map.Layer;
+import org.geotools.swing.event.MapMouseEvent;
+import org.geotools.swing.tool.CursorTool;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * IdentifyTool: {@link org.geotools.swing.tool.CursorTool} listing the features
+ * under a clicked map position. A click hits polygons containing the position
+ * and points and lines within {@value Constants#IDENTIFY_PIXEL_TOLERANCE}
+ * pixels of it. The query runs through {@link MapManager#identify(Position2D,
+ * double)} off the event dispatch thread, so the map keeps rendering.
+ */
+public class IdentifyTool extends CursorTool {
+
+	private final MapManager mapManager;
+
+	/**
+	 * Constructor: Constructs an {@link IdentifyTool} querying the layers of a
+	 * map.
+	 *
+	 * @param mapManager the {@link MapManager} holding the layers.
+	 */
+	public IdentifyTool(MapManager mapManager) {
+		this.mapManager = mapManager;
+	}
+
+	/**
+	 * Queries the visible layers at the clicked position and shows the hits.
+	 *
+	 * @param ev the mouse event of the click.
+	 */
+	@Override
+	public void onMouseClicked(MapMouseEvent ev) {
+
+		Position2D position = ev.getWorldPos();
+
+		// Pixel tolerance in map units at the current zoom
+		double tolerance = Constants.IDENTIFY_PIXEL_TOLERANCE
+				* Math.abs(getMapPane().getScreenToWorldTransform().getScaleX());
+
+		new SwingWorker<Map<Layer, List<SimpleFeature>>, Void>() {
+
+			@Override
+			protected Map<Layer, List<SimpleFeature>> doInBackground() throws Exception {
+				return mapManager.identify(position, tolerance);
+			}
+
+			@Override
+			protected void done() {
+				try {
+					showResult(get());
+				} catch (Exception e) {
+					JOptionPane.showMessageDialog(null, "Failed to identify features: " + e.getMessage(), "Error",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Shows the hits by layer, listing at most
+	 * {@value Constants#IDENTIFY_RESULT_LIMIT} features of every layer.
+	 */
+	private static void showResult(Map<Layer, List<SimpleFeature>> result) {
+
+		if (result.isEmpty()) {
+			JOptionPane.showMessageDialog(null, "No features at this position", "Identify",
+					JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+
+		StringBuilder message = new StringBuilder();
+		for (Map.Entry<Layer, List<SimpleFeature>> entry : result.entrySet()) {
+			List<SimpleFeature> features = entry.getValue();
+			message.append(entry.getKey().getTitle()).append(": ").append(features.size()).append(" features\n");
+
+			int shown = Math.min(features.size(), Constants.IDENTIFY_RESULT_LIMIT);
+			for (SimpleFeature feature : features.subList(0, shown)) {
+				message.append("  ").append(feature.getID());
+				for (Property property : feature.getProperties()) {
+					Object value = property.getValue();
+					if (value instanceof Geometry) {
+						value = ((Geometry) value).getGeometryType();
+					}
+					message.append(", ").append(property.getName().getLocalPart()).append('=').append(value);
+				}
+				message.append('\n');
+			}
+			if (features.size() > Constants.IDENTIFY_RESULT_LIMIT) {
+				message.append("  ...\n");
+			}
+		}
+
+		int lines = (int) message.chars().filter(c -> c == '\n').count();
+		JTextArea text = new JTextArea(message.toString(), Math.min(lines, Constants.IDENTIFY_DIALOG_ROWS), 60);
+		text.setEditable(false);
+		JOptionPane.showMessageDialog(null, new JScrollPane(text), "Identify", JOptionPane.INFORMATION_MESSAGE);
+	}
+
+	@Override
+	public boolean drawDragBox() {
+		return false;
+	}
+}
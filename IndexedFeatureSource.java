@@ -0,0 +1,291 @@
+package org.geotools.tutorial.txtreader;
+
+import java.awt.RenderingHints;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.geotools.api.data.Query;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.filter.Filter;
+import org.geotools.api.referencing.FactoryException;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.data.collection.CollectionFeatureSource;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.filter.visitor.ExtractBoundsFilterVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.util.factory.Hints;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/**
+ * IndexedFeatureSource: In-memory
+ * {@link org.geotools.data.collection.CollectionFeatureSource} that answers
+ * bounding box queries through a JTS {@link org.locationtech.jts.index.strtree.STRtree}
+ * built at load time, instead of scanning every feature. Queries cost
+ * O(log n + k) for k matching features. Queries carrying a
+ * {@link org.geotools.util.factory.Hints#GEOMETRY_SIMPLIFICATION} or
+ * {@link org.geotools.util.factory.Hints#GEOMETRY_DISTANCE} hint are answered
+ * from a {@link SimplificationCache}.
+ */
+public class IndexedFeatureSource extends CollectionFeatureSource {
+
+	private static final Logger LOGGER = Logging.getLogger(IndexedFeatureSource.class);
+
+	private final SimpleFeatureType featureType;
+	private final List<SimpleFeature> features;
+
+	// Tree items are indexes into the feature list, so results keep file order
+	private final STRtree tree;
+	private final ReferencedEnvelope bounds;
+	private final long indexBuildTime;
+
+	private final SimplificationCache simplificationCache;
+
+	// The source in the CRS of the file, which caches the copies in other CRSs
+	private final IndexedFeatureSource origin;
+	private ReprojectionCache reprojectionCache;
+
+	/**
+	 * Constructor: Constructs an {@link IndexedFeatureSource} and builds the
+	 * spatial index over the specified features.
+	 *
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 * @param features    the {@link org.geotools.api.feature.simple.SimpleFeature}
+	 *                    list to be served.
+	 */
+	public IndexedFeatureSource(SimpleFeatureType featureType, List<SimpleFeature> features) {
+		this(featureType, features, null);
+	}
+
+	/**
+	 * Constructor: Constructs a reprojected copy of another
+	 * {@link IndexedFeatureSource}.
+	 *
+	 * @param featureType the schema in the CRS of the copy.
+	 * @param features    the reprojected features.
+	 * @param origin      the source in the CRS of the file, or {@code null} if
+	 *                    this is the origin.
+	 */
+	IndexedFeatureSource(SimpleFeatureType featureType, List<SimpleFeature> features, IndexedFeatureSource origin) {
+		super(new ListFeatureCollection(featureType, features));
+
+		this.featureType = featureType;
+		this.features = features;
+		this.origin = origin != null ? origin : this;
+
+		long start = System.nanoTime();
+
+		this.tree = new STRtree();
+		this.bounds = new ReferencedEnvelope(featureType.getCoordinateReferenceSystem());
+
+		for (int i = 0; i < features.size(); i++) {
+			Envelope envelope = getEnvelope(features, i);
+
+			// Empty geometries never match a bounding box
+			if (envelope != null && !envelope.isNull()) {
+				this.tree.insert(envelope, i);
+				this.bounds.expandToInclude(envelope);
+			}
+		}
+
+		// Build now, so concurrent queries never trigger a build
+		this.tree.build();
+
+		this.indexBuildTime = (System.nanoTime() - start) / 1_000_000;
+		LOGGER.info("Built spatial index for " + features.size() + " features in " + this.indexBuildTime + " ms");
+
+		this.simplificationCache = new SimplificationCache(features, this.bounds);
+	}
+
+	/**
+	 * Retrieves the envelope of a feature, straight from the packed coordinates
+	 * of a {@link CompactFeatureList}.
+	 *
+	 * @param features the feature list.
+	 * @param index    the index of the feature.
+	 * @return the {@link org.locationtech.jts.geom.Envelope}, or {@code null}.
+	 */
+	private static Envelope getEnvelope(List<SimpleFeature> features, int index) {
+
+		if (features instanceof CompactFeatureList) {
+			return ((CompactFeatureList) features).getEnvelope(index);
+		}
+
+		Geometry geometry = (Geometry) features.get(index).getDefaultGeometry();
+		return geometry != null ? geometry.getEnvelopeInternal() : null;
+	}
+
+	/**
+	 * Retrieves the features served by this source.
+	 *
+	 * @return the full-resolution feature list.
+	 */
+	List<SimpleFeature> getFeatureList() {
+		return this.features;
+	}
+
+	/**
+	 * Retrieves the spatial index of the features.
+	 *
+	 * @return the built {@link org.locationtech.jts.index.strtree.STRtree}
+	 *         holding the indexes of the features in the feature list.
+	 */
+	STRtree getTree() {
+		return this.tree;
+	}
+
+	/**
+	 * Retrieves the source in the CRS of the file this source was loaded from.
+	 *
+	 * @return the origin {@link IndexedFeatureSource}; this source unless it is a
+	 *         reprojected copy.
+	 */
+	public IndexedFeatureSource getOrigin() {
+		return this.origin;
+	}
+
+	/**
+	 * Retrieves the features of this layer in another CRS. Copies are
+	 * transformed in parallel on first request and cached by the origin, so a
+	 * copy of a copy is never made and switching back and forth between CRSs
+	 * transforms every layer once per CRS.
+	 *
+	 * @param targetCRS the requested
+	 *                  {@link org.geotools.api.referencing.crs.CoordinateReferenceSystem}.
+	 * @return an {@link IndexedFeatureSource} in the requested CRS.
+	 * @throws FactoryException if there is no transformation into the CRS.
+	 */
+	public IndexedFeatureSource reproject(CoordinateReferenceSystem targetCRS) throws FactoryException {
+
+		if (this.origin != this) {
+			return this.origin.reproject(targetCRS);
+		}
+
+		ReprojectionCache cache;
+		synchronized (this) {
+			if (this.reprojectionCache == null) {
+				this.reprojectionCache = new ReprojectionCache(this);
+			}
+			cache = this.reprojectionCache;
+		}
+
+		return cache.get(targetCRS);
+	}
+
+	/**
+	 * Retrieves the time it took to build the spatial index.
+	 *
+	 * @return the index build time in milliseconds.
+	 */
+	public long getIndexBuildTime() {
+		return this.indexBuildTime;
+	}
+
+	/**
+	 * Estimates the heap retained by the features and their spatial index.
+	 * Simplified levels of the {@link SimplificationCache} are not included.
+	 *
+	 * @return the estimated number of bytes.
+	 */
+	public long getEstimatedHeapBytes() {
+		return LoadMetrics.estimateHeapBytes(this.features) + (long) this.tree.size() * LoadMetrics.INDEX_ENTRY_BYTES;
+	}
+
+	@Override
+	public ReferencedEnvelope getBounds() {
+		return this.bounds;
+	}
+
+	@Override
+	public ReferencedEnvelope getBounds(Query query) throws IOException {
+
+		if (Filter.INCLUDE.equals(query.getFilter())) {
+			return this.bounds;
+		}
+
+		return super.getBounds(query);
+	}
+
+	@Override
+	public SimpleFeatureCollection getFeatures(Filter filter) throws IOException {
+		return getFeatures(new Query(this.featureType.getTypeName(), filter));
+	}
+
+	@Override
+	public Set<RenderingHints.Key> getSupportedHints() {
+
+		Set<RenderingHints.Key> hints = new HashSet<>(super.getSupportedHints());
+		hints.add(Hints.GEOMETRY_SIMPLIFICATION);
+		hints.add(Hints.GEOMETRY_DISTANCE);
+
+		return hints;
+	}
+
+	@Override
+	public SimpleFeatureCollection getFeatures(Query query) throws IOException {
+
+		// Pick the resolution matching the generalization distance of the renderer
+		List<SimpleFeature> source = this.simplificationCache.getFeatures(getDistance(query));
+
+		// Without a bounding box there is nothing to gain from the index
+		Envelope bbox = (Envelope) query.getFilter().accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, null);
+		if (bbox == null || bbox.isNull() || Double.isInfinite(bbox.getWidth())
+				|| Double.isInfinite(bbox.getHeight())) {
+			if (source == this.features) {
+				return super.getFeatures(query);
+			}
+			return new CollectionFeatureSource(new ListFeatureCollection(this.featureType, source)).getFeatures(query);
+		}
+
+		// Collect candidates in their original order
+		List<?> items = this.tree.query(bbox);
+		int[] indexes = new int[items.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = (Integer) items.get(i);
+		}
+		Arrays.sort(indexes);
+
+		List<SimpleFeature> candidates = new ArrayList<>(indexes.length);
+		for (int index : indexes) {
+			candidates.add(source.get(index));
+		}
+
+		// Let a collection source over the candidates apply the exact query
+		CollectionFeatureSource candidateSource = new CollectionFeatureSource(
+				new ListFeatureCollection(this.featureType, candidates));
+
+		return candidateSource.getFeatures(query);
+	}
+
+	/**
+	 * Retrieves the generalization distance requested through the query hints.
+	 *
+	 * @param query the {@link org.geotools.api.data.Query} to inspect.
+	 * @return the requested distance, or 0 for full resolution.
+	 */
+	private static double getDistance(Query query) {
+
+		Hints hints = query.getHints();
+		if (hints == null) {
+			return 0;
+		}
+
+		Object distance = hints.get(Hints.GEOMETRY_DISTANCE);
+		if (distance == null) {
+			distance = hints.get(Hints.GEOMETRY_SIMPLIFICATION);
+		}
+
+		return distance instanceof Number ? ((Number) distance).doubleValue() : 0;
+	}
+}
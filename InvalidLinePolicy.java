@@ -0,0 +1,26 @@
+package org.geotools.tutorial.txtreader;
+
+/**
+ * InvalidLinePolicy: Enum representing what {@link TXTFileParser} does with
+ * lines that can't be parsed.
+ */
+public enum InvalidLinePolicy {
+
+	/**
+	 * Skips invalid lines; they are only counted and sampled in the
+	 * {@link ParseErrorReport}.
+	 */
+	SKIP,
+
+	/**
+	 * Aborts the load once more lines than
+	 * {@link LoadOptions#getMaxInvalidLines()} are invalid.
+	 */
+	FAIL_FAST,
+
+	/**
+	 * Skips invalid lines and writes them to a rejects file next to the source
+	 * file.
+	 */
+	WRITE_REJECTS;
+}
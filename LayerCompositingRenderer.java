@@ -0,0 +1,433 @@
+package org.geotools.tutorial.txtreader;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.map.event.MapLayerListEvent;
+import org.geotools.map.event.MapLayerListListener;
+import org.geotools.renderer.GTRenderer;
+import org.geotools.renderer.RenderListener;
+import org.geotools.renderer.lite.StreamingRenderer;
+import org.geotools.util.logging.Logging;
+
+/**
+ * LayerCompositingRenderer: {@link org.geotools.renderer.GTRenderer} that
+ * renders every visible layer concurrently into its own off-screen buffer on a
+ * bounded worker pool, and composites the buffers in layer order. The buffer
+ * of a layer is kept as long as the layer, its source and style are unchanged
+ * and the view has not moved, so only modified layers are rendered again.
+ */
+public class LayerCompositingRenderer implements GTRenderer, MapLayerListListener {
+
+	private static final Logger LOGGER = Logging.getLogger(LayerCompositingRenderer.class);
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), runnable -> {
+				Thread thread = new Thread(runnable, "layer-renderer");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	// Layers don't override equals => identity keys
+	private final Map<Layer, LayerBuffer> buffers = new IdentityHashMap<>();
+
+	private final List<RenderListener> listeners = new CopyOnWriteArrayList<>();
+	private final List<StreamingRenderer> activeRenderers = new CopyOnWriteArrayList<>();
+
+	private MapContent mapContent;
+	private RenderingHints java2DHints;
+	private Map<Object, Object> rendererHints = new HashMap<>();
+
+	@Override
+	public void setMapContent(MapContent mapContent) {
+
+		if (this.mapContent != null) {
+			this.mapContent.removeMapLayerListListener(this);
+		}
+
+		this.mapContent = mapContent;
+		if (mapContent != null) {
+			mapContent.addMapLayerListListener(this);
+		}
+
+		clearBuffers();
+	}
+
+	@Override
+	public MapContent getMapContent() {
+		return this.mapContent;
+	}
+
+	@Override
+	public void paint(Graphics2D graphics, Rectangle paintArea, AffineTransform worldToScreen) {
+		paint(graphics, paintArea, null, worldToScreen);
+	}
+
+	@Override
+	public void paint(Graphics2D graphics, Rectangle paintArea, ReferencedEnvelope mapArea) {
+		paint(graphics, paintArea, mapArea, null);
+	}
+
+	@Override
+	public void paint(Graphics2D graphics, Rectangle paintArea, ReferencedEnvelope mapArea,
+			AffineTransform worldToScreen) {
+
+		if (this.mapContent == null) {
+			return;
+		}
+
+		// Derive whichever of map area and transform is missing
+		if (mapArea == null) {
+			mapArea = this.mapContent.getViewport().getBounds();
+		}
+		if (worldToScreen == null) {
+			worldToScreen = createWorldToScreen(paintArea, mapArea);
+		}
+
+		// Snapshot of the layer order at the start of this paint
+		List<Layer> layers = new ArrayList<>(this.mapContent.layers());
+
+		Map<Layer, BufferedImage> images = new IdentityHashMap<>();
+		Map<Layer, Future<BufferedImage>> pending = new LinkedHashMap<>();
+
+		for (Layer layer : layers) {
+			if (!layer.isVisible()) {
+				continue;
+			}
+
+			LayerBuffer buffer = getBuffer(layer);
+			BufferedImage image = buffer.getImage(paintArea, mapArea, worldToScreen);
+			if (image != null) {
+				images.put(layer, image);
+			} else {
+				pending.put(layer, this.executor.submit(createLayerTask(buffer, paintArea, mapArea, worldToScreen)));
+			}
+		}
+
+		// Wait for the layers that had to be rendered again
+		for (Map.Entry<Layer, Future<BufferedImage>> entry : pending.entrySet()) {
+			try {
+				images.put(entry.getKey(), entry.getValue().get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				LOGGER.log(Level.WARNING, "Could not render layer " + entry.getKey().getTitle(), e.getCause());
+				fireError(e);
+			}
+		}
+
+		// Composite in layer order => later layers are drawn on top
+		for (Layer layer : layers) {
+			BufferedImage image = images.get(layer);
+			if (image != null) {
+				graphics.drawImage(image, paintArea.x, paintArea.y, null);
+			}
+		}
+	}
+
+	/**
+	 * Creates the task that renders a single layer into a new buffer image with
+	 * its own {@link org.geotools.renderer.lite.StreamingRenderer}.
+	 *
+	 * @param buffer        the {@link LayerBuffer} of the layer.
+	 * @param paintArea     the {@link java.awt.Rectangle} to paint into.
+	 * @param mapArea       the {@link org.geotools.geometry.jts.ReferencedEnvelope}
+	 *                      to be shown.
+	 * @param worldToScreen the world to screen transform.
+	 * @return a {@link java.util.concurrent.Callable} producing the layer image.
+	 */
+	private Callable<BufferedImage> createLayerTask(LayerBuffer buffer, Rectangle paintArea,
+			ReferencedEnvelope mapArea, AffineTransform worldToScreen) {
+
+		// Copies => later changes of the caller don't affect the cached state
+		Rectangle area = new Rectangle(paintArea);
+		ReferencedEnvelope bounds = new ReferencedEnvelope(mapArea);
+		AffineTransform transform = new AffineTransform(worldToScreen);
+
+		return () -> {
+			long version = buffer.getVersion();
+
+			BufferedImage image = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = image.createGraphics();
+
+			// Render relative to the buffer origin instead of the paint area
+			AffineTransform bufferTransform = AffineTransform.getTranslateInstance(-area.x, -area.y);
+			bufferTransform.concatenate(transform);
+
+			StreamingRenderer renderer = createRenderer(buffer.content);
+			this.activeRenderers.add(renderer);
+			try {
+				renderer.paint(graphics, new Rectangle(0, 0, area.width, area.height), bounds, bufferTransform);
+			} finally {
+				this.activeRenderers.remove(renderer);
+				graphics.dispose();
+			}
+
+			buffer.setImage(image, area, bounds, transform, version);
+			return image;
+		};
+	}
+
+	/**
+	 * Creates a {@link org.geotools.renderer.lite.StreamingRenderer} for the
+	 * single-layer map content of a buffer, with the hints and listeners of this
+	 * renderer.
+	 *
+	 * @param content the {@link org.geotools.map.MapContent} to be rendered.
+	 * @return a new {@link org.geotools.renderer.lite.StreamingRenderer}.
+	 */
+	private StreamingRenderer createRenderer(MapContent content) {
+
+		StreamingRenderer renderer = new StreamingRenderer();
+		renderer.setMapContent(content);
+		renderer.setRendererHints(this.rendererHints);
+		if (this.java2DHints != null) {
+			renderer.setJava2DHints(this.java2DHints);
+		}
+		for (RenderListener listener : this.listeners) {
+			renderer.addRenderListener(listener);
+		}
+
+		return renderer;
+	}
+
+	/**
+	 * Creates the world to screen transform mapping a map area onto a paint area.
+	 */
+	private static AffineTransform createWorldToScreen(Rectangle paintArea, ReferencedEnvelope mapArea) {
+
+		double scaleX = paintArea.getWidth() / mapArea.getWidth();
+		double scaleY = paintArea.getHeight() / mapArea.getHeight();
+
+		AffineTransform transform = new AffineTransform(scaleX, 0, 0, -scaleY, paintArea.x, paintArea.y);
+		transform.translate(-mapArea.getMinX(), -mapArea.getMaxY());
+
+		return transform;
+	}
+
+	/**
+	 * Retrieves the buffer of a layer, creating it on first use.
+	 */
+	private synchronized LayerBuffer getBuffer(Layer layer) {
+		return this.buffers.computeIfAbsent(layer, LayerBuffer::new);
+	}
+
+	/**
+	 * Marks the buffer of a layer as outdated.
+	 */
+	private synchronized void invalidate(Layer layer) {
+
+		LayerBuffer buffer = this.buffers.get(layer);
+		if (buffer != null) {
+			buffer.invalidate();
+		}
+	}
+
+	/**
+	 * Marks the buffers of all layers as outdated.
+	 */
+	public synchronized void invalidateAll() {
+		for (LayerBuffer buffer : this.buffers.values()) {
+			buffer.invalidate();
+		}
+	}
+
+	/**
+	 * Drops the buffer of a layer together with its map content.
+	 */
+	private synchronized void removeBuffer(Layer layer) {
+
+		LayerBuffer buffer = this.buffers.remove(layer);
+		if (buffer != null) {
+			buffer.dispose();
+		}
+	}
+
+	private synchronized void clearBuffers() {
+
+		for (LayerBuffer buffer : this.buffers.values()) {
+			buffer.dispose();
+		}
+		this.buffers.clear();
+	}
+
+	@Override
+	public void layerAdded(MapLayerListEvent event) {
+		// Buffer is created on the next paint
+	}
+
+	@Override
+	public void layerRemoved(MapLayerListEvent event) {
+		removeBuffer(event.getElement());
+	}
+
+	@Override
+	public void layerChanged(MapLayerListEvent event) {
+
+		// Source, style or visibility of a single layer changed
+		if (event.getElement() != null) {
+			invalidate(event.getElement());
+		} else {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public void layerMoved(MapLayerListEvent event) {
+		// Only the compositing order changes => buffers stay valid
+	}
+
+	@Override
+	public void layerPreDispose(MapLayerListEvent event) {
+		// Removal is handled by layerRemoved
+	}
+
+	/**
+	 * Stops the worker pool and detaches this renderer from its map content.
+	 */
+	public void dispose() {
+		setMapContent(null);
+		this.executor.shutdownNow();
+	}
+
+	@Override
+	public void stopRendering() {
+		for (StreamingRenderer renderer : this.activeRenderers) {
+			renderer.stopRendering();
+		}
+	}
+
+	@Override
+	public void addRenderListener(RenderListener listener) {
+		this.listeners.add(listener);
+	}
+
+	@Override
+	public void removeRenderListener(RenderListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	private void fireError(Exception e) {
+		for (RenderListener listener : this.listeners) {
+			listener.errorOccurred(e);
+		}
+	}
+
+	@Override
+	public void setJava2DHints(RenderingHints hints) {
+		this.java2DHints = hints;
+		invalidateAll();
+	}
+
+	@Override
+	public RenderingHints getJava2DHints() {
+		return this.java2DHints;
+	}
+
+	@Override
+	public void setRendererHints(Map<Object, Object> hints) {
+		this.rendererHints = hints != null ? hints : new HashMap<>();
+		invalidateAll();
+	}
+
+	@Override
+	public Map<Object, Object> getRendererHints() {
+		return this.rendererHints;
+	}
+
+	/**
+	 * LayerBuffer class: Nested class inside of {@link LayerCompositingRenderer}.
+	 * The off-screen image of a single layer and the view it was rendered for.
+	 * Each buffer renders through its own single-layer
+	 * {@link org.geotools.map.MapContent}, so layers can be painted concurrently.
+	 */
+	private static class LayerBuffer {
+
+		private final Layer layer;
+		private final MapContent content = new MapContent();
+
+		// Incremented on every change => renders started earlier are not kept
+		private long version;
+
+		private BufferedImage image;
+		private Rectangle paintArea;
+		private ReferencedEnvelope mapArea;
+		private AffineTransform worldToScreen;
+
+		LayerBuffer(Layer layer) {
+			this.layer = layer;
+			this.content.addLayer(layer);
+		}
+
+		synchronized long getVersion() {
+			return this.version;
+		}
+
+		/**
+		 * Retrieves the buffered image if it was rendered for the same view.
+		 *
+		 * @return the buffered image, or {@code null} if the layer has to be
+		 *         rendered again.
+		 */
+		synchronized BufferedImage getImage(Rectangle paintArea, ReferencedEnvelope mapArea,
+				AffineTransform worldToScreen) {
+
+			if (this.image == null || !paintArea.equals(this.paintArea) || !mapArea.equals(this.mapArea)
+					|| !worldToScreen.equals(this.worldToScreen)) {
+				return null;
+			}
+
+			return this.image;
+		}
+
+		synchronized void setImage(BufferedImage image, Rectangle paintArea, ReferencedEnvelope mapArea,
+				AffineTransform worldToScreen, long version) {
+
+			// Layer changed while rendering => image is already outdated
+			if (version != this.version) {
+				return;
+			}
+
+			this.image = image;
+			this.paintArea = paintArea;
+			this.mapArea = mapArea;
+			this.worldToScreen = worldToScreen;
+		}
+
+		synchronized void invalidate() {
+			this.version++;
+			this.image = null;
+		}
+
+		/**
+		 * Detaches the layer before disposing the map content, since disposing a
+		 * map content also disposes its layers.
+		 */
+		synchronized void dispose() {
+			invalidate();
+			this.content.removeLayer(this.layer);
+			this.content.dispose();
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.geotools.api.data.SimpleFeatureSource;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.ItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/**
+ * LayerIndex: Read-only spatial index over the features of a layer, answering
+ * bounding box, identify and nearest neighbour queries. In-memory
+ * {@link IndexedFeatureSource}s share their STRtree; other sources are read
+ * once into a snapshot with its own STRtree. Polygons are tested through
+ * {@link org.locationtech.jts.geom.prep.PreparedGeometry}s, which are cached
+ * for repeated tests against the same feature. Nothing is modified after
+ * construction except that cache, so queries are safe to run concurrently with
+ * each other and with rendering.
+ */
+public class LayerIndex {
+
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+	private final List<SimpleFeature> features;
+	private final STRtree tree;
+
+	// Prepared polygons by feature index, dropped as a whole when full
+	private final Map<Integer, PreparedGeometry> prepared = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor: Constructs a {@link LayerIndex} over indexed features.
+	 *
+	 * @param features the {@link org.geotools.api.feature.simple.SimpleFeature}
+	 *                 list.
+	 * @param tree     a built {@link org.locationtech.jts.index.strtree.STRtree}
+	 *                 holding the list indexes of the features.
+	 */
+	LayerIndex(List<SimpleFeature> features, STRtree tree) {
+		this.features = features;
+		this.tree = tree;
+	}
+
+	/**
+	 * Builds the index of a feature source, reusing the STRtree of an
+	 * {@link IndexedFeatureSource}.
+	 *
+	 * @param featureSource the {@link org.geotools.api.data.SimpleFeatureSource}
+	 *                      of the layer.
+	 * @return a new {@link LayerIndex}.
+	 * @throws IOException if the features can't be read.
+	 */
+	public static LayerIndex build(SimpleFeatureSource featureSource) throws IOException {
+
+		if (featureSource instanceof IndexedFeatureSource) {
+			IndexedFeatureSource indexed = (IndexedFeatureSource) featureSource;
+			return new LayerIndex(indexed.getFeatureList(), indexed.getTree());
+		}
+
+		// Snapshot the features => later appends don't disturb running queries
+		List<SimpleFeature> features = new ArrayList<>();
+		STRtree tree = new STRtree();
+		try (SimpleFeatureIterator iterator = featureSource.getFeatures().features()) {
+			while (iterator.hasNext()) {
+				SimpleFeature feature = iterator.next();
+				Geometry geometry = (Geometry) feature.getDefaultGeometry();
+				if (geometry != null && !geometry.isEmpty()) {
+					tree.insert(geometry.getEnvelopeInternal(), features.size());
+				}
+				features.add(feature);
+			}
+		}
+		tree.build();
+
+		return new LayerIndex(features, tree);
+	}
+
+	/**
+	 * Retrieves the number of indexed features.
+	 *
+	 * @return the number of features, including those without geometry.
+	 */
+	public int size() {
+		return this.features.size();
+	}
+
+	/**
+	 * Finds the features whose geometry intersects a bounding box.
+	 *
+	 * @param bbox the {@link org.locationtech.jts.geom.Envelope} in the CRS of
+	 *             the layer.
+	 * @return the matching features in layer order.
+	 */
+	public List<SimpleFeature> queryBounds(Envelope bbox) {
+
+		PreparedGeometry box = PreparedGeometryFactory.prepare(GEOMETRY_FACTORY.toGeometry(bbox));
+
+		List<SimpleFeature> result = new ArrayList<>();
+		for (int index : candidates(bbox)) {
+			if (box.intersects(getGeometry(index))) {
+				result.add(this.features.get(index));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Finds the features under a clicked position: polygons containing the
+	 * point, and points and lines passing through the search area around it.
+	 *
+	 * @param point      the clicked {@link org.locationtech.jts.geom.Coordinate}
+	 *                   in the CRS of the layer.
+	 * @param searchArea the {@link org.locationtech.jts.geom.Envelope} around
+	 *                   the point that counts as a hit, e.g. a few pixels.
+	 * @return the matching features in layer order.
+	 */
+	public List<SimpleFeature> identify(Coordinate point, Envelope searchArea) {
+
+		Point pointGeometry = GEOMETRY_FACTORY.createPoint(point);
+		Geometry area = GEOMETRY_FACTORY.toGeometry(searchArea);
+
+		List<SimpleFeature> result = new ArrayList<>();
+		for (int index : candidates(searchArea)) {
+			Geometry geometry = getGeometry(index);
+			boolean hit = geometry instanceof Polygonal ? getPrepared(index, geometry).intersects(pointGeometry)
+					: geometry.intersects(area);
+			if (hit) {
+				result.add(this.features.get(index));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Finds the features closest to a point, measured to their geometry rather
+	 * than their envelope.
+	 *
+	 * @param point the {@link org.locationtech.jts.geom.Coordinate} in the CRS of
+	 *              the layer.
+	 * @param k     the maximum number of features.
+	 * @return up to {@code k} features, nearest first.
+	 */
+	public List<SimpleFeature> nearest(Coordinate point, int k) {
+
+		if (k <= 0 || this.tree.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		// The query item is -1; all other items are feature indexes
+		Point query = GEOMETRY_FACTORY.createPoint(point);
+		ItemDistance distance = (ItemBoundable a, ItemBoundable b) -> getGeometry((Integer) a.getItem(), query)
+				.distance(getGeometry((Integer) b.getItem(), query));
+
+		Object[] items = this.tree.nearestNeighbour(new Envelope(point), -1, distance, k);
+
+		// The tree returns the k nearest in no particular order
+		double[][] hits = new double[items.length][];
+		for (int i = 0; i < items.length; i++) {
+			int index = (Integer) items[i];
+			hits[i] = new double[] { getGeometry(index).distance(query), index };
+		}
+		Arrays.sort(hits, Comparator.comparingDouble(hit -> hit[0]));
+
+		List<SimpleFeature> result = new ArrayList<>(hits.length);
+		for (double[] hit : hits) {
+			result.add(this.features.get((int) hit[1]));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Collects the indexes of the features whose envelope intersects an area, in
+	 * layer order.
+	 */
+	private int[] candidates(Envelope area) {
+
+		List<?> items = this.tree.query(area);
+		int[] indexes = new int[items.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = (Integer) items.get(i);
+		}
+		Arrays.sort(indexes);
+
+		return indexes;
+	}
+
+	/**
+	 * Retrieves the geometry of a feature, decoding only the geometry of a
+	 * {@link CompactFeatureList}.
+	 */
+	private Geometry getGeometry(int index) {
+
+		if (this.features instanceof CompactFeatureList) {
+			return ((CompactFeatureList) this.features).getGeometry(index);
+		}
+
+		return (Geometry) this.features.get(index).getDefaultGeometry();
+	}
+
+	private Geometry getGeometry(int index, Point query) {
+		return index < 0 ? query : getGeometry(index);
+	}
+
+	private PreparedGeometry getPrepared(int index, Geometry geometry) {
+
+		if (this.prepared.size() >= Constants.PREPARED_GEOMETRY_CACHE_SIZE) {
+			this.prepared.clear();
+		}
+
+		return this.prepared.computeIfAbsent(index, i -> PreparedGeometryFactory.prepare(geometry));
+	}
+}
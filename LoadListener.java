@@ -0,0 +1,28 @@
+package org.geotools.tutorial.txtreader;
+
+import org.geotools.map.Layer;
+
+/**
+ * LoadListener: Listener notified by {@link LoadMetrics} about completed loads.
+ * Listeners are called on the loading thread and should return quickly.
+ */
+public interface LoadListener {
+
+	/**
+	 * Called after a TXT file has been loaded into a feature source.
+	 *
+	 * @param statistics the {@link LoadStatistics} of the load.
+	 */
+	default void fileLoaded(LoadStatistics statistics) {
+	}
+
+	/**
+	 * Called after a layer has been added to the map.
+	 *
+	 * @param layer              the added {@link org.geotools.map.Layer}.
+	 * @param nanos              the time spent adding the layer in nanoseconds.
+	 * @param estimatedHeapBytes the estimated heap retained by the layer data.
+	 */
+	default void layerAdded(Layer layer, long nanos, long estimatedHeapBytes) {
+	}
+}
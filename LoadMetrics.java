@@ -0,0 +1,308 @@
+package org.geotools.tutorial.txtreader;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.geotools.api.data.SimpleFeatureSource;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.map.Layer;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * LoadMetrics: Collects timers and counters of every TXT file load and layer
+ * addition, notifies registered {@link LoadListener}s, and exposes the totals
+ * through JMX as {@value #OBJECT_NAME}. Counters are
+ * {@link java.util.concurrent.atomic.LongAdder}s, so concurrent loads don't
+ * contend on them.
+ */
+public class LoadMetrics implements LoadMetricsMXBean {
+
+	private static final Logger LOGGER = Logging.getLogger(LoadMetrics.class);
+
+	public static final String OBJECT_NAME = "org.geotools.tutorial.txtreader:type=LoadMetrics";
+
+	// Rough per-object sizes for the heap estimate of a layer
+	static final long FEATURE_BYTES = 96;
+	static final long GEOMETRY_BYTES = 64;
+	static final long INDEX_ENTRY_BYTES = 64;
+
+	private static final LoadMetrics INSTANCE = new LoadMetrics();
+
+	private final LongAdder filesLoaded = new LongAdder();
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder featuresLoaded = new LongAdder();
+	private final LongAdder invalidLines = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+	private final LongAdder layersAdded = new LongAdder();
+	private final LongAdder[] phaseNanos = new LongAdder[LoadPhase.values().length];
+
+	// Layers don't override equals => identity keys
+	private final Map<Layer, Long> layerHeapBytes = new IdentityHashMap<>();
+
+	private final List<LoadListener> listeners = new CopyOnWriteArrayList<>();
+
+	private volatile LoadStatistics lastLoad;
+
+	private LoadMetrics() {
+
+		for (int i = 0; i < this.phaseNanos.length; i++) {
+			this.phaseNanos[i] = new LongAdder();
+		}
+
+		// Metrics are still collected if JMX is unavailable
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+		} catch (JMException | SecurityException e) {
+			LOGGER.log(Level.WARNING, "Could not register load metrics MBean", e);
+		}
+	}
+
+	/**
+	 * Retrieves the application wide {@link LoadMetrics}.
+	 *
+	 * @return the {@link LoadMetrics} instance.
+	 */
+	public static LoadMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Registers a listener notified after every file load.
+	 *
+	 * @param listener the {@link LoadListener} to add.
+	 */
+	public void addLoadListener(LoadListener listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Unregisters a listener added with {@link #addLoadListener(LoadListener)}.
+	 *
+	 * @param listener the {@link LoadListener} to remove.
+	 */
+	public void removeLoadListener(LoadListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Records a completed file load and notifies the listeners.
+	 *
+	 * @param statistics the {@link LoadStatistics} of the load.
+	 */
+	public void recordLoad(LoadStatistics statistics) {
+
+		this.filesLoaded.increment();
+		this.bytesRead.add(statistics.getBytes());
+		this.featuresLoaded.add(statistics.getFeatureCount());
+		this.invalidLines.add(statistics.getInvalidCount());
+		this.loadNanos.add(statistics.getElapsedNanos());
+		for (LoadPhase phase : LoadPhase.values()) {
+			this.phaseNanos[phase.ordinal()].add(statistics.getPhaseNanos(phase));
+		}
+		this.lastLoad = statistics;
+
+		LOGGER.fine("Loaded " + statistics);
+
+		for (LoadListener listener : this.listeners) {
+			listener.fileLoaded(statistics);
+		}
+	}
+
+	/**
+	 * Records a layer added to the map and notifies the listeners.
+	 *
+	 * @param layer         the added {@link org.geotools.map.Layer}.
+	 * @param featureSource the {@link org.geotools.api.data.SimpleFeatureSource}
+	 *                      of the layer.
+	 * @param nanos         the time spent adding the layer in nanoseconds.
+	 */
+	public void recordLayerAdded(Layer layer, SimpleFeatureSource featureSource, long nanos) {
+
+		long heapBytes = estimateHeapBytes(featureSource);
+
+		this.layersAdded.increment();
+		this.phaseNanos[LoadPhase.LAYER_ADD.ordinal()].add(nanos);
+		synchronized (this.layerHeapBytes) {
+			this.layerHeapBytes.put(layer, heapBytes);
+		}
+
+		for (LoadListener listener : this.listeners) {
+			listener.layerAdded(layer, nanos, heapBytes);
+		}
+	}
+
+	/**
+	 * Forgets the heap estimate of a layer removed from the map.
+	 *
+	 * @param layer the removed {@link org.geotools.map.Layer}.
+	 */
+	public void recordLayerRemoved(Layer layer) {
+		synchronized (this.layerHeapBytes) {
+			this.layerHeapBytes.remove(layer);
+		}
+	}
+
+	/**
+	 * Estimates the heap retained by the data of a feature source. Only in-memory
+	 * {@link IndexedFeatureSource}s retain their features; streaming sources
+	 * count as zero.
+	 *
+	 * @param featureSource the {@link org.geotools.api.data.SimpleFeatureSource}.
+	 * @return the estimated number of bytes.
+	 */
+	static long estimateHeapBytes(SimpleFeatureSource featureSource) {
+
+		if (featureSource instanceof IndexedFeatureSource) {
+			return ((IndexedFeatureSource) featureSource).getEstimatedHeapBytes();
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Estimates the heap retained by a list of features from their number of
+	 * geometries and coordinates. A {@link CompactFeatureList} reports the size
+	 * of its packed arrays instead.
+	 *
+	 * @param features the {@link org.geotools.api.feature.simple.SimpleFeature}
+	 *                 list.
+	 * @return the estimated number of bytes.
+	 */
+	static long estimateHeapBytes(List<SimpleFeature> features) {
+
+		if (features instanceof CompactFeatureList) {
+			return ((CompactFeatureList) features).getEstimatedHeapBytes();
+		}
+
+		long bytes = 0;
+		for (SimpleFeature feature : features) {
+			bytes += FEATURE_BYTES;
+			Geometry geometry = (Geometry) feature.getDefaultGeometry();
+			if (geometry != null) {
+				// Packed x/y doubles plus one object per component geometry
+				bytes += geometry.getNumGeometries() * GEOMETRY_BYTES + geometry.getNumPoints() * 2L * Double.BYTES;
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Retrieves the statistics of the most recent file load.
+	 *
+	 * @return the {@link LoadStatistics}, or {@code null} if nothing has been
+	 *         loaded yet.
+	 */
+	public LoadStatistics getLastLoadStatistics() {
+		return this.lastLoad;
+	}
+
+	@Override
+	public long getFilesLoaded() {
+		return this.filesLoaded.sum();
+	}
+
+	@Override
+	public long getBytesRead() {
+		return this.bytesRead.sum();
+	}
+
+	@Override
+	public long getFeaturesLoaded() {
+		return this.featuresLoaded.sum();
+	}
+
+	@Override
+	public long getInvalidLines() {
+		return this.invalidLines.sum();
+	}
+
+	@Override
+	public double getInvalidLineRate() {
+		long invalid = getInvalidLines();
+		return LoadStatistics.rate(invalid, getFeaturesLoaded() + invalid);
+	}
+
+	@Override
+	public double getBytesPerSecond() {
+		return LoadStatistics.perSecond(getBytesRead(), this.loadNanos.sum());
+	}
+
+	@Override
+	public double getFeaturesPerSecond() {
+		return LoadStatistics.perSecond(getFeaturesLoaded(), this.loadNanos.sum());
+	}
+
+	@Override
+	public Map<String, Long> getPhaseTimeMillis() {
+
+		Map<String, Long> times = new LinkedHashMap<>();
+		for (LoadPhase phase : LoadPhase.values()) {
+			times.put(phase.name(), this.phaseNanos[phase.ordinal()].sum() / 1_000_000);
+		}
+
+		return times;
+	}
+
+	@Override
+	public long getLayersAdded() {
+		return this.layersAdded.sum();
+	}
+
+	@Override
+	public Map<String, Long> getLayerHeapBytes() {
+
+		Map<String, Long> heap = new LinkedHashMap<>();
+		synchronized (this.layerHeapBytes) {
+			for (Map.Entry<Layer, Long> entry : this.layerHeapBytes.entrySet()) {
+				String title = entry.getKey().getTitle() != null ? entry.getKey().getTitle() : "Layer";
+
+				// Keep layers with equal titles apart
+				String key = title;
+				for (int i = 2; heap.containsKey(key); i++) {
+					key = title + " [" + i + "]";
+				}
+				heap.put(key, entry.getValue());
+			}
+		}
+
+		return heap;
+	}
+
+	@Override
+	public String getLastLoad() {
+		LoadStatistics statistics = this.lastLoad;
+		return statistics != null ? statistics.toString() : null;
+	}
+
+	@Override
+	public void reset() {
+
+		this.filesLoaded.reset();
+		this.bytesRead.reset();
+		this.featuresLoaded.reset();
+		this.invalidLines.reset();
+		this.loadNanos.reset();
+		this.layersAdded.reset();
+		for (LongAdder adder : this.phaseNanos) {
+			adder.reset();
+		}
+		this.lastLoad = null;
+	}
+}
@@ -0,0 +1,96 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.Map;
+
+/**
+ * LoadMetricsMXBean: Management interface of {@link LoadMetrics}, registered
+ * on the platform MBean server as {@value LoadMetrics#OBJECT_NAME}.
+ */
+public interface LoadMetricsMXBean {
+
+	/**
+	 * Retrieves the number of TXT files loaded.
+	 *
+	 * @return the file count.
+	 */
+	long getFilesLoaded();
+
+	/**
+	 * Retrieves the total size of all loaded files.
+	 *
+	 * @return the size in bytes.
+	 */
+	long getBytesRead();
+
+	/**
+	 * Retrieves the number of features loaded from all files.
+	 *
+	 * @return the feature count.
+	 */
+	long getFeaturesLoaded();
+
+	/**
+	 * Retrieves the number of lines of all files that could not be parsed.
+	 *
+	 * @return the invalid line count.
+	 */
+	long getInvalidLines();
+
+	/**
+	 * Retrieves the share of non-blank lines of all files that could not be
+	 * parsed.
+	 *
+	 * @return the invalid line rate between 0 and 1.
+	 */
+	double getInvalidLineRate();
+
+	/**
+	 * Retrieves the read throughput over the summed load times.
+	 *
+	 * @return the bytes read per second.
+	 */
+	double getBytesPerSecond();
+
+	/**
+	 * Retrieves the load throughput over the summed load times.
+	 *
+	 * @return the features loaded per second.
+	 */
+	double getFeaturesPerSecond();
+
+	/**
+	 * Retrieves the total time per {@link LoadPhase}. Parse phases are summed over
+	 * all parser threads.
+	 *
+	 * @return a {@link java.util.Map} of phase name to milliseconds.
+	 */
+	Map<String, Long> getPhaseTimeMillis();
+
+	/**
+	 * Retrieves the number of layers added to the map.
+	 *
+	 * @return the layer count.
+	 */
+	long getLayersAdded();
+
+	/**
+	 * Retrieves the estimated heap retained by the data of every layer on the
+	 * map.
+	 *
+	 * @return a {@link java.util.Map} of layer title to bytes.
+	 */
+	Map<String, Long> getLayerHeapBytes();
+
+	/**
+	 * Retrieves a summary of the most recent file load.
+	 *
+	 * @return the summary, or {@code null} if no file has been loaded.
+	 */
+	String getLastLoad();
+
+	/**
+	 * Resets all counters and phase times and forgets the last load. Layer heap
+	 * sizes describe the current map and are kept.
+	 */
+	void reset();
+}
@@ -0,0 +1,170 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.util.concurrent.CancellationException;
+
+/**
+ * LoadOptions: Settings of a single TXT file load by {@link TXTFileParser}.
+ */
+public class LoadOptions {
+
+	private final InvalidLinePolicy invalidLinePolicy;
+	private final int maxInvalidLines;
+	private final GeometryValidation geometryValidation;
+	private final LoadProgress progress;
+
+	/**
+	 * Constructor: Constructs {@link LoadOptions}.
+	 *
+	 * @param invalidLinePolicy the {@link InvalidLinePolicy} for lines that can't
+	 *                          be parsed.
+	 * @param maxInvalidLines   the number of invalid lines tolerated by
+	 *                          {@link InvalidLinePolicy#FAIL_FAST}.
+	 */
+	public LoadOptions(InvalidLinePolicy invalidLinePolicy, int maxInvalidLines) {
+		this(invalidLinePolicy, maxInvalidLines, LoadProgress.NONE);
+	}
+
+	/**
+	 * Constructor: Constructs {@link LoadOptions} reporting to a
+	 * {@link LoadProgress}.
+	 *
+	 * @param invalidLinePolicy the {@link InvalidLinePolicy} for lines that can't
+	 *                          be parsed.
+	 * @param maxInvalidLines   the number of invalid lines tolerated by
+	 *                          {@link InvalidLinePolicy#FAIL_FAST}.
+	 * @param progress          the {@link LoadProgress} of the load.
+	 */
+	public LoadOptions(InvalidLinePolicy invalidLinePolicy, int maxInvalidLines, LoadProgress progress) {
+		this(invalidLinePolicy, maxInvalidLines, GeometryValidation.OFF, progress);
+	}
+
+	/**
+	 * Constructor: Constructs {@link LoadOptions} validating the parsed
+	 * geometries.
+	 *
+	 * @param invalidLinePolicy  the {@link InvalidLinePolicy} for lines that
+	 *                           can't be parsed.
+	 * @param maxInvalidLines    the number of invalid lines tolerated by
+	 *                           {@link InvalidLinePolicy#FAIL_FAST}.
+	 * @param geometryValidation the {@link GeometryValidation} of parsed
+	 *                           geometries.
+	 * @param progress           the {@link LoadProgress} of the load.
+	 */
+	public LoadOptions(InvalidLinePolicy invalidLinePolicy, int maxInvalidLines,
+			GeometryValidation geometryValidation, LoadProgress progress) {
+		this.invalidLinePolicy = invalidLinePolicy;
+		this.maxInvalidLines = maxInvalidLines;
+		this.geometryValidation = geometryValidation;
+		this.progress = progress;
+	}
+
+	/**
+	 * Retrieves the options configured by the
+	 * {@value Constants#INVALID_LINE_POLICY_PROPERTY},
+	 * {@value Constants#MAX_INVALID_LINES_PROPERTY} and
+	 * {@value Constants#GEOMETRY_VALIDATION_PROPERTY} system properties.
+	 *
+	 * @return the default {@link LoadOptions}.
+	 */
+	public static LoadOptions getDefault() {
+
+		InvalidLinePolicy policy = InvalidLinePolicy.valueOf(
+				System.getProperty(Constants.INVALID_LINE_POLICY_PROPERTY, InvalidLinePolicy.SKIP.name()));
+		int maxInvalidLines = Integer.getInteger(Constants.MAX_INVALID_LINES_PROPERTY, Constants.MAX_INVALID_LINES);
+
+		GeometryValidation validation = GeometryValidation.valueOf(
+				System.getProperty(Constants.GEOMETRY_VALIDATION_PROPERTY, GeometryValidation.OFF.name()));
+
+		return new LoadOptions(policy, maxInvalidLines, validation, LoadProgress.NONE);
+	}
+
+	/**
+	 * Retrieves how invalid lines are handled.
+	 *
+	 * @return the {@link InvalidLinePolicy}.
+	 */
+	public InvalidLinePolicy getInvalidLinePolicy() {
+		return this.invalidLinePolicy;
+	}
+
+	/**
+	 * Retrieves the number of invalid lines tolerated by
+	 * {@link InvalidLinePolicy#FAIL_FAST}.
+	 *
+	 * @return the maximum number of invalid lines.
+	 */
+	public int getMaxInvalidLines() {
+		return this.maxInvalidLines;
+	}
+
+	/**
+	 * Retrieves how parsed geometries are validated.
+	 *
+	 * @return the {@link GeometryValidation} mode.
+	 */
+	public GeometryValidation getGeometryValidation() {
+		return this.geometryValidation;
+	}
+
+	/**
+	 * Retrieves the listener receiving the progress of the load, which can also
+	 * cancel it.
+	 *
+	 * @return the {@link LoadProgress}.
+	 */
+	public LoadProgress getProgress() {
+		return this.progress;
+	}
+
+	/**
+	 * Copies these options with another {@link LoadProgress}.
+	 *
+	 * @param progress the {@link LoadProgress} of the load.
+	 * @return new {@link LoadOptions}.
+	 */
+	public LoadOptions withProgress(LoadProgress progress) {
+		return new LoadOptions(this.invalidLinePolicy, this.maxInvalidLines, this.geometryValidation, progress);
+	}
+
+	/**
+	 * Throws if the {@link LoadProgress} asks to cancel the load.
+	 *
+	 * @throws CancellationException if the load has been cancelled.
+	 */
+	void checkCancelled() {
+		if (this.progress.isCancelled()) {
+			throw new CancellationException("Loading cancelled");
+		}
+	}
+
+	/**
+	 * Retrieves the file that rejected lines of a source file are written to.
+	 *
+	 * @param sourceFile the TXT file.
+	 * @return the rejects file next to the source file.
+	 */
+	public File getRejectsFile(File sourceFile) {
+		return new File(sourceFile.getPath() + ".rejects");
+	}
+
+	/**
+	 * Creates an empty {@link ParseErrorReport} matching the policy.
+	 *
+	 * @return a new {@link ParseErrorReport}.
+	 */
+	ParseErrorReport createReport() {
+		return new ParseErrorReport(this.invalidLinePolicy == InvalidLinePolicy.WRITE_REJECTS);
+	}
+
+	/**
+	 * Checks whether the load has to be aborted after an invalid line.
+	 *
+	 * @param invalidCount the number of invalid lines so far.
+	 * @return {@code true} if the policy is
+	 *         {@link InvalidLinePolicy#FAIL_FAST} and the limit is exceeded.
+	 */
+	boolean isExceeded(long invalidCount) {
+		return this.invalidLinePolicy == InvalidLinePolicy.FAIL_FAST && invalidCount > this.maxInvalidLines;
+	}
+}
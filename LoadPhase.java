@@ -0,0 +1,49 @@
+package org.geotools.tutorial.txtreader;
+
+/**
+ * LoadPhase: Enum representing the timed phases of loading a TXT file into a
+ * map layer.
+ */
+public enum LoadPhase {
+
+	/**
+	 * Reading lines from the file.
+	 */
+	FILE_READ,
+
+	/**
+	 * Parsing WKT lines to geometries.
+	 */
+	WKT_PARSE,
+
+	/**
+	 * Building features from the parsed geometries.
+	 */
+	FEATURE_BUILD,
+
+	/**
+	 * Creating the feature source, including its spatial index.
+	 */
+	COLLECTION_CREATE,
+
+	/**
+	 * Adding the layer to the map through {@link MapManager}.
+	 */
+	LAYER_ADD,
+
+	/**
+	 * Writing features to an output file through {@link TXTConverter}.
+	 */
+	FEATURE_WRITE,
+
+	/**
+	 * Decoding features from the {@link GeometryCache} instead of parsing WKT.
+	 */
+	CACHE_READ,
+
+	/**
+	 * Validating and repairing parsed geometries through
+	 * {@link GeometryValidator}.
+	 */
+	GEOMETRY_VALIDATE;
+}
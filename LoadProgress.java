@@ -0,0 +1,51 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.List;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+
+/**
+ * LoadProgress: Callback of a running TXT file load, passed through
+ * {@link LoadOptions}. The parser reports the bytes it consumed about every
+ * {@value Constants#PROGRESS_INTERVAL} bytes, checks for cancellation at the
+ * same points and hands out the first features for a preview. Methods may be
+ * called concurrently from several parsing threads and should return quickly.
+ */
+public interface LoadProgress {
+
+	/**
+	 * Progress of a load nobody is waiting for.
+	 */
+	LoadProgress NONE = new LoadProgress() {
+	};
+
+	/**
+	 * Called whenever a part of the file has been parsed.
+	 *
+	 * @param bytes the number of bytes consumed since the previous call of the
+	 *              same thread.
+	 */
+	default void bytesRead(long bytes) {
+	}
+
+	/**
+	 * Checks whether the load should stop. A cancelled load throws a
+	 * {@link java.util.concurrent.CancellationException} and drops the features
+	 * built so far.
+	 *
+	 * @return {@code true} to cancel the load.
+	 */
+	default boolean isCancelled() {
+		return false;
+	}
+
+	/**
+	 * Called once with the first {@value Constants#PREVIEW_FEATURE_COUNT}
+	 * features of the file while the rest is still being parsed. Not called for
+	 * files with fewer features.
+	 *
+	 * @param features the first features in file order.
+	 */
+	default void preview(List<SimpleFeature> features) {
+	}
+}
@@ -0,0 +1,86 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+
+import org.geotools.api.data.SimpleFeatureSource;
+
+/**
+ * LoadResult: Outcome of loading a TXT file through
+ * {@link TXTFileParser#loadTXTFile(java.io.File, ReadMode, LoadOptions)}: the
+ * feature source together with the report of its invalid lines and the load
+ * statistics.
+ */
+public class LoadResult {
+
+	private final File sourceFile;
+	private final SimpleFeatureSource featureSource;
+	private final ParseErrorReport errors;
+	private final ValidationReport validation;
+	private final LoadStatistics statistics;
+
+	/**
+	 * Constructor: Constructs a {@link LoadResult}.
+	 *
+	 * @param sourceFile    the loaded TXT file.
+	 * @param featureSource the loaded
+	 *                      {@link org.geotools.api.data.SimpleFeatureSource}.
+	 * @param errors        the {@link ParseErrorReport} of the invalid lines.
+	 * @param statistics    the {@link LoadStatistics} of the load, or
+	 *                      {@code null} if the file isn't loaded up front.
+	 */
+	public LoadResult(File sourceFile, SimpleFeatureSource featureSource, ParseErrorReport errors,
+			LoadStatistics statistics) {
+		this(sourceFile, featureSource, errors, new ValidationReport(), statistics);
+	}
+
+	/**
+	 * Constructor: Constructs a {@link LoadResult} of validated geometries.
+	 *
+	 * @param sourceFile    the loaded TXT file.
+	 * @param featureSource the loaded
+	 *                      {@link org.geotools.api.data.SimpleFeatureSource}.
+	 * @param errors        the {@link ParseErrorReport} of the invalid lines.
+	 * @param validation    the {@link ValidationReport} of the parsed
+	 *                      geometries.
+	 * @param statistics    the {@link LoadStatistics} of the load, or
+	 *                      {@code null} if the file isn't loaded up front.
+	 */
+	public LoadResult(File sourceFile, SimpleFeatureSource featureSource, ParseErrorReport errors,
+			ValidationReport validation, LoadStatistics statistics) {
+		this.sourceFile = sourceFile;
+		this.featureSource = featureSource;
+		this.errors = errors;
+		this.validation = validation;
+		this.statistics = statistics;
+	}
+
+	public File getSourceFile() {
+		return this.sourceFile;
+	}
+
+	public SimpleFeatureSource getFeatureSource() {
+		return this.featureSource;
+	}
+
+	public ParseErrorReport getErrors() {
+		return this.errors;
+	}
+
+	/**
+	 * Retrieves the counts of repaired and rejected geometries.
+	 *
+	 * @return the {@link ValidationReport}; empty if validation is off.
+	 */
+	public ValidationReport getValidation() {
+		return this.validation;
+	}
+
+	/**
+	 * Retrieves the statistics of the load.
+	 *
+	 * @return the {@link LoadStatistics}, or {@code null} for streaming sources.
+	 */
+	public LoadStatistics getStatistics() {
+		return this.statistics;
+	}
+}
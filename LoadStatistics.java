@@ -0,0 +1,149 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+
+/**
+ * LoadStatistics: Immutable measurements of loading a single TXT file. Phase
+ * times of concurrent parsers are summed over all threads, while the elapsed
+ * time is the wall-clock time of the whole load, so rates are based on the
+ * elapsed time.
+ */
+public class LoadStatistics {
+
+	private final File sourceFile;
+	private final ReadMode readMode;
+	private final long bytes;
+	private final int featureCount;
+	private final int invalidCount;
+	private final long elapsedNanos;
+	private final long[] phaseNanos = new long[LoadPhase.values().length];
+
+	/**
+	 * Constructor: Constructs {@link LoadStatistics} for a loaded file.
+	 *
+	 * @param sourceFile   the loaded file.
+	 * @param readMode     the {@link ReadMode} the file was read with.
+	 * @param featureCount the number of features loaded.
+	 * @param invalidCount the number of lines that could not be parsed.
+	 * @param elapsedNanos the wall-clock time of the load in nanoseconds.
+	 * @param timer        the {@link PhaseTimer} holding the phase times.
+	 */
+	public LoadStatistics(File sourceFile, ReadMode readMode, int featureCount, int invalidCount, long elapsedNanos,
+			PhaseTimer timer) {
+		this.sourceFile = sourceFile;
+		this.readMode = readMode;
+		this.bytes = sourceFile.length();
+		this.featureCount = featureCount;
+		this.invalidCount = invalidCount;
+		this.elapsedNanos = elapsedNanos;
+		for (LoadPhase phase : LoadPhase.values()) {
+			this.phaseNanos[phase.ordinal()] = timer.getNanos(phase);
+		}
+	}
+
+	/**
+	 * Retrieves the loaded file.
+	 *
+	 * @return the source {@link java.io.File}.
+	 */
+	public File getSourceFile() {
+		return this.sourceFile;
+	}
+
+	/**
+	 * Retrieves how the file was read.
+	 *
+	 * @return the {@link ReadMode}.
+	 */
+	public ReadMode getReadMode() {
+		return this.readMode;
+	}
+
+	/**
+	 * Retrieves the size of the file when it was loaded.
+	 *
+	 * @return the size in bytes.
+	 */
+	public long getBytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * Retrieves the number of features loaded.
+	 *
+	 * @return the feature count.
+	 */
+	public int getFeatureCount() {
+		return this.featureCount;
+	}
+
+	/**
+	 * Retrieves the number of lines that could not be parsed.
+	 *
+	 * @return the invalid line count.
+	 */
+	public int getInvalidCount() {
+		return this.invalidCount;
+	}
+
+	/**
+	 * Retrieves the wall-clock time of the load.
+	 *
+	 * @return the elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * Retrieves the time spent in a phase.
+	 *
+	 * @param phase the {@link LoadPhase}.
+	 * @return the time in nanoseconds, summed over all parser threads.
+	 */
+	public long getPhaseNanos(LoadPhase phase) {
+		return this.phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Retrieves the read throughput over the elapsed time.
+	 *
+	 * @return the bytes read per second.
+	 */
+	public double getBytesPerSecond() {
+		return perSecond(this.bytes, this.elapsedNanos);
+	}
+
+	/**
+	 * Retrieves the load throughput over the elapsed time.
+	 *
+	 * @return the features loaded per second.
+	 */
+	public double getFeaturesPerSecond() {
+		return perSecond(this.featureCount, this.elapsedNanos);
+	}
+
+	/**
+	 * Retrieves the share of non-blank lines that could not be parsed.
+	 *
+	 * @return the invalid line rate between 0 and 1.
+	 */
+	public double getInvalidLineRate() {
+		return rate(this.invalidCount, (long) this.featureCount + this.invalidCount);
+	}
+
+	static double perSecond(long count, long nanos) {
+		return nanos > 0 ? count * 1e9 / nanos : 0;
+	}
+
+	static double rate(long count, long total) {
+		return total > 0 ? (double) count / total : 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d features, %d invalid, %.1f ms, %.1f MB/s, %.0f features/s",
+				this.sourceFile.getName(), this.featureCount, this.invalidCount, this.elapsedNanos / 1e6,
+				getBytesPerSecond() / (1024 * 1024), getFeaturesPerSecond());
+	}
+}
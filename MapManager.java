@@ -1,81 +1,620 @@
-package org.geotools.tutorial.txtreader;
-
-import org.geotools.api.data.SimpleFeatureSource;
-import org.geotools.api.style.Style;
-import org.geotools.map.FeatureLayer;
-import org.geotools.map.MapContent;
-
-/**
- * MapManager: Utility class for managing map content and layers.
- */
-public class MapManager {
-
-	private MapContent map;
-
-	/**
-	 * Constructor: Constructs a new {@link MapManager} with the specified map
-	 * content.
-	 *
-	 * @param map the {@link org.geotools.map.MapContent} object to be managed.
-	 */
-	MapManager(MapContent map) {
-		this.map = map;
-	}
-
-	/**
-	 * Retrieves the {@link org.geotools.map.MapContent} managed by this
-	 * {@link MapManager}.
-	 *
-	 * @return the {@link org.geotools.map.MapContent} object that is being managed.
-	 */
-	public MapContent getMap() {
-		return this.map;
-	}
-
-	/**
-	 * Retrieves the number of layers in the managed
-	 * {@link org.geotools.map.MapContent}.
-	 *
-	 * @return the total number of {@link org.geotools.map.FeatureLayer}'s in the map.
-	 */
-	public int getLayerCount() {
-		return map.layers().size();
-	}
-
-	/**
-	 * Adds a new {@link org.geotools.map.FeatureLayer} to the managed
-	 * {@link org.geotools.map.MapContent} using the specified
-	 * {@link org.geotools.api.data.SimpleFeatureSource} and {@link org.geotools.api.style.Style}.
-	 *
-	 * @param featureSource the {@link org.geotools.api.data.SimpleFeatureSource}
-	 *                      providing the data for the new layer.
-	 * @param style         the {@link org.geotools.api.style.Style} to be applied to
-	 *                      the new layer.
-	 * @throws Exception if featureSource or style are invalid
-	 */
-	public void addLayer(SimpleFeatureSource featureSource, Style style) throws Exception {
-		
-		try {
-			this.map.layers().add(new FeatureLayer(featureSource, style));
-		} catch (Exception e) {
-			throw new Exception("Could not add layer; featureSource/style invalid");
-		}
-		
-	}
-
-	/**
-	 * Removes a {@link org.geotools.map.FeatureLayer} from the managed
-	 * {@link org.geotools.map.MapContent} by its id.
-	 *
-	 * @param id the id of the {@link org.geotools.map.FeatureLayer} to be removed.
-	 * @throws IllegalArgumentException if id does not exist in map.
-	 */
-	public void removeLayer(int id) throws IllegalArgumentException {
-		
-		try {
-			this.map.layers().remove(id);
-		} catch (Exception e) {
-			throw new IllegalArgumentException("Invalid layer ID: " + id);
-		}
-	}
-}
+package org.geotools.tutorial.txtreader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import org.geotools.api.data.SimpleFeatureSource;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.referencing.FactoryException;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.api.style.Style;
+import org.geotools.data.collection.CollectionFeatureSource;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.geometry.Position2D;
+import org.geotools.geometry.jts.JTS;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.referencing.CRS;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * MapManager: Utility class for managing map content and layers. The layers are
+ * published as immutable snapshots, each layer with a stable id, so threads
+ * reading them never lock and never see a half-applied change. Writers are
+ * serialized only around the short update of the snapshot and the
+ * {@link org.geotools.map.MapContent}, whose copy-on-write layer list the
+ * renderer iterates; loading and reprojecting happen before that. Once a display
+ * CRS is set, in-memory layers are added already reprojected into it, so the
+ * renderer doesn't transform their coordinates on every repaint. Layers can be
+ * queried by bounding box, clicked position and nearest neighbours through a
+ * {@link LayerIndex} built on the first query of each layer.
+ */
+public class MapManager {
+
+	private static final Logger LOGGER = Logging.getLogger(MapManager.class);
+
+	private MapContent map;
+
+	// Layers in map order, replaced as a whole on every change
+	private final AtomicReference<Snapshot> snapshot;
+	private final AtomicLong nextId = new AtomicLong();
+
+	// Keeps the map content in the order of the snapshots; readers never take it
+	private final Object writeLock = new Object();
+
+	// CRS the layers are reprojected into, null to keep the CRS of every file
+	private volatile CoordinateReferenceSystem displayCRS;
+
+	// Query indexes by layer, built on first query
+	private final Map<Layer, LayerIndex> indexes = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor: Constructs a new {@link MapManager} with the specified map
+	 * content.
+	 *
+	 * @param map the {@link org.geotools.map.MapContent} object to be managed.
+	 */
+	MapManager(MapContent map) {
+		this.map = map;
+		this.snapshot = new AtomicReference<>(Snapshot.EMPTY.append(map.layers(), this.nextId));
+	}
+
+	/**
+	 * Retrieves the {@link org.geotools.map.MapContent} managed by this
+	 * {@link MapManager}.
+	 *
+	 * @return the {@link org.geotools.map.MapContent} object that is being managed.
+	 */
+	public MapContent getMap() {
+		return this.map;
+	}
+
+	/**
+	 * Retrieves the CRS the layers are reprojected into.
+	 *
+	 * @return the display
+	 *         {@link org.geotools.api.referencing.crs.CoordinateReferenceSystem},
+	 *         or {@code null} if none has been set.
+	 */
+	public CoordinateReferenceSystem getDisplayCRS() {
+		return this.displayCRS;
+	}
+
+	/**
+	 * Switches the map to another CRS. Every in-memory layer is replaced by a
+	 * copy in the new CRS; layers are transformed in parallel, each at most once
+	 * per CRS thanks to the {@link ReprojectionCache} of its source. Streamed and
+	 * followed layers are reprojected by the renderer instead. Layers keep their
+	 * position, style, title and visibility. Intended to be called off the event
+	 * dispatch thread.
+	 *
+	 * @param crs the new display
+	 *            {@link org.geotools.api.referencing.crs.CoordinateReferenceSystem}.
+	 * @throws FactoryException if a layer can't be transformed into the CRS.
+	 */
+	public void setDisplayCRS(CoordinateReferenceSystem crs) throws FactoryException {
+
+		List<Layer> layers = getLayers();
+		List<SimpleFeatureSource> featureSources = new ArrayList<>(layers.size());
+		for (Layer layer : layers) {
+			featureSources.add((SimpleFeatureSource) layer.getFeatureSource());
+		}
+
+		// Transform all layers before touching the map => a failure changes nothing
+		List<SimpleFeatureSource> reprojected = reproject(featureSources, crs);
+
+		this.displayCRS = crs;
+		this.map.getViewport().setCoordinateReferenceSystem(crs);
+
+		for (int i = 0; i < layers.size(); i++) {
+			if (reprojected.get(i) != featureSources.get(i)) {
+				replaceLayer(layers.get(i), reprojected.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Reprojects feature sources into the display CRS ahead of
+	 * {@link #addLayers(List, Style, List)}, so the transformation happens on the
+	 * calling thread instead of the one adding the layers. Results are cached by
+	 * the sources.
+	 *
+	 * @param featureSources the loaded
+	 *                       {@link org.geotools.api.data.SimpleFeatureSource}s.
+	 * @throws FactoryException if a source can't be transformed into the CRS.
+	 */
+	public void prepareLayers(List<SimpleFeatureSource> featureSources) throws FactoryException {
+		reproject(featureSources, this.displayCRS);
+	}
+
+	/**
+	 * Reprojects feature sources into a CRS, in parallel.
+	 *
+	 * @param featureSources the {@link org.geotools.api.data.SimpleFeatureSource}s.
+	 * @param crs            the target CRS, or {@code null}.
+	 * @return the sources in the target CRS, in the same order; sources that
+	 *         aren't {@link IndexedFeatureSource}s are returned as they are.
+	 * @throws FactoryException if a source can't be transformed into the CRS.
+	 */
+	private static List<SimpleFeatureSource> reproject(List<SimpleFeatureSource> featureSources,
+			CoordinateReferenceSystem crs) throws FactoryException {
+
+		SimpleFeatureSource[] reprojected = new SimpleFeatureSource[featureSources.size()];
+		AtomicReference<FactoryException> failure = new AtomicReference<>();
+
+		IntStream.range(0, reprojected.length).parallel().forEach(i -> {
+			try {
+				reprojected[i] = reproject(featureSources.get(i), crs);
+			} catch (FactoryException e) {
+				failure.compareAndSet(null, e);
+			}
+		});
+
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+
+		return Arrays.asList(reprojected);
+	}
+
+	private static SimpleFeatureSource reproject(SimpleFeatureSource featureSource, CoordinateReferenceSystem crs)
+			throws FactoryException {
+
+		if (crs == null || !(featureSource instanceof IndexedFeatureSource)) {
+			return featureSource;
+		}
+
+		return ((IndexedFeatureSource) featureSource).reproject(crs);
+	}
+
+	/**
+	 * Replaces a layer by a layer over another source at the same position and
+	 * with the same id.
+	 *
+	 * @param layer         the {@link org.geotools.map.Layer} to be replaced.
+	 * @param featureSource the source of the new layer.
+	 */
+	private void replaceLayer(Layer layer, SimpleFeatureSource featureSource) {
+
+		FeatureLayer replacement = new FeatureLayer(featureSource, ((FeatureLayer) layer).getStyle(),
+				layer.getTitle());
+		replacement.setVisible(layer.isVisible());
+
+		synchronized (this.writeLock) {
+			Snapshot current = this.snapshot.get();
+			int index = current.indexOf(layer);
+			if (index < 0) {
+				return; // Removed in the meantime
+			}
+
+			this.snapshot.set(current.replace(index, replacement));
+			int mapIndex = this.map.layers().indexOf(layer);
+			this.map.layers().remove(mapIndex);
+			this.map.layers().add(mapIndex, replacement);
+		}
+
+		this.indexes.remove(layer);
+		LoadMetrics.getInstance().recordLayerRemoved(layer);
+		LoadMetrics.getInstance().recordLayerAdded(replacement, featureSource, 0);
+	}
+
+	/**
+	 * Retrieves the number of layers in the managed
+	 * {@link org.geotools.map.MapContent}.
+	 *
+	 * @return the total number of {@link org.geotools.map.FeatureLayer}'s in the map.
+	 */
+	public int getLayerCount() {
+		return this.snapshot.get().layers.length;
+	}
+
+	/**
+	 * Retrieves the layers as of the latest change, without locking.
+	 *
+	 * @return an immutable list of the {@link org.geotools.map.Layer}s in map
+	 *         order.
+	 */
+	public List<Layer> getLayers() {
+		return Collections.unmodifiableList(Arrays.asList(this.snapshot.get().layers));
+	}
+
+	/**
+	 * Retrieves the stable id of a layer. Ids are never reused and survive
+	 * reordering, the removal of other layers and reprojection.
+	 *
+	 * @param layer the {@link org.geotools.map.Layer}.
+	 * @return the id of the layer, or {@code -1} if it isn't in the map.
+	 */
+	public long getLayerId(Layer layer) {
+
+		Snapshot current = this.snapshot.get();
+		int index = current.indexOf(layer);
+
+		return index < 0 ? -1 : current.ids[index];
+	}
+
+	/**
+	 * Adds a new {@link org.geotools.map.FeatureLayer} to the managed
+	 * {@link org.geotools.map.MapContent} using the specified
+	 * {@link org.geotools.api.data.SimpleFeatureSource} and {@link org.geotools.api.style.Style}.
+	 *
+	 * @param featureSource the {@link org.geotools.api.data.SimpleFeatureSource}
+	 *                      providing the data for the new layer.
+	 * @param style         the {@link org.geotools.api.style.Style} to be applied to
+	 *                      the new layer.
+	 * @throws Exception if featureSource or style are invalid
+	 */
+	public void addLayer(SimpleFeatureSource featureSource, Style style) throws Exception {
+		addLayer(featureSource, style, null);
+	}
+
+	/**
+	 * Adds a new titled {@link org.geotools.map.FeatureLayer} to the managed
+	 * {@link org.geotools.map.MapContent} using the specified
+	 * {@link org.geotools.api.data.SimpleFeatureSource} and
+	 * {@link org.geotools.api.style.Style}. The time it takes and the estimated
+	 * heap of the layer are recorded in {@link LoadMetrics}. If a display CRS is
+	 * set, the source is reprojected into it first, on the calling thread.
+	 *
+	 * @param featureSource the {@link org.geotools.api.data.SimpleFeatureSource}
+	 *                      providing the data for the new layer.
+	 * @param style         the {@link org.geotools.api.style.Style} to be applied to
+	 *                      the new layer.
+	 * @param title         the title of the new layer, or {@code null}.
+	 * @throws Exception if featureSource or style are invalid
+	 */
+	public void addLayer(SimpleFeatureSource featureSource, Style style, String title) throws Exception {
+		
+		long start = System.nanoTime();
+
+		featureSource = reproject(featureSource, this.displayCRS);
+
+		FeatureLayer layer;
+		try {
+			layer = new FeatureLayer(featureSource, style, title);
+		} catch (Exception e) {
+			throw new Exception("Could not add layer; featureSource/style invalid");
+		}
+		publish(Collections.singletonList(layer));
+
+		LoadMetrics.getInstance().recordLayerAdded(layer, featureSource, System.nanoTime() - start);
+	}
+
+	/**
+	 * Adds several titled {@link org.geotools.map.FeatureLayer}s with the same
+	 * {@link org.geotools.api.style.Style} to the managed
+	 * {@link org.geotools.map.MapContent} in a single update, so the map is
+	 * repainted once instead of once per layer. If a display CRS is set, the
+	 * sources are reprojected into it first; use
+	 * {@link #prepareLayers(List)} to do so on another thread.
+	 *
+	 * @param featureSources the {@link org.geotools.api.data.SimpleFeatureSource}s
+	 *                       providing the data for the new layers.
+	 * @param style          the {@link org.geotools.api.style.Style} to be applied
+	 *                       to the new layers.
+	 * @param titles         the titles of the new layers, in the order of the
+	 *                       sources.
+	 * @throws Exception if a featureSource or the style are invalid
+	 */
+	public void addLayers(List<SimpleFeatureSource> featureSources, Style style, List<String> titles)
+			throws Exception {
+
+		long start = System.nanoTime();
+
+		featureSources = reproject(featureSources, this.displayCRS);
+
+		List<Layer> layers = new ArrayList<>(featureSources.size());
+		try {
+			for (int i = 0; i < featureSources.size(); i++) {
+				layers.add(new FeatureLayer(featureSources.get(i), style, titles.get(i)));
+			}
+		} catch (Exception e) {
+			throw new Exception("Could not add layers; featureSource/style invalid");
+		}
+		publish(layers);
+
+		// Spread the time of the batch over its layers
+		long nanos = (System.nanoTime() - start) / Math.max(1, layers.size());
+		for (int i = 0; i < layers.size(); i++) {
+			LoadMetrics.getInstance().recordLayerAdded(layers.get(i), featureSources.get(i), nanos);
+		}
+	}
+
+	/**
+	 * Adds a temporary {@link org.geotools.map.FeatureLayer} showing the first
+	 * features of a file that is still being loaded. Previews aren't recorded in
+	 * {@link LoadMetrics}; remove them with {@link #removeLayer(Layer)}.
+	 *
+	 * @param features the non-empty list of
+	 *                 {@link org.geotools.api.feature.simple.SimpleFeature}s to
+	 *                 be shown.
+	 * @param style    the {@link org.geotools.api.style.Style} of the layer.
+	 * @param title    the title of the loading layer.
+	 * @return the added {@link org.geotools.map.Layer}.
+	 */
+	public Layer addPreviewLayer(List<SimpleFeature> features, Style style, String title) {
+
+		SimpleFeatureSource featureSource = new CollectionFeatureSource(
+				new ListFeatureCollection(features.get(0).getFeatureType(), features));
+		Layer layer = new FeatureLayer(featureSource, style, title + " (loading)");
+		publish(Collections.singletonList(layer));
+
+		return layer;
+	}
+
+	/**
+	 * Appends layers to the snapshot and the map content in a single update.
+	 *
+	 * @param layers the new {@link org.geotools.map.Layer}s.
+	 */
+	private void publish(List<? extends Layer> layers) {
+		synchronized (this.writeLock) {
+			this.snapshot.set(this.snapshot.get().append(layers, this.nextId));
+			this.map.addLayers(layers);
+		}
+	}
+
+	/**
+	 * Removes a layer from the snapshot and the map content.
+	 *
+	 * @param layer the {@link org.geotools.map.Layer} to be removed.
+	 * @return {@code false} if the layer wasn't present.
+	 */
+	private boolean unpublish(Layer layer) {
+
+		synchronized (this.writeLock) {
+			Snapshot current = this.snapshot.get();
+			int index = current.indexOf(layer);
+			if (index < 0) {
+				return false;
+			}
+
+			this.snapshot.set(current.remove(index));
+			this.map.removeLayer(layer);
+		}
+
+		this.indexes.remove(layer);
+		LoadMetrics.getInstance().recordLayerRemoved(layer);
+
+		return true;
+	}
+
+	/**
+	 * Removes a {@link org.geotools.map.Layer} from the managed
+	 * {@link org.geotools.map.MapContent}, if it is still present.
+	 *
+	 * @param layer the {@link org.geotools.map.Layer} to be removed.
+	 */
+	public void removeLayer(Layer layer) {
+		unpublish(layer);
+	}
+
+	/**
+	 * Removes a {@link org.geotools.map.FeatureLayer} from the managed
+	 * {@link org.geotools.map.MapContent} by its stable id, as returned by
+	 * {@link #getLayerId(Layer)}.
+	 *
+	 * @param id the id of the {@link org.geotools.map.FeatureLayer} to be removed.
+	 * @throws IllegalArgumentException if id does not exist in map.
+	 */
+	public void removeLayer(long id) throws IllegalArgumentException {
+
+		Snapshot current = this.snapshot.get();
+		int index = current.indexOf(id);
+
+		// Also fails if another thread removed the layer in the meantime
+		Layer layer = index < 0 ? null : current.layers[index];
+		if (layer == null || !unpublish(layer)) {
+			throw new IllegalArgumentException("Invalid layer ID: " + id);
+		}
+
+		// Stop background work feeding the layer, e.g. following a file
+		if (layer.getFeatureSource() instanceof Closeable) {
+			try {
+				((Closeable) layer.getFeatureSource()).close();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Could not close source of removed layer", e);
+			}
+		}
+	}
+
+	/**
+	 * Finds the features of a layer whose geometry intersects a bounding box.
+	 *
+	 * @param layer the queried {@link org.geotools.map.Layer}.
+	 * @param bbox  the {@link org.locationtech.jts.geom.Envelope} in the CRS of
+	 *              the layer.
+	 * @return the matching features in layer order.
+	 * @throws IOException if the features of the layer can't be read.
+	 */
+	public List<SimpleFeature> queryBounds(Layer layer, Envelope bbox) throws IOException {
+		return getIndex(layer).queryBounds(bbox);
+	}
+
+	/**
+	 * Finds the features of a layer at a position: polygons containing it, and
+	 * points and lines within a tolerance of it.
+	 *
+	 * @param layer     the queried {@link org.geotools.map.Layer}.
+	 * @param point     the {@link org.locationtech.jts.geom.Coordinate} in the
+	 *                  CRS of the layer.
+	 * @param tolerance the distance in layer units at which points and lines
+	 *                  are hit.
+	 * @return the matching features in layer order.
+	 * @throws IOException if the features of the layer can't be read.
+	 */
+	public List<SimpleFeature> identify(Layer layer, Coordinate point, double tolerance) throws IOException {
+
+		Envelope searchArea = new Envelope(point);
+		searchArea.expandBy(tolerance);
+
+		return getIndex(layer).identify(point, searchArea);
+	}
+
+	/**
+	 * Finds the features of all visible layers at a clicked map position. The
+	 * position and its search area are transformed into the CRS of every layer
+	 * that isn't displayed in the map CRS.
+	 *
+	 * @param position  the {@link org.geotools.geometry.Position2D} in the map
+	 *                  CRS.
+	 * @param tolerance the distance in map units at which points and lines are
+	 *                  hit.
+	 * @return the matching features by {@link org.geotools.map.Layer}, in map
+	 *         order; layers without a match are left out.
+	 * @throws Exception if a layer can't be read or the position can't be
+	 *                   transformed into its CRS.
+	 */
+	public Map<Layer, List<SimpleFeature>> identify(Position2D position, double tolerance) throws Exception {
+
+		CoordinateReferenceSystem mapCRS = position.getCoordinateReferenceSystem();
+		ReferencedEnvelope area = new ReferencedEnvelope(position.x - tolerance, position.x + tolerance,
+				position.y - tolerance, position.y + tolerance, mapCRS);
+
+		Map<Layer, List<SimpleFeature>> result = new LinkedHashMap<>();
+		for (Layer layer : this.snapshot.get().layers) {
+			if (!layer.isVisible()) {
+				continue;
+			}
+
+			Coordinate point = new Coordinate(position.x, position.y);
+			Envelope searchArea = area;
+			CoordinateReferenceSystem layerCRS = layer.getFeatureSource().getSchema().getCoordinateReferenceSystem();
+			if (mapCRS != null && layerCRS != null && !CRS.equalsIgnoreMetadata(mapCRS, layerCRS)) {
+				point = JTS.transform(point, null, CRS.findMathTransform(mapCRS, layerCRS, true));
+				searchArea = area.transform(layerCRS, true);
+			}
+
+			List<SimpleFeature> features = getIndex(layer).identify(point, searchArea);
+			if (!features.isEmpty()) {
+				result.put(layer, features);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Finds the features of a layer closest to a point.
+	 *
+	 * @param layer the queried {@link org.geotools.map.Layer}.
+	 * @param point the {@link org.locationtech.jts.geom.Coordinate} in the CRS of
+	 *              the layer.
+	 * @param k     the maximum number of features.
+	 * @return up to {@code k} features, nearest first.
+	 * @throws IOException if the features of the layer can't be read.
+	 */
+	public List<SimpleFeature> nearest(Layer layer, Coordinate point, int k) throws IOException {
+		return getIndex(layer).nearest(point, k);
+	}
+
+	/**
+	 * Retrieves the query index of a layer, building it on first use. The index
+	 * of a followed layer is rebuilt once features have been appended.
+	 *
+	 * @param layer the {@link org.geotools.map.Layer}.
+	 * @return the {@link LayerIndex} of the layer.
+	 * @throws IOException if the features of the layer can't be read.
+	 */
+	private LayerIndex getIndex(Layer layer) throws IOException {
+
+		SimpleFeatureSource featureSource = (SimpleFeatureSource) layer.getFeatureSource();
+
+		LayerIndex index = this.indexes.get(layer);
+		if (index == null || (featureSource instanceof AppendableFeatureSource
+				&& ((AppendableFeatureSource) featureSource).size() != index.size())) {
+			index = LayerIndex.build(featureSource);
+
+			// Removed while building => don't keep the index alive
+			if (this.snapshot.get().indexOf(layer) >= 0) {
+				this.indexes.put(layer, index);
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * Snapshot class: Nested class inside of {@link MapManager}. An immutable
+	 * list of layers in map order, together with their ids. Changes create a new
+	 * snapshot.
+	 */
+	private static class Snapshot {
+
+		private static final Snapshot EMPTY = new Snapshot(new long[0], new Layer[0]);
+
+		private final long[] ids;
+		private final Layer[] layers;
+
+		Snapshot(long[] ids, Layer[] layers) {
+			this.ids = ids;
+			this.layers = layers;
+		}
+
+		int indexOf(Layer layer) {
+			for (int i = 0; i < this.layers.length; i++) {
+				if (this.layers[i] == layer) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int indexOf(long id) {
+			for (int i = 0; i < this.ids.length; i++) {
+				if (this.ids[i] == id) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		Snapshot append(List<? extends Layer> added, AtomicLong nextId) {
+
+			long[] newIds = Arrays.copyOf(this.ids, this.ids.length + added.size());
+			Layer[] newLayers = Arrays.copyOf(this.layers, this.layers.length + added.size());
+			for (int i = 0; i < added.size(); i++) {
+				newIds[this.ids.length + i] = nextId.getAndIncrement();
+				newLayers[this.layers.length + i] = added.get(i);
+			}
+
+			return new Snapshot(newIds, newLayers);
+		}
+
+		Snapshot replace(int index, Layer layer) {
+
+			Layer[] newLayers = this.layers.clone();
+			newLayers[index] = layer;
+
+			return new Snapshot(this.ids, newLayers);
+		}
+
+		Snapshot remove(int index) {
+
+			long[] newIds = new long[this.ids.length - 1];
+			Layer[] newLayers = new Layer[this.layers.length - 1];
+			System.arraycopy(this.ids, 0, newIds, 0, index);
+			System.arraycopy(this.layers, 0, newLayers, 0, index);
+			System.arraycopy(this.ids, index + 1, newIds, index, newIds.length - index);
+			System.arraycopy(this.layers, index + 1, newLayers, index, newLayers.length - index);
+
+			return new Snapshot(newIds, newLayers);
+		}
+	}
+}
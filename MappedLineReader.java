@@ -0,0 +1,252 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedLineReader: Reads lines from a (range of a) file through memory-mapped
+ * windows. Line boundaries are found directly in the mapped
+ * {@link java.nio.ByteBuffer} and every line is exposed as a
+ * {@link java.lang.CharSequence} view on the mapped bytes, without copying or
+ * charset decoding. Characters are the raw bytes, which is enough to scan the
+ * ASCII content of WKT geometries and delimiters; the text of a line or of a
+ * part of it is decoded as {@link Constants#INPUT_CHARSET} by
+ * {@link java.lang.CharSequence#toString()}, like every other read path does.
+ */
+public class MappedLineReader implements Closeable {
+
+	private final FileChannel channel;
+	private final long end;
+
+	private MappedByteBuffer window;
+	private long windowStart;
+	private int windowSize = Constants.MAPPED_WINDOW_SIZE;
+
+	// Position of the next unread byte relative to the window
+	private int position;
+
+	private final LineView line = new LineView();
+	private long lineOffset;
+
+	/**
+	 * Constructor: Constructs a {@link MappedLineReader} over a whole file.
+	 *
+	 * @param sourceFile the file to be read.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public MappedLineReader(File sourceFile) throws IOException {
+		this(sourceFile, 0, sourceFile.length());
+	}
+
+	/**
+	 * Constructor: Constructs a {@link MappedLineReader} over the byte range
+	 * {@code [start, end)} of a file. The range is expected to start at the
+	 * beginning of a line.
+	 *
+	 * @param sourceFile the file to be read.
+	 * @param start      the position of the first byte of the range.
+	 * @param end        the position after the last byte of the range.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public MappedLineReader(File sourceFile, long start, long end) throws IOException {
+		this.channel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+		this.end = Math.min(end, this.channel.size());
+		this.windowStart = start;
+		this.position = 0;
+	}
+
+	/**
+	 * Advances to the next line.
+	 *
+	 * @return {@code true} if a line is available through {@link #line()},
+	 *         {@code false} if the end of the range has been reached.
+	 * @throws IOException if an error occurs during file reading, or if a line
+	 *                     doesn't fit into the largest window that can be
+	 *                     mapped.
+	 */
+	public boolean next() throws IOException {
+
+		while (true) {
+
+			long lineStart = this.windowStart + this.position;
+			if (lineStart >= this.end) {
+				return false;
+			}
+
+			// Map the first window lazily
+			if (this.window == null) {
+				map(lineStart);
+			}
+
+			// Scan for the next newline inside the current window
+			int limit = this.window.limit();
+			for (int i = this.position; i < limit; i++) {
+				if (this.window.get(i) == '\n') {
+					setLine(this.position, i);
+					this.position = i + 1;
+					return true;
+				}
+			}
+
+			// No newline left: the remainder is the last line of the range
+			if (this.windowStart + limit >= this.end) {
+				setLine(this.position, limit);
+				this.position = limit;
+				return true;
+			}
+
+			// Line crosses the window boundary => remap starting at the line, and
+			// grow the window if the line alone is larger than it
+			if (this.position == 0) {
+				if (this.windowSize == Integer.MAX_VALUE) {
+					throw new IOException(
+							"Line at offset " + lineStart + " is longer than " + Integer.MAX_VALUE + " bytes");
+				}
+				this.windowSize = (int) Math.min(Integer.MAX_VALUE, this.windowSize * 2L);
+			}
+			map(lineStart);
+		}
+	}
+
+	/**
+	 * Retrieves the current line. The returned view is reused and only valid
+	 * until the next call to {@link #next()}; use
+	 * {@link java.lang.CharSequence#toString()} to keep a copy.
+	 *
+	 * @return the current line without its line terminator.
+	 */
+	public CharSequence line() {
+		return this.line;
+	}
+
+	/**
+	 * Retrieves the position of the current line in the file.
+	 *
+	 * @return the byte offset of the first byte of the current line.
+	 */
+	public long lineOffset() {
+		return this.lineOffset;
+	}
+
+	/**
+	 * Maps a new window starting at the specified file position.
+	 *
+	 * @param start the position of the first byte of the window.
+	 * @throws IOException if the file cannot be mapped.
+	 */
+	private void map(long start) throws IOException {
+
+		long size = Math.min(this.windowSize, this.end - start);
+
+		this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+		this.windowStart = start;
+		this.position = 0;
+	}
+
+	/**
+	 * Points the line view at a byte range of the current window, without its
+	 * line terminator.
+	 *
+	 * @param from the window position of the first byte of the line.
+	 * @param to   the window position after the last byte of the line.
+	 */
+	private void setLine(int from, int to) {
+
+		// Strip windows line endings
+		if (to > from && this.window.get(to - 1) == '\r') {
+			to--;
+		}
+
+		this.line.reset(this.window, from, to - from);
+		this.lineOffset = this.windowStart + from;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.window = null;
+		this.channel.close();
+	}
+
+	/**
+	 * Checks whether a line only contains whitespace, matching the lines that
+	 * {@link java.util.Scanner#hasNext()} skips.
+	 *
+	 * @param line the line to check.
+	 * @return {@code true} if the line is empty or only contains whitespace.
+	 */
+	public static boolean isBlank(CharSequence line) {
+
+		for (int i = 0; i < line.length(); i++) {
+			if (!Character.isWhitespace(line.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * LineView class: Nested class inside of {@link MappedLineReader}. A
+	 * {@link java.lang.CharSequence} view on a range of bytes in a
+	 * {@link java.nio.ByteBuffer}. {@link #charAt(int)} returns single bytes,
+	 * while {@link #toString()} decodes the range as
+	 * {@link Constants#INPUT_CHARSET}. Sub-sequences split at ASCII characters
+	 * never cut a multi-byte UTF-8 character.
+	 */
+	static class LineView implements CharSequence {
+
+		private ByteBuffer buffer;
+		private int offset;
+		private int length;
+
+		/**
+		 * Points this view at a new byte range.
+		 *
+		 * @param buffer the {@link java.nio.ByteBuffer} holding the bytes.
+		 * @param offset the position of the first byte.
+		 * @param length the number of bytes.
+		 */
+		void reset(ByteBuffer buffer, int offset, int length) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return this.length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= this.length) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", length: " + this.length);
+			}
+			return (char) (this.buffer.get(this.offset + index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (start < 0 || end > this.length || start > end) {
+				throw new IndexOutOfBoundsException("Range: [" + start + ", " + end + "), length: " + this.length);
+			}
+			LineView view = new LineView();
+			view.reset(this.buffer, this.offset + start, end - start);
+			return view;
+		}
+
+		@Override
+		public String toString() {
+			byte[] bytes = new byte[this.length];
+			ByteBuffer source = this.buffer.duplicate();
+			source.position(this.offset);
+			source.get(bytes);
+			return new String(bytes, Constants.INPUT_CHARSET);
+		}
+	}
+}
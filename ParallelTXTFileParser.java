@@ -0,0 +1,470 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+
+/**
+ * ParallelTXTFileParser: Parses TXT files containing WKT geometries through a
+ * {@link MappedLineReader}, optionally splitting them into newline-aligned byte
+ * ranges which are parsed concurrently on a
+ * {@link java.util.concurrent.ForkJoinPool}.
+ */
+public class ParallelTXTFileParser {
+
+	/**
+	 * Reads and parses a TXT file containing WKT geometries through a
+	 * {@link MappedLineReader}, in parallel or as a single range on the calling
+	 * thread. The resulting features keep the order of the lines in the file and
+	 * the number of invalid lines matches the sequential
+	 * {@link java.util.Scanner Scanner} based parser.
+	 *
+	 * @param sourceFile  the file containing WKT geometries.
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 * @param parallel    whether to split the file and parse the ranges
+	 *                    concurrently.
+	 * @return a {@link ChunkResult} holding the parsed features and the report of
+	 *         invalid lines.
+	 * @throws IOException if an error occurs during file reading.
+	 */
+	public static ChunkResult readAndParseFile(File sourceFile, SimpleFeatureType featureType, boolean parallel)
+			throws IOException {
+		return readAndParseFile(sourceFile, featureType, parallel, LoadOptions.getDefault());
+	}
+
+	/**
+	 * Reads and parses a TXT file containing WKT geometries, handling invalid
+	 * lines according to the {@link InvalidLinePolicy} of the options.
+	 *
+	 * @param sourceFile  the file containing WKT geometries.
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 * @param parallel    whether to split the file and parse the ranges
+	 *                    concurrently.
+	 * @param options     the {@link LoadOptions} of the load.
+	 * @return a {@link ChunkResult} holding the parsed features and the report of
+	 *         invalid lines.
+	 * @throws IOException if an error occurs during file reading, or if
+	 *                     {@link InvalidLinePolicy#FAIL_FAST} aborted the load.
+	 */
+	public static ChunkResult readAndParseFile(File sourceFile, SimpleFeatureType featureType, boolean parallel,
+			LoadOptions options) throws IOException {
+		return readAndParseFile(sourceFile, featureType, null, parallel, options);
+	}
+
+	/**
+	 * Reads and parses a TXT file containing WKT geometries, or delimited lines
+	 * holding a WKT column if a {@link DelimitedFormat} is given. The header line
+	 * of a delimited file is skipped.
+	 *
+	 * @param sourceFile  the file containing WKT geometries.
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 * @param format      the {@link DelimitedFormat} of the file, or
+	 *                    {@code null} for plain WKT lines.
+	 * @param parallel    whether to split the file and parse the ranges
+	 *                    concurrently.
+	 * @param options     the {@link LoadOptions} of the load.
+	 * @return a {@link ChunkResult} holding the parsed features and the report of
+	 *         invalid lines.
+	 * @throws IOException if an error occurs during file reading, or if
+	 *                     {@link InvalidLinePolicy#FAIL_FAST} aborted the load.
+	 */
+	public static ChunkResult readAndParseFile(File sourceFile, SimpleFeatureType featureType,
+			DelimitedFormat format, boolean parallel, LoadOptions options) throws IOException {
+
+		// Invalid lines of all ranges, for failing fast
+		AtomicLong errorCount = new AtomicLong();
+
+		// Reports of all ranges, for deleting their rejects if the load fails
+		Queue<ParseErrorReport> reports = new ConcurrentLinkedQueue<>();
+		boolean parsed = false;
+
+		try {
+
+			ChunkResult result;
+			if (!parallel) {
+
+				// Parse the whole file as a single range
+				result = new ChunkTask(sourceFile, featureType, format, options, errorCount, reports,
+						new long[] { 0, sourceFile.length() }, 0, 1).compute();
+			} else {
+
+				// Split file into newline-aligned byte ranges
+				long[] boundaries = splitFile(sourceFile);
+
+				// Parse ranges on the common fork-join pool
+				result = ForkJoinPool.commonPool().invoke(new ChunkTask(sourceFile, featureType, format, options,
+						errorCount, reports, boundaries, 0, boundaries.length - 1));
+			}
+
+			parsed = true;
+			return result;
+
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+
+			// Failed or cancelled => all ranges have stopped, drop their rejects
+			if (!parsed) {
+				for (ParseErrorReport report : reports) {
+					report.discardRejects();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits a file into byte ranges that start directly after a newline.
+	 *
+	 * @param sourceFile the file to be split.
+	 * @return an array of ascending range boundaries; range {@code i} spans
+	 *         {@code [boundaries[i], boundaries[i + 1])}.
+	 * @throws IOException if an error occurs during file reading.
+	 */
+	private static long[] splitFile(File sourceFile) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ)) {
+
+			long size = channel.size();
+
+			// Aim for a few chunks per core, but don't make chunks too small
+			int chunkCount = (int) Math.max(1, Math.min(
+					Runtime.getRuntime().availableProcessors() * Constants.PARALLEL_CHUNKS_PER_CORE,
+					size / Constants.PARALLEL_MIN_CHUNK_SIZE));
+
+			List<Long> boundaries = new ArrayList<>();
+			boundaries.add(0L);
+
+			for (int i = 1; i < chunkCount; i++) {
+
+				// Move each approximate boundary to the start of the next line
+				long boundary = nextLineStart(channel, size * i / chunkCount);
+				if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+					boundaries.add(boundary);
+				}
+			}
+
+			boundaries.add(size);
+
+			return boundaries.stream().mapToLong(Long::longValue).toArray();
+		}
+	}
+
+	/**
+	 * Finds the position of the first byte following the next newline.
+	 *
+	 * @param channel  the {@link java.nio.channels.FileChannel} to scan.
+	 * @param position the position to start scanning from.
+	 * @return the start of the next line, or the channel size if there is none.
+	 * @throws IOException if an error occurs during file reading.
+	 */
+	private static long nextLineStart(FileChannel channel, long position) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate(Constants.READ_BUFFER_SIZE);
+
+		while (channel.read(buffer, position) > 0) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				position++;
+				if (buffer.get() == '\n') {
+					return position;
+				}
+			}
+			buffer.clear();
+		}
+
+		return channel.size();
+	}
+
+	/**
+	 * ChunkResult class: Nested class inside of {@link ParallelTXTFileParser}.
+	 * Holds the features, invalid line report and phase times for a range of
+	 * lines.
+	 */
+	public static class ChunkResult {
+
+		private final List<SimpleFeature> features;
+		private final ParseErrorReport errors;
+		private final PhaseTimer timer = new PhaseTimer();
+		private long lineCount;
+
+		// Blank lines are only invalid when a non-blank line follows them, just
+		// like Scanner.hasNext() ignores trailing whitespace in the sequential path
+		private int trailingBlankCount;
+		private boolean hasContent;
+
+		// The first non-blank line of a delimited file with header names the columns
+		private boolean headerPending;
+
+		ChunkResult(ParseErrorReport errors, List<SimpleFeature> features) {
+			this.errors = errors;
+			this.features = features;
+		}
+
+		/**
+		 * Retrieves the parsed features in file order.
+		 *
+		 * @return a {@link java.util.List} of
+		 *         {@link org.geotools.api.feature.simple.SimpleFeature}.
+		 */
+		public List<SimpleFeature> getFeatures() {
+			return this.features;
+		}
+
+		/**
+		 * Retrieves the number of lines that could not be parsed.
+		 *
+		 * @return the number of invalid lines.
+		 */
+		public int getInvalidCount() {
+			return (int) this.errors.getErrorCount();
+		}
+
+		/**
+		 * Retrieves the report of the lines that could not be parsed.
+		 *
+		 * @return the {@link ParseErrorReport} of this result.
+		 */
+		public ParseErrorReport getErrors() {
+			return this.errors;
+		}
+
+		/**
+		 * Retrieves the time spent reading, parsing and building features, summed
+		 * over all ranges.
+		 *
+		 * @return the {@link PhaseTimer} of this result.
+		 */
+		public PhaseTimer getTimer() {
+			return this.timer;
+		}
+
+		/**
+		 * Appends the result of the directly following range to this result.
+		 *
+		 * @param next the result of the following range.
+		 * @return this result.
+		 */
+		private ChunkResult merge(ChunkResult next) {
+
+			this.features.addAll(next.features);
+			this.timer.merge(next.timer);
+
+			if (next.hasContent) {
+				this.errors.addBlankLines(this.trailingBlankCount);
+				this.trailingBlankCount = next.trailingBlankCount;
+				this.hasContent = true;
+			} else {
+				this.trailingBlankCount += next.trailingBlankCount;
+			}
+
+			// Line numbers of the following range continue after this range
+			this.errors.merge(next.errors, this.lineCount);
+			this.lineCount += next.lineCount;
+
+			return this;
+		}
+	}
+
+	/**
+	 * ChunkTask class: Nested class inside of {@link ParallelTXTFileParser}.
+	 * Recursively splits a list of byte ranges and parses each range with its own
+	 * {@link FastWKTReader} and
+	 * {@link org.geotools.feature.simple.SimpleFeatureBuilder}.
+	 */
+	private static class ChunkTask extends RecursiveTask<ChunkResult> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final File sourceFile;
+		private final SimpleFeatureType featureType;
+		private final DelimitedFormat format;
+		private final LoadOptions options;
+		private final AtomicLong errorCount;
+		private final Queue<ParseErrorReport> reports;
+		private final long[] boundaries;
+		private final int from;
+		private final int to;
+
+		/**
+		 * Constructor: Constructs a task for the ranges {@code [from, to)}.
+		 *
+		 * @param sourceFile  the file containing WKT geometries.
+		 * @param featureType the schema for the features.
+		 * @param format      the {@link DelimitedFormat} of the file, or
+		 *                    {@code null}.
+		 * @param options     the {@link LoadOptions} of the load.
+		 * @param errorCount  the number of invalid lines of all ranges so far.
+		 * @param reports     the reports of all ranges started so far.
+		 * @param boundaries  the range boundaries of the file.
+		 * @param from        the index of the first range.
+		 * @param to          the index after the last range.
+		 */
+		ChunkTask(File sourceFile, SimpleFeatureType featureType, DelimitedFormat format, LoadOptions options,
+				AtomicLong errorCount, Queue<ParseErrorReport> reports, long[] boundaries, int from, int to) {
+			this.sourceFile = sourceFile;
+			this.featureType = featureType;
+			this.format = format;
+			this.options = options;
+			this.errorCount = errorCount;
+			this.reports = reports;
+			this.boundaries = boundaries;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected ChunkResult compute() {
+
+			if (this.to - this.from == 1) {
+				return parseRange(this.boundaries[this.from], this.boundaries[this.to]);
+			}
+
+			// Fork left half, compute right half, merge in file order
+			int middle = (this.from + this.to) >>> 1;
+			ChunkTask left = new ChunkTask(this.sourceFile, this.featureType, this.format, this.options,
+					this.errorCount, this.reports, this.boundaries, this.from, middle);
+			ChunkTask right = new ChunkTask(this.sourceFile, this.featureType, this.format, this.options,
+					this.errorCount, this.reports, this.boundaries, middle, this.to);
+
+			left.fork();
+			ChunkResult rightResult;
+			try {
+				rightResult = right.compute();
+			} catch (RuntimeException e) {
+
+				// Let the left half stop before its rejects are deleted
+				left.quietlyJoin();
+				throw e;
+			}
+
+			return left.join().merge(rightResult);
+		}
+
+		/**
+		 * Parses all lines in a single byte range, reporting to the
+		 * {@link LoadProgress} of the options.
+		 *
+		 * @param start the position of the first byte of the range.
+		 * @param end   the position after the last byte of the range.
+		 * @return the {@link ChunkResult} of the range.
+		 * @throws java.util.concurrent.CancellationException if the load has been
+		 *                                                   cancelled.
+		 */
+		private ChunkResult parseRange(long start, long end) {
+
+			ChunkResult result = new ChunkResult(this.options.createReport(),
+					TXTFileParser.createFeatureList(this.featureType, this.format));
+			this.reports.add(result.errors);
+			result.headerPending = start == 0 && this.format != null && this.format.hasHeader();
+
+			// Initiate WTKReader and SimpleFeatureBuilder for this range only
+			FastWKTReader reader = new FastWKTReader();
+			SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(this.featureType);
+
+			LoadProgress progress = this.options.getProgress();
+			long reported = start;
+			boolean preview = start == 0;
+			this.options.checkCancelled();
+
+			// Scan lines in the mapped range, timing the read of sampled lines. The
+			// rejects file is closed either way; a failed load deletes it
+			try (MappedLineReader lines = new MappedLineReader(this.sourceFile, start, end);
+					Closeable rejects = result.errors::closeRejects) {
+				while (true) {
+					result.timer.startLine();
+					if (!lines.next()) {
+						break;
+					}
+					result.timer.lap(LoadPhase.FILE_READ);
+					result.lineCount++;
+					handleLine(result, reader, featureBuilder, lines);
+
+					// Report progress and check for cancellation every few bytes
+					if (lines.lineOffset() - reported >= Constants.PROGRESS_INTERVAL) {
+						progress.bytesRead(lines.lineOffset() - reported);
+						reported = lines.lineOffset();
+						this.options.checkCancelled();
+					}
+
+					// Hand out the start of the file while the rest is parsed
+					if (preview && result.features.size() == Constants.PREVIEW_FEATURE_COUNT) {
+						progress.preview(new ArrayList<>(result.features));
+						preview = false;
+					}
+				}
+				progress.bytesRead(end - reported);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Error reading file: " + e.getMessage(), e);
+			}
+
+			return result;
+		}
+
+		/**
+		 * Parses a single line and stores the outcome in the range result.
+		 *
+		 * @param result         the {@link ChunkResult} of the current range.
+		 * @param reader         a {@link FastWKTReader} object.
+		 * @param featureBuilder a
+		 *                       {@link org.geotools.feature.simple.SimpleFeatureBuilder}
+		 *                       object.
+		 * @param lines          the {@link MappedLineReader} positioned on the
+		 *                       input WKT line.
+		 * @throws IOException if the line can't be rejected, or if
+		 *                     {@link InvalidLinePolicy#FAIL_FAST} aborts the load.
+		 */
+		private void handleLine(ChunkResult result, FastWKTReader reader, SimpleFeatureBuilder featureBuilder,
+				MappedLineReader lines) throws IOException {
+
+			CharSequence line = lines.line();
+
+			// Defer blank lines until we know whether content follows them
+			if (MappedLineReader.isBlank(line)) {
+				result.trailingBlankCount++;
+				return;
+			}
+
+			result.errors.addBlankLines(result.trailingBlankCount);
+			result.trailingBlankCount = 0;
+			result.hasContent = true;
+
+			if (result.headerPending) {
+				result.headerPending = false;
+				return;
+			}
+
+			try {
+				result.features.add(TXTFileParser.parseLine(reader, featureBuilder, this.format, line, result.timer));
+			} catch (Exception e) {
+				result.timer.lap(LoadPhase.WKT_PARSE);
+				result.errors.addError(e, result.lineCount, lines.lineOffset(), line);
+
+				// Other ranges stop at their next invalid line
+				if (this.options.isExceeded(this.errorCount.incrementAndGet())) {
+					throw new IOException(TXTFileParser.tooManyInvalidLines(this.sourceFile, this.options));
+				}
+			}
+		}
+	}
+}
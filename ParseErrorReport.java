@@ -0,0 +1,321 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ParseErrorReport: Bounded record of the invalid lines of a TXT file. Errors
+ * are counted per {@link ParseErrorType}, but only the first
+ * {@value Constants#ERROR_SAMPLE_LIMIT} of every type are kept as samples, so
+ * memory stays constant however dirty a file is. With
+ * {@link InvalidLinePolicy#WRITE_REJECTS}, invalid lines are streamed to
+ * temporary files instead of being kept, which are deleted by
+ * {@link #writeRejects(File)} or {@link #discardRejects()}. Reports of consecutive ranges of a
+ * file can be merged in file order.
+ */
+public class ParseErrorReport {
+
+	private final long[] counts = new long[ParseErrorType.values().length];
+	private final Map<ParseErrorType, List<ParseError>> samples = new EnumMap<>(ParseErrorType.class);
+
+	private final boolean writeRejects;
+	private final List<File> rejectFiles = new ArrayList<>();
+	private BufferedWriter rejects;
+
+	// Set for reports restored from counts only, e.g. from the GeometryCache
+	private boolean sampled = true;
+
+	/**
+	 * Constructor: Constructs an empty {@link ParseErrorReport}.
+	 *
+	 * @param writeRejects whether invalid lines are written to rejects files.
+	 */
+	public ParseErrorReport(boolean writeRejects) {
+		this.writeRejects = writeRejects;
+		for (ParseErrorType type : ParseErrorType.values()) {
+			this.samples.put(type, new ArrayList<>());
+		}
+	}
+
+	/**
+	 * Constructs a report holding only error counts, without samples.
+	 *
+	 * @param counts the number of errors per {@link ParseErrorType}, in
+	 *               declaration order.
+	 * @return a new {@link ParseErrorReport}.
+	 */
+	public static ParseErrorReport fromCounts(long[] counts) {
+
+		ParseErrorReport report = new ParseErrorReport(false);
+		System.arraycopy(counts, 0, report.counts, 0, Math.min(counts.length, report.counts.length));
+		report.sampled = false;
+
+		return report;
+	}
+
+	/**
+	 * Records an invalid line.
+	 *
+	 * @param exception  the exception thrown while parsing the line.
+	 * @param lineNumber the number of the line, starting at 1.
+	 * @param offset     the byte offset of the line, or -1 if unknown.
+	 * @param line       the line itself.
+	 * @throws IOException if the line can't be written to the rejects file.
+	 */
+	public void addError(Exception exception, long lineNumber, long offset, CharSequence line) throws IOException {
+
+		ParseErrorType type = ParseErrorType.of(exception);
+		this.counts[type.ordinal()]++;
+
+		List<ParseError> typeSamples = this.samples.get(type);
+		if (typeSamples.size() < Constants.ERROR_SAMPLE_LIMIT) {
+			typeSamples.add(new ParseError(lineNumber, offset, exception.getMessage()));
+		}
+
+		if (this.writeRejects) {
+			writeReject(line);
+		}
+	}
+
+	/**
+	 * Records blank lines that turned out to be followed by content.
+	 *
+	 * @param count the number of blank lines.
+	 */
+	public void addBlankLines(long count) {
+		this.counts[ParseErrorType.BLANK.ordinal()] += count;
+	}
+
+	private void writeReject(CharSequence line) throws IOException {
+
+		// One temporary file per report => concurrent ranges never share a writer
+		if (this.rejects == null) {
+			File file = File.createTempFile("txtreader", ".rejects");
+			this.rejectFiles.add(file);
+			this.rejects = Files.newBufferedWriter(file.toPath(), Constants.INPUT_CHARSET);
+		}
+
+		this.rejects.append(line);
+		this.rejects.newLine();
+	}
+
+	/**
+	 * Closes the temporary rejects file of this report. Must be called once the
+	 * range of this report has been parsed.
+	 *
+	 * @throws IOException if the file can't be closed.
+	 */
+	public void closeRejects() throws IOException {
+		if (this.rejects != null) {
+			try {
+				this.rejects.close();
+			} finally {
+				this.rejects = null;
+			}
+		}
+	}
+
+	/**
+	 * Closes and deletes the temporary rejects files of this report. Called when
+	 * a load fails or is cancelled, so it never throws.
+	 */
+	public void discardRejects() {
+
+		try {
+			closeRejects();
+		} catch (IOException e) {
+			// The file is deleted anyway
+		}
+
+		for (File file : this.rejectFiles) {
+			file.delete();
+		}
+		this.rejectFiles.clear();
+	}
+
+	/**
+	 * Appends the report of the directly following range of lines to this report.
+	 *
+	 * @param next      the report of the following range.
+	 * @param lineShift the number of lines preceding the following range within
+	 *                  the merged range, added to its line numbers.
+	 * @return this report.
+	 */
+	public ParseErrorReport merge(ParseErrorReport next, long lineShift) {
+
+		for (ParseErrorType type : ParseErrorType.values()) {
+			this.counts[type.ordinal()] += next.counts[type.ordinal()];
+
+			List<ParseError> typeSamples = this.samples.get(type);
+			for (ParseError error : next.samples.get(type)) {
+				if (typeSamples.size() >= Constants.ERROR_SAMPLE_LIMIT) {
+					break;
+				}
+				typeSamples.add(new ParseError(error.lineNumber + lineShift, error.offset, error.message));
+			}
+		}
+
+		this.rejectFiles.addAll(next.rejectFiles);
+		this.sampled &= next.sampled;
+
+		return this;
+	}
+
+	/**
+	 * Concatenates the temporary rejects files into a single file, in file order.
+	 *
+	 * @param target the rejects file to be written.
+	 * @return the written file, or {@code null} if there were no rejected lines.
+	 * @throws IOException if the rejects can't be written.
+	 */
+	public File writeRejects(File target) throws IOException {
+
+		closeRejects();
+		if (this.rejectFiles.isEmpty()) {
+			return null;
+		}
+
+		try (OutputStream output = Files.newOutputStream(target.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (File file : this.rejectFiles) {
+				Files.copy(file.toPath(), output);
+			}
+		} finally {
+			for (File file : this.rejectFiles) {
+				file.delete();
+			}
+			this.rejectFiles.clear();
+		}
+
+		return target;
+	}
+
+	/**
+	 * Retrieves the number of errors of a type.
+	 *
+	 * @param type the {@link ParseErrorType}.
+	 * @return the number of errors.
+	 */
+	public long getCount(ParseErrorType type) {
+		return this.counts[type.ordinal()];
+	}
+
+	/**
+	 * Retrieves the number of errors per type.
+	 *
+	 * @return the counts in {@link ParseErrorType} declaration order.
+	 */
+	public long[] getCounts() {
+		return this.counts.clone();
+	}
+
+	/**
+	 * Retrieves the total number of invalid lines.
+	 *
+	 * @return the number of errors of all types.
+	 */
+	public long getErrorCount() {
+
+		long total = 0;
+		for (long count : this.counts) {
+			total += count;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Retrieves the sampled errors of a type, in file order.
+	 *
+	 * @param type the {@link ParseErrorType}.
+	 * @return an unmodifiable {@link java.util.List} of {@link ParseError}s.
+	 */
+	public List<ParseError> getSamples(ParseErrorType type) {
+		return Collections.unmodifiableList(this.samples.get(type));
+	}
+
+	/**
+	 * Describes the errors for display, with the counts per type and the sampled
+	 * errors.
+	 *
+	 * @return a multi-line summary.
+	 */
+	public String getSummary() {
+
+		StringBuilder summary = new StringBuilder("Number of invalid lines: ").append(getErrorCount());
+
+		for (ParseErrorType type : ParseErrorType.values()) {
+			long count = this.counts[type.ordinal()];
+			if (count == 0) {
+				continue;
+			}
+			summary.append("\n").append(type).append(": ").append(count);
+			for (ParseError error : this.samples.get(type)) {
+				summary.append("\n    ").append(error);
+			}
+			if (count > this.samples.get(type).size() && this.sampled && type != ParseErrorType.BLANK) {
+				summary.append("\n    ...");
+			}
+		}
+
+		if (!this.sampled) {
+			summary.append("\n(Loaded from cache; reload without cache for details)");
+		}
+
+		return summary.toString();
+	}
+
+	@Override
+	public String toString() {
+		return getSummary();
+	}
+
+	/**
+	 * ParseError class: Nested class inside of {@link ParseErrorReport}. The
+	 * position and message of a single invalid line.
+	 */
+	public static class ParseError {
+
+		private final long lineNumber;
+		private final long offset;
+		private final String message;
+
+		ParseError(long lineNumber, long offset, String message) {
+			this.lineNumber = lineNumber;
+			this.offset = offset;
+			this.message = message;
+		}
+
+		public long getLineNumber() {
+			return this.lineNumber;
+		}
+
+		/**
+		 * Retrieves the byte offset of the line.
+		 *
+		 * @return the offset, or -1 if it is unknown.
+		 */
+		public long getOffset() {
+			return this.offset;
+		}
+
+		public String getMessage() {
+			return this.message;
+		}
+
+		@Override
+		public String toString() {
+			return "line " + this.lineNumber + (this.offset >= 0 ? " (byte " + this.offset + ")" : "") + ": "
+					+ this.message;
+		}
+	}
+}
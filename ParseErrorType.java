@@ -0,0 +1,48 @@
+package org.geotools.tutorial.txtreader;
+
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * ParseErrorType: Enum representing the reasons a line of a TXT file can be
+ * invalid.
+ */
+public enum ParseErrorType {
+
+	/**
+	 * Blank line followed by further content.
+	 */
+	BLANK,
+
+	/**
+	 * Line that is not well-formed WKT.
+	 */
+	SYNTAX,
+
+	/**
+	 * Well-formed WKT describing an impossible geometry, e.g. an unclosed ring.
+	 */
+	GEOMETRY,
+
+	/**
+	 * Any other failure while parsing or building the feature.
+	 */
+	OTHER;
+
+	/**
+	 * Classifies the exception thrown for an invalid line.
+	 *
+	 * @param e the exception.
+	 * @return the matching {@link ParseErrorType}.
+	 */
+	public static ParseErrorType of(Exception e) {
+
+		if (e instanceof ParseException) {
+			return SYNTAX;
+		} else if (e instanceof IllegalArgumentException) {
+			// JTS rejects invalid coordinate sequences with IllegalArgumentException
+			return GEOMETRY;
+		}
+
+		return OTHER;
+	}
+}
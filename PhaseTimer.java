@@ -0,0 +1,107 @@
+package org.geotools.tutorial.txtreader;
+
+/**
+ * PhaseTimer: Accumulates the time spent in each {@link LoadPhase} by taking
+ * laps: every call to {@link #lap(LoadPhase)} adds the time since the previous
+ * lap to a phase. Not thread-safe; concurrent parsers use one timer each and
+ * merge them, so the times are summed over all threads.
+ * <p>
+ * Per-line phases would take two clock reads per line, so lines started with
+ * {@link #startLine()} are sampled: only every
+ * {@value Constants#PHASE_SAMPLE_INTERVAL}th line is timed, and the sampled
+ * times are scaled to all lines.
+ */
+public class PhaseTimer {
+
+	private final long[] nanos = new long[LoadPhase.values().length];
+	private long last;
+
+	// Laps of sampled lines, scaled by lineCount / sampledLineCount
+	private final long[] sampledNanos = new long[LoadPhase.values().length];
+	private long lineCount;
+	private long sampledLineCount;
+	private boolean lineMode;
+	private boolean timing = true;
+
+	/**
+	 * Starts the first lap, ending the line sampling of
+	 * {@link #startLine()}.
+	 *
+	 * @return this timer.
+	 */
+	public PhaseTimer start() {
+		this.lineMode = false;
+		this.timing = true;
+		this.last = System.nanoTime();
+		return this;
+	}
+
+	/**
+	 * Starts the laps of the next line. The laps of a line are only timed if the
+	 * line is sampled; otherwise they don't read the clock.
+	 */
+	public void startLine() {
+		this.lineMode = true;
+		this.timing = this.lineCount++ % Constants.PHASE_SAMPLE_INTERVAL == 0;
+		if (this.timing) {
+			this.sampledLineCount++;
+			this.last = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Adds the time since the previous lap to a phase and starts the next lap.
+	 *
+	 * @param phase the {@link LoadPhase} the elapsed time belongs to.
+	 */
+	public void lap(LoadPhase phase) {
+
+		// Line not sampled => skip the clock
+		if (!this.timing) {
+			return;
+		}
+
+		long now = System.nanoTime();
+		(this.lineMode ? this.sampledNanos : this.nanos)[phase.ordinal()] += now - this.last;
+		this.last = now;
+	}
+
+	/**
+	 * Adds a separately measured time to a phase.
+	 *
+	 * @param phase the {@link LoadPhase}.
+	 * @param nanos the time in nanoseconds.
+	 */
+	public void add(LoadPhase phase, long nanos) {
+		this.nanos[phase.ordinal()] += nanos;
+	}
+
+	/**
+	 * Adds the times of another timer to this timer.
+	 *
+	 * @param other the {@link PhaseTimer} to be merged.
+	 * @return this timer.
+	 */
+	public PhaseTimer merge(PhaseTimer other) {
+		for (LoadPhase phase : LoadPhase.values()) {
+			this.nanos[phase.ordinal()] += other.getNanos(phase);
+		}
+		return this;
+	}
+
+	/**
+	 * Retrieves the accumulated time of a phase.
+	 *
+	 * @param phase the {@link LoadPhase}.
+	 * @return the time in nanoseconds.
+	 */
+	public long getNanos(LoadPhase phase) {
+
+		long sampled = this.sampledNanos[phase.ordinal()];
+		if (this.sampledLineCount == 0 || sampled == 0) {
+			return this.nanos[phase.ordinal()];
+		}
+
+		return this.nanos[phase.ordinal()] + Math.round(sampled * ((double) this.lineCount / this.sampledLineCount));
+	}
+}
@@ -0,0 +1,24 @@
+package org.geotools.tutorial.txtreader;
+
+/**
+ * ReadMode: Enum representing the different ways {@link TXTFileParser} can read
+ * and parse a TXT file.
+ */
+public enum ReadMode {
+
+	/**
+	 * Reads the file line by line with a {@link java.util.Scanner}.
+	 */
+	SCANNER,
+
+	/**
+	 * Reads the file through a {@link MappedLineReader} on the calling thread.
+	 */
+	MAPPED,
+
+	/**
+	 * Reads the file through {@link MappedLineReader}s on newline-aligned byte
+	 * ranges that are parsed concurrently.
+	 */
+	PARALLEL;
+}
@@ -0,0 +1,25 @@
+package org.geotools.tutorial.txtreader;
+
+/**
+ * RenderMode: Enum representing the different ways the map pane of
+ * {@link TXTReader} can render its layers.
+ */
+public enum RenderMode {
+
+	/**
+	 * Renders all layers with the default
+	 * {@link org.geotools.renderer.lite.StreamingRenderer}.
+	 */
+	STREAMING,
+
+	/**
+	 * Renders the map into cached tiles with a {@link TileCachingRenderer}.
+	 */
+	TILED,
+
+	/**
+	 * Renders every layer concurrently into its own buffer with a
+	 * {@link LayerCompositingRenderer}.
+	 */
+	LAYERED;
+}
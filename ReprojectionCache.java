@@ -0,0 +1,181 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.referencing.FactoryException;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.api.referencing.operation.MathTransform;
+import org.geotools.api.referencing.operation.TransformException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.JTS;
+import org.geotools.referencing.CRS;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * ReprojectionCache: Copies of the features of a layer in other CRSs. A copy is
+ * transformed once, in parallel, when a CRS is first requested and then served
+ * as an {@link IndexedFeatureSource} in that CRS, so the renderer finds the
+ * layer already in the display CRS and never transforms a coordinate while
+ * panning or zooming. The {@value Constants#REPROJECTION_CACHE_SIZE} most
+ * recently requested CRSs are kept.
+ */
+public class ReprojectionCache {
+
+	private static final Logger LOGGER = Logging.getLogger(ReprojectionCache.class);
+
+	// Features per parallel task when transforming a CompactFeatureList
+	private static final int BLOCK_SIZE = 16384;
+
+	private final IndexedFeatureSource origin;
+	private final SimpleFeatureType featureType;
+	private final List<SimpleFeature> features;
+
+	// Most recently used CRS last
+	private final Map<CoordinateReferenceSystem, IndexedFeatureSource> copies = new LinkedHashMap<>(4, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CoordinateReferenceSystem, IndexedFeatureSource> eldest) {
+			return size() > Constants.REPROJECTION_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Constructor: Constructs an empty {@link ReprojectionCache}.
+	 *
+	 * @param origin the {@link IndexedFeatureSource} holding the features in
+	 *               their source CRS.
+	 */
+	public ReprojectionCache(IndexedFeatureSource origin) {
+		this.origin = origin;
+		this.featureType = origin.getSchema();
+		this.features = origin.getFeatureList();
+	}
+
+	/**
+	 * Retrieves the features in another CRS, transforming them on the calling
+	 * thread and the common fork-join pool if they aren't cached yet. Concurrent
+	 * requests wait for a single transformation.
+	 *
+	 * @param targetCRS the requested
+	 *                  {@link org.geotools.api.referencing.crs.CoordinateReferenceSystem}.
+	 * @return an {@link IndexedFeatureSource} in the requested CRS; the origin
+	 *         itself for its own CRS.
+	 * @throws FactoryException if there is no transformation into the CRS.
+	 */
+	public synchronized IndexedFeatureSource get(CoordinateReferenceSystem targetCRS) throws FactoryException {
+
+		if (CRS.equalsIgnoreMetadata(this.featureType.getCoordinateReferenceSystem(), targetCRS)) {
+			return this.origin;
+		}
+
+		IndexedFeatureSource copy = this.copies.get(targetCRS);
+		if (copy == null) {
+			long start = System.nanoTime();
+
+			SimpleFeatureType targetType = SimpleFeatureTypeBuilder.retype(this.featureType, targetCRS);
+			MathTransform transform = CRS.findMathTransform(this.featureType.getCoordinateReferenceSystem(),
+					targetCRS, true);
+			copy = new IndexedFeatureSource(targetType, reproject(this.features, targetType, transform),
+					this.origin);
+			this.copies.put(targetCRS, copy);
+
+			LOGGER.info("Reprojected " + this.features.size() + " features to " + CRS.toSRS(targetCRS) + " in "
+					+ (System.nanoTime() - start) / 1_000_000 + " ms");
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Transforms all features, in parallel. Geometries that can't be transformed,
+	 * e.g. outside of the area of a projection, become {@code null}, so the copy
+	 * keeps the size and order of the source list.
+	 *
+	 * @param features   the features in the source CRS.
+	 * @param targetType the schema in the target CRS.
+	 * @param transform  the {@link org.geotools.api.referencing.operation.MathTransform}
+	 *                   into the target CRS.
+	 * @return the transformed features, in the same order.
+	 */
+	private static List<SimpleFeature> reproject(List<SimpleFeature> features, SimpleFeatureType targetType,
+			MathTransform transform) {
+
+		AtomicInteger failures = new AtomicInteger();
+		List<SimpleFeature> reprojected;
+
+		if (features instanceof CompactFeatureList) {
+			reprojected = reprojectCompact((CompactFeatureList) features, targetType, transform, failures);
+		} else {
+			SimpleFeature[] copies = new SimpleFeature[features.size()];
+			IntStream.range(0, copies.length).parallel().forEach(i -> {
+				SimpleFeature copy = SimpleFeatureBuilder.retype(features.get(i), targetType);
+				copy.setDefaultGeometry(transform((Geometry) features.get(i).getDefaultGeometry(), transform,
+						failures));
+				copies[i] = copy;
+			});
+			reprojected = Arrays.asList(copies);
+		}
+
+		if (failures.get() > 0) {
+			LOGGER.warning(failures.get() + " geometries could not be reprojected to "
+					+ CRS.toSRS(targetType.getCoordinateReferenceSystem()));
+		}
+
+		return reprojected;
+	}
+
+	/**
+	 * Transforms the geometries of a {@link CompactFeatureList} in parallel blocks,
+	 * which are appended in order to a packed list again.
+	 */
+	private static List<SimpleFeature> reprojectCompact(CompactFeatureList features, SimpleFeatureType targetType,
+			MathTransform transform, AtomicInteger failures) {
+
+		int blockCount = (features.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+		List<CompactFeatureList> blocks = IntStream.range(0, blockCount).parallel().mapToObj(block -> {
+			CompactFeatureList reprojected = features.emptyCopy(targetType);
+			int end = Math.min(features.size(), (block + 1) * BLOCK_SIZE);
+			for (int i = block * BLOCK_SIZE; i < end; i++) {
+				reprojected.addGeometry(transform(features.getGeometry(i), transform, failures),
+						features.getAttributeText(i));
+			}
+			return reprojected;
+		}).collect(Collectors.toList());
+
+		CompactFeatureList reprojected = features.emptyCopy(targetType);
+		for (CompactFeatureList block : blocks) {
+			reprojected.addAll(block);
+		}
+		reprojected.trimToSize();
+
+		return reprojected;
+	}
+
+	private static Geometry transform(Geometry geometry, MathTransform transform, AtomicInteger failures) {
+
+		if (geometry == null) {
+			return null;
+		}
+
+		try {
+			return JTS.transform(geometry, transform);
+		} catch (TransformException e) {
+			failures.incrementAndGet();
+			return null;
+		}
+	}
+}
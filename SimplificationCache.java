@@ -0,0 +1,243 @@
+package org.geotools.tutorial.txtreader;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Lineal;
+import org.locationtech.jts.geom.Puntal;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+
+/**
+ * SimplificationCache: Multi-resolution cache of the features of a layer.
+ * Simplified versions of every feature are precomputed in the background at a
+ * number of tolerances, each {@link Constants#SIMPLIFICATION_LEVEL_FACTOR}
+ * times coarser than the previous one, so zoomed-out rendering does not have
+ * to draw every vertex.
+ */
+public class SimplificationCache {
+
+	// Features per parallel task when simplifying a CompactFeatureList
+	private static final int BLOCK_SIZE = 16384;
+
+	private final List<SimpleFeature> features;
+	private final double[] tolerances;
+	private final List<CompletableFuture<List<SimpleFeature>>> levels;
+
+	/**
+	 * Constructor: Constructs a {@link SimplificationCache} and starts
+	 * computing the simplified levels on the common fork-join pool.
+	 *
+	 * @param features the full-resolution
+	 *                 {@link org.geotools.api.feature.simple.SimpleFeature} list.
+	 * @param bounds   the {@link org.locationtech.jts.geom.Envelope} of all
+	 *                 features, used to derive the tolerances.
+	 */
+	public SimplificationCache(List<SimpleFeature> features, Envelope bounds) {
+		this.features = features;
+
+		// Finest tolerance is a fixed fraction of the layer extent
+		double extent = bounds.isNull() ? 0 : Math.max(bounds.getWidth(), bounds.getHeight());
+		this.tolerances = new double[extent > 0 ? Constants.SIMPLIFICATION_LEVELS : 0];
+		for (int i = 0; i < this.tolerances.length; i++) {
+			this.tolerances[i] = extent * Constants.SIMPLIFICATION_BASE_TOLERANCE
+					* Math.pow(Constants.SIMPLIFICATION_LEVEL_FACTOR, i);
+		}
+
+		this.levels = Arrays.stream(this.tolerances)
+				.mapToObj(tolerance -> CompletableFuture.supplyAsync(() -> simplify(features, tolerance)))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Retrieves the features to render for a generalization distance. This is the
+	 * coarsest computed level whose tolerance does not exceed the distance, or the
+	 * full-resolution features when zoomed in or while no such level is ready.
+	 * The returned list has the same size and order as the full-resolution list.
+	 *
+	 * @param distance the generalization distance requested by the renderer, in
+	 *                 the units of the layer CRS.
+	 * @return a {@link java.util.List} of
+	 *         {@link org.geotools.api.feature.simple.SimpleFeature}.
+	 */
+	public List<SimpleFeature> getFeatures(double distance) {
+
+		for (int i = this.tolerances.length - 1; i >= 0; i--) {
+			if (this.tolerances[i] <= distance) {
+				List<SimpleFeature> level = this.levels.get(i).getNow(null);
+				if (level != null) {
+					return level;
+				}
+			}
+		}
+
+		return this.features;
+	}
+
+	/**
+	 * Simplifies all features at a single tolerance, in parallel.
+	 *
+	 * @param features  the full-resolution features.
+	 * @param tolerance the distance tolerance.
+	 * @return the simplified features, in the same order.
+	 */
+	private static List<SimpleFeature> simplify(List<SimpleFeature> features, double tolerance) {
+
+		if (features instanceof CompactFeatureList) {
+			return simplifyCompact((CompactFeatureList) features, tolerance);
+		}
+
+		SimpleFeature[] simplified = new SimpleFeature[features.size()];
+
+		IntStream.range(0, simplified.length).parallel().forEach(i -> {
+			SimpleFeature feature = features.get(i);
+			Geometry geometry = (Geometry) feature.getDefaultGeometry();
+			Geometry simple = simplify(geometry, tolerance);
+
+			// Reuse the original feature when nothing was removed
+			if (simple == geometry || simple.getNumPoints() == geometry.getNumPoints()) {
+				simplified[i] = feature;
+			} else {
+				SimpleFeature copy = SimpleFeatureBuilder.copy(feature);
+				copy.setDefaultGeometry(simple);
+				simplified[i] = copy;
+			}
+		});
+
+		return Arrays.asList(simplified);
+	}
+
+	/**
+	 * Simplifies compactly stored features. Only the geometries that actually
+	 * change are packed into a new {@link CompactFeatureList}; points and
+	 * unchanged rows are read from the full-resolution list. Blocks of features
+	 * are simplified in parallel and appended in order.
+	 *
+	 * @param features  the full-resolution features.
+	 * @param tolerance the distance tolerance.
+	 * @return the simplified features, in the same order; the given list itself
+	 *         if no geometry changes.
+	 */
+	private static List<SimpleFeature> simplifyCompact(CompactFeatureList features, double tolerance) {
+
+		int blockCount = (features.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+		List<Block> blocks = IntStream.range(0, blockCount).parallel().mapToObj(block -> {
+			Block result = new Block(features.emptyCopy());
+			int end = Math.min(features.size(), (block + 1) * BLOCK_SIZE);
+			for (int i = block * BLOCK_SIZE; i < end; i++) {
+
+				// Check the packed type first => points are never decoded
+				if (features.isPuntal(i)) {
+					continue;
+				}
+
+				Geometry geometry = features.getGeometry(i);
+				Geometry simple = simplify(geometry, tolerance);
+				if (simple != geometry && simple.getNumPoints() != geometry.getNumPoints()) {
+					result.indexes.add(i);
+					result.geometries.addGeometry(simple);
+				}
+			}
+			return result;
+		}).collect(Collectors.toList());
+
+		int count = blocks.stream().mapToInt(block -> block.indexes.size()).sum();
+		if (count == 0) {
+			return features;
+		}
+
+		int[] indexes = new int[count];
+		CompactFeatureList geometries = features.emptyCopy();
+		int position = 0;
+		for (Block block : blocks) {
+			for (int index : block.indexes) {
+				indexes[position++] = index;
+			}
+			geometries.addAll(block.geometries);
+		}
+		geometries.trimToSize();
+
+		return new SimplifiedList(features, indexes, geometries);
+	}
+
+	/**
+	 * Simplifies a single geometry: Douglas-Peucker for lines, topology
+	 * preserving for polygons and collections, points are left unchanged.
+	 *
+	 * @param geometry  the {@link org.locationtech.jts.geom.Geometry} to simplify.
+	 * @param tolerance the distance tolerance.
+	 * @return the simplified geometry, or the input if it cannot be simplified.
+	 */
+	private static Geometry simplify(Geometry geometry, double tolerance) {
+
+		if (geometry == null || geometry.isEmpty() || geometry instanceof Puntal) {
+			return geometry;
+		} else if (geometry instanceof Lineal) {
+			return DouglasPeuckerSimplifier.simplify(geometry, tolerance);
+		} else {
+			return TopologyPreservingSimplifier.simplify(geometry, tolerance);
+		}
+	}
+
+	/**
+	 * Block class: Nested class inside of {@link SimplificationCache}. The
+	 * indexes of the features of a block whose geometry changes, and their
+	 * simplified geometries.
+	 */
+	private static class Block {
+
+		private final List<Integer> indexes = new ArrayList<>();
+		private final CompactFeatureList geometries;
+
+		Block(CompactFeatureList geometries) {
+			this.geometries = geometries;
+		}
+	}
+
+	/**
+	 * SimplifiedList class: Nested class inside of {@link SimplificationCache}.
+	 * A simplified level of a {@link CompactFeatureList}, holding only the
+	 * geometries that changed and reading all other features from the
+	 * full-resolution list.
+	 */
+	private static class SimplifiedList extends AbstractList<SimpleFeature> implements RandomAccess {
+
+		private final CompactFeatureList features;
+		private final int[] indexes;
+		private final CompactFeatureList geometries;
+
+		SimplifiedList(CompactFeatureList features, int[] indexes, CompactFeatureList geometries) {
+			this.features = features;
+			this.indexes = indexes;
+			this.geometries = geometries;
+		}
+
+		@Override
+		public int size() {
+			return this.features.size();
+		}
+
+		@Override
+		public SimpleFeature get(int index) {
+
+			// Indexes are in ascending order => binary search
+			int position = Arrays.binarySearch(this.indexes, index);
+			if (position < 0) {
+				return this.features.get(index);
+			}
+
+			return this.features.get(index, this.geometries.getGeometry(position));
+		}
+	}
+}
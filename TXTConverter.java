@@ -0,0 +1,498 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FilenameUtils;
+import org.geotools.api.data.FeatureWriter;
+import org.geotools.api.data.Transaction;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.feature.type.AttributeDescriptor;
+import org.geotools.api.feature.type.GeometryDescriptor;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * TXTConverter: Headless entry point that converts TXT files containing WKT
+ * geometries into Shapefiles. A Shapefile only holds a single geometry type, so
+ * every input file is split into up to four Shapefiles by {@link ShapeType}.
+ * The other columns of a delimited file, see {@link DelimitedFormat}, become
+ * attributes next to the geometry.
+ * Features are streamed line by line into the output
+ * {@link org.geotools.api.data.FeatureWriter}s, compressed files are
+ * decompressed while being read, several files are converted
+ * concurrently, and throughput statistics are printed per file.
+ *
+ * <pre>
+ * TXTConverter [-threads n] &lt;output directory&gt; &lt;file.txt | directory&gt;...
+ * </pre>
+ */
+public class TXTConverter {
+
+	private static final String LINE_ATTRIBUTE = "line";
+
+	/**
+	 * Converts the files given on the command line.
+	 *
+	 * @param args optional {@code -threads n}, the output directory and the input
+	 *             files or directories containing TXT files.
+	 */
+	public static void main(String[] args) {
+
+		// Never initialize a display, even if one is available
+		System.setProperty("java.awt.headless", "true");
+
+		List<String> arguments = new ArrayList<>(Arrays.asList(args));
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (arguments.size() >= 2 && arguments.get(0).equals("-threads")) {
+			threads = Integer.parseInt(arguments.get(1));
+			arguments.subList(0, 2).clear();
+		}
+
+		if (arguments.size() < 2) {
+			System.err.println("Usage: TXTConverter [-threads n] <output directory> <file.txt | directory>...");
+			System.exit(2);
+		}
+
+		File outputDirectory = new File(arguments.get(0));
+		if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+			System.err.println("Could not create output directory " + outputDirectory);
+			System.exit(2);
+		}
+
+		List<File> sourceFiles = listSourceFiles(arguments.subList(1, arguments.size()));
+
+		boolean failed = convertAll(sourceFiles, outputDirectory, threads);
+
+		System.exit(failed ? 1 : 0);
+	}
+
+	/**
+	 * Expands the input arguments into a list of input files. Directories
+	 * contribute the TXT, CSV and TSV files directly inside of them, compressed
+	 * or not.
+	 *
+	 * @param paths the input files or directories.
+	 * @return a {@link java.util.List} of input files.
+	 */
+	private static List<File> listSourceFiles(List<String> paths) {
+
+		List<File> sourceFiles = new ArrayList<>();
+		for (String path : paths) {
+			File file = new File(path);
+			if (file.isDirectory()) {
+				File[] children = file.listFiles(child -> child.isFile() && TXTFileParser.isInputFile(child));
+				if (children != null) {
+					Arrays.sort(children);
+					sourceFiles.addAll(Arrays.asList(children));
+				}
+			} else {
+				sourceFiles.add(file);
+			}
+		}
+
+		return sourceFiles;
+	}
+
+	/**
+	 * Converts files concurrently and prints the statistics of each file and the
+	 * totals.
+	 *
+	 * @param sourceFiles     the TXT files to be converted.
+	 * @param outputDirectory the directory receiving the Shapefiles.
+	 * @param threads         the number of files converted concurrently.
+	 * @return {@code true} if any file failed to convert.
+	 */
+	public static boolean convertAll(List<File> sourceFiles, File outputDirectory, int threads) {
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, sourceFiles.size())));
+		long start = System.nanoTime();
+
+		try {
+			List<Future<LoadStatistics>> results = new ArrayList<>();
+			for (File sourceFile : sourceFiles) {
+				results.add(executor.submit(() -> convert(sourceFile, outputDirectory)));
+			}
+
+			// Report in input order
+			boolean failed = false;
+			long bytes = 0;
+			long features = 0;
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					LoadStatistics statistics = results.get(i).get();
+					System.out.println(statistics);
+					bytes += statistics.getBytes();
+					features += statistics.getFeatureCount();
+				} catch (ExecutionException e) {
+					System.err.println(sourceFiles.get(i) + ": " + e.getCause().getMessage());
+					failed = true;
+				}
+			}
+
+			long elapsed = System.nanoTime() - start;
+			System.out.println(String.format("Total: %d files, %d features, %.1f s, %.1f MB/s, %.0f features/s",
+					sourceFiles.size(), features, elapsed / 1e9,
+					LoadStatistics.perSecond(bytes, elapsed) / (1024 * 1024),
+					LoadStatistics.perSecond(features, elapsed)));
+
+			return failed;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return true;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Converts a single TXT file into one Shapefile per {@link ShapeType} found in
+	 * it. Invalid lines are skipped and counted; geometry collections and empty
+	 * geometries can't be stored in a Shapefile and are counted as invalid too.
+	 * Compressed files are read through a {@link DecompressionPipeline}. The
+	 * Shapefiles get the CRS of {@link TXTFileParser#getSourceCRS(File)}.
+	 *
+	 * @param sourceFile      the file containing WKT geometries.
+	 * @param outputDirectory the directory receiving the Shapefiles.
+	 * @return the {@link LoadStatistics} of the conversion.
+	 * @throws Exception if the file is not a TXT file or an error occurs during
+	 *                   reading or writing.
+	 */
+	public static LoadStatistics convert(File sourceFile, File outputDirectory) throws Exception {
+
+		// Validate whether file is TXT => else throw exception
+		TXTFileParser.validateFile(sourceFile);
+
+		long start = System.nanoTime();
+		PhaseTimer timer = new PhaseTimer();
+		int featureCount = 0;
+		int invalidCount = 0;
+
+		// Compressed files can't be mapped => decompress and read them sequentially
+		boolean compressed = Compression.of(sourceFile) != Compression.NONE;
+		String baseName = FilenameUtils.getBaseName(Compression.stripExtension(sourceFile));
+		FastWKTReader reader = new FastWKTReader();
+
+		// Keep the CRS of the .prj file next to the source, WGS84 without one
+		CoordinateReferenceSystem crs = TXTFileParser.getSourceCRS(sourceFile);
+
+		// Delimited files keep their other columns as attributes
+		DelimitedFormat format = DelimitedFormat.detect(sourceFile);
+
+		try (LineInput lines = openLines(sourceFile);
+				ShapefileOutput output = new ShapefileOutput(outputDirectory, baseName, crs, format)) {
+
+			int lineNumber = 0;
+			boolean headerPending = format != null && format.hasHeader();
+			while (true) {
+				timer.startLine();
+				CharSequence line = lines.nextLine();
+				if (line == null) {
+					break;
+				}
+				lineNumber++;
+				timer.lap(LoadPhase.FILE_READ);
+				if (MappedLineReader.isBlank(line)) {
+					continue;
+				}
+
+				// The first non-blank line of a delimited file with header names the columns
+				if (headerPending) {
+					headerPending = false;
+					continue;
+				}
+
+				Geometry geometry;
+				SimpleFeature parsed = null;
+				try {
+					if (format != null) {
+						parsed = format.parseLine(reader, line, timer);
+						geometry = (Geometry) parsed.getDefaultGeometry();
+					} else {
+						geometry = reader.read(line);
+					}
+				} catch (Exception e) {
+					invalidCount++;
+					continue;
+				} finally {
+					timer.lap(LoadPhase.WKT_PARSE);
+				}
+
+				ShapeType type = ShapeType.of(geometry);
+				if (type == null) {
+					invalidCount++;
+					continue;
+				}
+
+				output.write(type, geometry, parsed, lineNumber);
+				featureCount++;
+				timer.lap(LoadPhase.FEATURE_WRITE);
+			}
+		}
+
+		LoadStatistics statistics = new LoadStatistics(sourceFile, compressed ? ReadMode.SCANNER : ReadMode.MAPPED,
+				featureCount, invalidCount, System.nanoTime() - start, timer);
+		LoadMetrics.getInstance().recordLoad(statistics);
+
+		return statistics;
+	}
+
+	/**
+	 * Opens the lines of a file: mapped if it is uncompressed, otherwise
+	 * decompressed by a {@link DecompressionPipeline}, as when it is loaded.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return the {@link LineInput} of the file.
+	 * @throws IOException if the file can't be opened.
+	 */
+	private static LineInput openLines(File sourceFile) throws IOException {
+
+		Compression compression = Compression.of(sourceFile);
+		if (compression != Compression.NONE) {
+			BufferedReader reader = new BufferedReader(
+					new InputStreamReader(new DecompressionPipeline(sourceFile, compression), Constants.INPUT_CHARSET));
+			return new LineInput() {
+
+				@Override
+				public CharSequence nextLine() throws IOException {
+					return reader.readLine();
+				}
+
+				@Override
+				public void close() throws IOException {
+					reader.close();
+				}
+			};
+		}
+
+		MappedLineReader lines = new MappedLineReader(sourceFile);
+		return new LineInput() {
+
+			@Override
+			public CharSequence nextLine() throws IOException {
+				return lines.next() ? lines.line() : null;
+			}
+
+			@Override
+			public void close() throws IOException {
+				lines.close();
+			}
+		};
+	}
+
+	/**
+	 * LineInput interface: Nested interface inside of {@link TXTConverter}. The
+	 * lines of an input file, read one at a time.
+	 */
+	private interface LineInput extends Closeable {
+
+		/**
+		 * Reads the next line.
+		 *
+		 * @return the line without its terminator, or {@code null} at the end of
+		 *         the file. A returned line is only valid until the next call.
+		 * @throws IOException if the file can't be read.
+		 */
+		CharSequence nextLine() throws IOException;
+	}
+
+	/**
+	 * ShapeType enum: Nested enum inside of {@link TXTConverter}. The geometry
+	 * types that can be stored in a Shapefile, and the suffix of the Shapefile
+	 * holding them.
+	 */
+	enum ShapeType {
+		POINT(Point.class, "point"), MULTIPOINT(MultiPoint.class, "multipoint"),
+		LINE(MultiLineString.class, "line"), POLYGON(MultiPolygon.class, "polygon");
+
+		private final Class<? extends Geometry> binding;
+		private final String suffix;
+
+		ShapeType(Class<? extends Geometry> binding, String suffix) {
+			this.binding = binding;
+			this.suffix = suffix;
+		}
+
+		/**
+		 * Finds the Shapefile type of a geometry.
+		 *
+		 * @param geometry the parsed {@link org.locationtech.jts.geom.Geometry}.
+		 * @return the {@link ShapeType}, or {@code null} if the geometry can't be
+		 *         stored in a Shapefile.
+		 */
+		static ShapeType of(Geometry geometry) {
+
+			if (geometry.isEmpty()) {
+				return null;
+			}
+
+			if (geometry instanceof Point) {
+				return POINT;
+			} else if (geometry instanceof MultiPoint) {
+				return MULTIPOINT;
+			} else if (geometry instanceof LineString || geometry instanceof MultiLineString) {
+				return LINE;
+			} else if (geometry instanceof Polygon || geometry instanceof MultiPolygon) {
+				return POLYGON;
+			}
+
+			return null;
+		}
+
+		/**
+		 * Converts a geometry to the binding of this type, wrapping single lines
+		 * and polygons into multi geometries.
+		 */
+		Geometry convert(Geometry geometry) {
+
+			GeometryFactory factory = geometry.getFactory();
+			if (geometry instanceof LineString) {
+				return factory.createMultiLineString(new LineString[] { (LineString) geometry });
+			} else if (geometry instanceof Polygon) {
+				return factory.createMultiPolygon(new Polygon[] { (Polygon) geometry });
+			}
+
+			return geometry;
+		}
+	}
+
+	/**
+	 * ShapefileOutput class: Nested class inside of {@link TXTConverter}. Writes
+	 * features into one Shapefile per {@link ShapeType}, creating each Shapefile
+	 * when its first feature arrives.
+	 */
+	private static class ShapefileOutput implements Closeable {
+
+		private final File outputDirectory;
+		private final String baseName;
+		private final CoordinateReferenceSystem crs;
+
+		// Non-geometry columns of a delimited file, written after the geometry
+		private final List<AttributeDescriptor> columns = new ArrayList<>();
+		private final boolean lineNumbers;
+
+		private final Map<ShapeType, ShapefileDataStore> dataStores = new EnumMap<>(ShapeType.class);
+		private final Map<ShapeType, FeatureWriter<SimpleFeatureType, SimpleFeature>> writers = new EnumMap<>(
+				ShapeType.class);
+
+		ShapefileOutput(File outputDirectory, String baseName, CoordinateReferenceSystem crs,
+				DelimitedFormat format) {
+			this.outputDirectory = outputDirectory;
+			this.baseName = baseName;
+			this.crs = crs;
+
+			if (format != null) {
+				for (AttributeDescriptor descriptor : format.getFeatureType().getAttributeDescriptors()) {
+					if (!(descriptor instanceof GeometryDescriptor)) {
+						this.columns.add(descriptor);
+					}
+				}
+			}
+
+			// A column of the same name replaces the source line number
+			this.lineNumbers = this.columns.stream()
+					.noneMatch(column -> column.getLocalName().equalsIgnoreCase(LINE_ATTRIBUTE));
+		}
+
+		/**
+		 * Appends a feature to the Shapefile of a type.
+		 *
+		 * @param type       the {@link ShapeType} of the geometry.
+		 * @param geometry   the parsed geometry.
+		 * @param parsed     the parsed feature of a delimited line, holding the
+		 *                   other columns, or {@code null}.
+		 * @param lineNumber the line the geometry was read from.
+		 * @throws IOException if the Shapefile can't be created or written.
+		 */
+		void write(ShapeType type, Geometry geometry, SimpleFeature parsed, int lineNumber) throws IOException {
+
+			FeatureWriter<SimpleFeatureType, SimpleFeature> writer = this.writers.get(type);
+			if (writer == null) {
+				writer = createWriter(type);
+			}
+
+			// Set by index => Shapefiles may shorten long column names
+			SimpleFeature feature = writer.next();
+			feature.setDefaultGeometry(type.convert(geometry));
+			int index = 1;
+			for (AttributeDescriptor column : this.columns) {
+				feature.setAttribute(index++, parsed != null ? parsed.getAttribute(column.getLocalName()) : null);
+			}
+			if (this.lineNumbers) {
+				feature.setAttribute(index, lineNumber);
+			}
+			writer.write();
+		}
+
+		private FeatureWriter<SimpleFeatureType, SimpleFeature> createWriter(ShapeType type) throws IOException {
+
+			File file = new File(this.outputDirectory, this.baseName + "_" + type.suffix + ".shp");
+
+			// Shapefile schema: geometry of a single type, the columns of a delimited
+			// file and the source line number
+			SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
+			builder.setName(this.baseName + "_" + type.suffix);
+			builder.setCRS(this.crs);
+			builder.add(Constants.GEOMETRY_ATTRIBUTE, type.binding);
+			for (AttributeDescriptor column : this.columns) {
+				builder.add(column.getLocalName(), column.getType().getBinding());
+			}
+			if (this.lineNumbers) {
+				builder.add(LINE_ATTRIBUTE, Integer.class);
+			}
+
+			ShapefileDataStore dataStore = new ShapefileDataStore(file.toURI().toURL());
+			this.dataStores.put(type, dataStore);
+			dataStore.createSchema(builder.buildFeatureType());
+
+			FeatureWriter<SimpleFeatureType, SimpleFeature> writer = dataStore
+					.getFeatureWriterAppend(dataStore.getTypeNames()[0], Transaction.AUTO_COMMIT);
+			this.writers.put(type, writer);
+
+			return writer;
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			IOException failure = null;
+			for (FeatureWriter<SimpleFeatureType, SimpleFeature> writer : this.writers.values()) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					failure = e;
+				}
+			}
+			for (ShapefileDataStore dataStore : this.dataStores.values()) {
+				dataStore.dispose();
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+}
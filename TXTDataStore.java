@@ -0,0 +1,51 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.geotools.api.feature.type.Name;
+import org.geotools.data.store.ContentDataStore;
+import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.feature.NameImpl;
+
+/**
+ * TXTDataStore: {@link org.geotools.data.store.ContentDataStore} exposing a TXT
+ * file containing WKT geometries as a single feature type. Features are
+ * streamed from disk on every request instead of being held in memory.
+ */
+public class TXTDataStore extends ContentDataStore {
+
+	private final File sourceFile;
+
+	/**
+	 * Constructor: Constructs a {@link TXTDataStore} for the specified file.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 */
+	public TXTDataStore(File sourceFile) {
+		this.sourceFile = sourceFile;
+	}
+
+	/**
+	 * Retrieves the file served by this {@link TXTDataStore}.
+	 *
+	 * @return the file containing WKT geometries.
+	 */
+	public File getSourceFile() {
+		return this.sourceFile;
+	}
+
+	@Override
+	protected List<Name> createTypeNames() throws IOException {
+		String typeName = TXTFileParser.createFeatureType().getTypeName();
+		return Collections.singletonList(new NameImpl(getNamespaceURI(), typeName));
+	}
+
+	@Override
+	protected ContentFeatureSource createFeatureSource(ContentEntry entry) throws IOException {
+		return new TXTFeatureSource(entry);
+	}
+}
@@ -0,0 +1,89 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.data.simple.SimpleFeatureReader;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+
+/**
+ * TXTFeatureReader: {@link org.geotools.data.simple.SimpleFeatureReader} that
+ * parses features one line at a time from a TXT file containing WKT
+ * geometries. Lines that cannot be parsed are skipped. Feature ids are derived
+ * from the line number, so they are stable between reads of the same file.
+ */
+public class TXTFeatureReader implements SimpleFeatureReader {
+
+	private final SimpleFeatureType featureType;
+	private final MappedLineReader lines;
+
+	// Initiate WTKReader and SimpleFeatureBuilder for this reader only
+	private final FastWKTReader reader = new FastWKTReader();
+	private final SimpleFeatureBuilder featureBuilder;
+
+	private long lineNumber;
+	private SimpleFeature nextFeature;
+
+	/**
+	 * Constructor: Constructs a {@link TXTFeatureReader} over the specified file.
+	 *
+	 * @param sourceFile  the file containing WKT geometries.
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public TXTFeatureReader(File sourceFile, SimpleFeatureType featureType) throws IOException {
+		this.featureType = featureType;
+		this.featureBuilder = new SimpleFeatureBuilder(featureType);
+		this.lines = new MappedLineReader(sourceFile);
+	}
+
+	@Override
+	public SimpleFeatureType getFeatureType() {
+		return this.featureType;
+	}
+
+	@Override
+	public boolean hasNext() throws IOException {
+
+		// Skip invalid lines until the next feature is found
+		while (this.nextFeature == null && this.lines.next()) {
+			this.lineNumber++;
+			CharSequence line = this.lines.line();
+			if (MappedLineReader.isBlank(line)) {
+				continue;
+			}
+			try {
+				this.featureBuilder.add(this.reader.read(line));
+				String featureId = this.featureType.getTypeName() + "." + this.lineNumber;
+				this.nextFeature = this.featureBuilder.buildFeature(featureId);
+			} catch (Exception e) {
+				this.featureBuilder.reset();
+			}
+		}
+
+		return this.nextFeature != null;
+	}
+
+	@Override
+	public SimpleFeature next() throws IOException, NoSuchElementException {
+
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more features in file");
+		}
+
+		SimpleFeature feature = this.nextFeature;
+		this.nextFeature = null;
+
+		return feature;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.lines.close();
+	}
+}
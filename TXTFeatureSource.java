@@ -0,0 +1,121 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.geotools.api.data.FeatureReader;
+import org.geotools.api.data.Query;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.filter.Filter;
+import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.filter.visitor.ExtractBoundsFilterVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * TXTFeatureSource: {@link org.geotools.data.store.ContentFeatureSource} that
+ * streams features from a TXT file containing WKT geometries. Every
+ * {@link #getFeatures(Query)} call reads the file again through a
+ * {@link TXTFeatureReader}, so memory use does not depend on the file size.
+ * Bounding box queries use a {@link TXTSpatialIndex} to read only the lines
+ * that can match.
+ */
+public class TXTFeatureSource extends ContentFeatureSource {
+
+	private static final Logger LOGGER = Logging.getLogger(TXTFeatureSource.class);
+
+	// Sidecar spatial index, opened (and built if needed) on first request
+	private TXTSpatialIndex index;
+
+	/**
+	 * Constructor: Constructs a {@link TXTFeatureSource} for the specified entry.
+	 *
+	 * @param entry the {@link org.geotools.data.store.ContentEntry} of the feature
+	 *              type.
+	 */
+	public TXTFeatureSource(ContentEntry entry) {
+		super(entry, Query.ALL);
+	}
+
+	@Override
+	public TXTDataStore getDataStore() {
+		return (TXTDataStore) super.getDataStore();
+	}
+
+	@Override
+	protected SimpleFeatureType buildFeatureType() throws IOException {
+		return TXTFileParser.createFeatureType(TXTFileParser.getSourceCRS(getDataStore().getSourceFile()));
+	}
+
+	@Override
+	protected ReferencedEnvelope getBoundsInternal(Query query) throws IOException {
+
+		// Only the bounds of the whole file are known up front
+		TXTSpatialIndex spatialIndex = getIndex();
+		if (spatialIndex == null || !Filter.INCLUDE.equals(query.getFilter())) {
+			return null;
+		}
+
+		return new ReferencedEnvelope(spatialIndex.getBounds(), getSchema().getCoordinateReferenceSystem());
+	}
+
+	@Override
+	protected int getCountInternal(Query query) throws IOException {
+
+		TXTSpatialIndex spatialIndex = getIndex();
+		if (spatialIndex == null || !Filter.INCLUDE.equals(query.getFilter())) {
+			return -1;
+		}
+
+		return spatialIndex.getFeatureCount();
+	}
+
+	@Override
+	protected FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(Query query) throws IOException {
+
+		File sourceFile = getDataStore().getSourceFile();
+
+		// Read only the candidate lines for bounding box queries, the filter
+		// itself is still applied by ContentFeatureSource
+		Envelope bbox = (Envelope) query.getFilter().accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, null);
+		TXTSpatialIndex spatialIndex = getIndex();
+		if (spatialIndex != null && bbox != null && !bbox.isNull() && !Double.isInfinite(bbox.getWidth())
+				&& !Double.isInfinite(bbox.getHeight())) {
+			return new TXTIndexedFeatureReader(sourceFile, getSchema(), spatialIndex.query(bbox));
+		}
+
+		return new TXTFeatureReader(sourceFile, getSchema());
+	}
+
+	/**
+	 * Retrieves the sidecar {@link TXTSpatialIndex} of the file, reopening (and
+	 * rebuilding) it when the file changed since it was opened.
+	 *
+	 * @return the {@link TXTSpatialIndex}, or {@code null} if it cannot be built,
+	 *         for example because the directory is read-only.
+	 */
+	private synchronized TXTSpatialIndex getIndex() {
+
+		File sourceFile = getDataStore().getSourceFile();
+
+		try {
+			if (this.index != null && !this.index.isCurrent(sourceFile)) {
+				this.index.close();
+				this.index = null;
+			}
+			if (this.index == null) {
+				this.index = TXTSpatialIndex.open(sourceFile);
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Could not open spatial index of " + sourceFile, e);
+			this.index = null;
+		}
+
+		return this.index;
+	}
+}
@@ -0,0 +1,271 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.util.logging.Logging;
+
+/**
+ * TXTFileFollower: Follows a TXT file containing WKT geometries that is being
+ * appended to. A background thread waits for modifications through a
+ * {@link java.nio.file.WatchService}, polling as a fallback for file systems
+ * that don't report them, and parses only the complete lines appended since
+ * the last read offset into an {@link AppendableFeatureSource}. A partially
+ * written last line is left for the next round. If the file shrinks, it is
+ * assumed to have been truncated and is read again from the start.
+ */
+public class TXTFileFollower implements Closeable {
+
+	private static final Logger LOGGER = Logging.getLogger(TXTFileFollower.class);
+
+	private final File sourceFile;
+	private final AppendableFeatureSource featureSource;
+
+	// Initiate WTKReader and SimpleFeatureBuilder for this follower only
+	private final FastWKTReader reader = new FastWKTReader();
+	private final SimpleFeatureBuilder featureBuilder;
+	private final String typeName;
+
+	private final Thread thread;
+	private volatile boolean closed;
+	private volatile WatchService watchService;
+
+	// Only accessed by the follower thread
+	private long offset;
+	private long lineNumber;
+	private volatile long invalidCount;
+
+	/**
+	 * Constructor: Constructs a {@link TXTFileFollower} and starts following the
+	 * file from its first byte.
+	 *
+	 * @param sourceFile    the file containing WKT geometries.
+	 * @param featureSource the {@link AppendableFeatureSource} receiving the
+	 *                      features.
+	 */
+	public TXTFileFollower(File sourceFile, AppendableFeatureSource featureSource) {
+		this.sourceFile = sourceFile;
+		this.featureSource = featureSource;
+		this.featureBuilder = new SimpleFeatureBuilder(featureSource.getSchema());
+		this.typeName = featureSource.getSchema().getTypeName();
+
+		this.thread = new Thread(this::run, "follow-" + sourceFile.getName());
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Reads appended lines whenever the file changes, until closed.
+	 */
+	private void run() {
+
+		Path path = this.sourceFile.getAbsoluteFile().toPath();
+
+		try {
+			WatchService service = FileSystems.getDefault().newWatchService();
+			path.getParent().register(service, StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_CREATE);
+			setWatchService(service);
+		} catch (IOException e) {
+			LOGGER.log(Level.INFO, "Watching " + path + " is not supported, polling instead", e);
+		}
+
+		try {
+			while (!this.closed) {
+				try {
+					readAppended();
+					awaitChange();
+				} catch (InterruptedException | ClosedWatchServiceException | ClosedByInterruptException e) {
+					// Stopped by close() or by interrupting the thread => not an error
+					return;
+				} catch (IOException e) {
+					LOGGER.log(Level.WARNING, "Could not read " + this.sourceFile, e);
+					sleep();
+				}
+			}
+		} finally {
+			closeWatchService();
+		}
+	}
+
+	private synchronized void setWatchService(WatchService service) throws IOException {
+
+		// Closed before the service was created => don't leak it
+		if (this.closed) {
+			service.close();
+			return;
+		}
+		this.watchService = service;
+	}
+
+	/**
+	 * Waits for an event of the watch service, or at most one poll interval.
+	 */
+	private void awaitChange() throws InterruptedException {
+
+		WatchService service = this.watchService;
+		if (service == null) {
+			Thread.sleep(Constants.FOLLOW_POLL_INTERVAL);
+			return;
+		}
+
+		// Events of other files in the directory simply trigger an empty read
+		WatchKey key = service.poll(Constants.FOLLOW_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+		if (key != null) {
+			key.pollEvents();
+			key.reset();
+		}
+	}
+
+	private void sleep() {
+		try {
+			Thread.sleep(Constants.FOLLOW_POLL_INTERVAL);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.closed = true;
+		}
+	}
+
+	/**
+	 * Parses the complete lines between the last offset and the last newline of
+	 * the file, appending them in batches.
+	 *
+	 * @throws IOException if an error occurs during file reading.
+	 */
+	private void readAppended() throws IOException {
+
+		long size = this.sourceFile.length();
+
+		// File shrank => truncated or replaced, start over
+		if (size < this.offset) {
+			LOGGER.info(this.sourceFile + " was truncated, reading it again");
+			this.featureSource.clear();
+			this.offset = 0;
+			this.lineNumber = 0;
+			this.invalidCount = 0;
+		}
+
+		long end = lastLineEnd(size);
+		if (end <= this.offset) {
+			return;
+		}
+
+		List<SimpleFeature> batch = new ArrayList<>();
+		try (MappedLineReader lines = new MappedLineReader(this.sourceFile, this.offset, end)) {
+			while (lines.next() && !this.closed) {
+				this.lineNumber++;
+				CharSequence line = lines.line();
+				if (MappedLineReader.isBlank(line)) {
+					continue;
+				}
+
+				try {
+					this.featureBuilder.add(this.reader.read(line));
+					batch.add(this.featureBuilder.buildFeature(this.typeName + "." + this.lineNumber));
+				} catch (Exception e) {
+					this.invalidCount++;
+				}
+
+				// Large appends show up progressively
+				if (batch.size() >= Constants.FOLLOW_BATCH_SIZE) {
+					this.featureSource.append(batch);
+					batch = new ArrayList<>();
+				}
+			}
+		}
+
+		this.featureSource.append(batch);
+		this.offset = end;
+
+		if (this.invalidCount > 0) {
+			LOGGER.fine(this.sourceFile + ": " + this.invalidCount + " invalid lines so far");
+		}
+	}
+
+	/**
+	 * Finds the end of the last complete line of the file.
+	 *
+	 * @param size the current size of the file.
+	 * @return the position after the last newline at or after the current
+	 *         offset, or the current offset if no complete line was appended.
+	 * @throws IOException if an error occurs during file reading.
+	 */
+	private long lastLineEnd(long size) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(this.sourceFile.toPath(), StandardOpenOption.READ)) {
+
+			ByteBuffer buffer = ByteBuffer.allocate(Constants.READ_BUFFER_SIZE);
+			long end = size;
+
+			// Scan backwards block by block
+			while (end > this.offset) {
+				long start = Math.max(this.offset, end - buffer.capacity());
+				buffer.clear();
+				buffer.limit((int) (end - start));
+				while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+					// Fill the whole block
+				}
+				for (int i = buffer.position() - 1; i >= 0; i--) {
+					if (buffer.get(i) == '\n') {
+						return start + i + 1;
+					}
+				}
+				end = start;
+			}
+		}
+
+		return this.offset;
+	}
+
+	/**
+	 * Retrieves the number of lines that could not be parsed so far.
+	 *
+	 * @return the number of invalid lines.
+	 */
+	public long getInvalidCount() {
+		return this.invalidCount;
+	}
+
+	/**
+	 * Stops following the file. Closing the watch service wakes the follower
+	 * thread, which then stops before its next read; without a watch service it
+	 * stops within one poll interval. The thread isn't interrupted, as that
+	 * would close a file channel it may be reading from.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		this.closed = true;
+		closeWatchService();
+	}
+
+	private synchronized void closeWatchService() {
+
+		if (this.watchService != null) {
+			try {
+				this.watchService.close();
+			} catch (IOException e) {
+				LOGGER.log(Level.FINE, "Could not close watch service", e);
+			}
+			this.watchService = null;
+		}
+	}
+}
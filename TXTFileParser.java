@@ -1,177 +1,676 @@
-package org.geotools.tutorial.txtreader;
-
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-
-import javax.swing.JOptionPane;
-
-import org.apache.commons.io.FilenameUtils;
-import org.geotools.api.data.SimpleFeatureSource;
-import org.geotools.api.feature.simple.SimpleFeature;
-import org.geotools.api.feature.simple.SimpleFeatureType;
-import org.geotools.data.collection.CollectionFeatureSource;
-import org.geotools.data.collection.ListFeatureCollection;
-import org.geotools.data.simple.SimpleFeatureCollection;
-import org.geotools.feature.simple.SimpleFeatureBuilder;
-import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
-import org.geotools.referencing.crs.DefaultGeographicCRS;
-import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.io.ParseException;
-import org.locationtech.jts.io.WKTReader;
-
-/**
- * TXTFileParser: Parses TXT files containing Well-Known Text (WKT) geometries
- * and converts them into a SimpleFeatureSource for mapping.
- */
-public class TXTFileParser {
-
-	/**
-	 * Parses a TXT file containing WKT geometries and converts it into a
-	 * {@link org.geotools.api.data.SimpleFeatureSource}
-	 *
-	 * @param sourceFile the file containing WKT geometries.
-	 * @return a {@link org.geotools.api.data.SimpleFeatureSource} containing the
-	 *         geometries from the file.
-	 * @throws Exception if an error occurs during file reading or geometry parsing.
-	 */
-	public static SimpleFeatureSource getTXTFile(File sourceFile) throws Exception {
-
-		// Validate whether file is TXT => else throw exception
-		validateFile(sourceFile);
-
-		// Create Schema
-		SimpleFeatureType featureType = createFeatureType();
-
-		// Read and Parse file
-		List<SimpleFeature> features = readAndParseFile(sourceFile, featureType);
-
-		// Create a featureCollection to extract featureSource
-		SimpleFeatureCollection collection = new ListFeatureCollection(featureType, features);
-		SimpleFeatureSource featureSource = new CollectionFeatureSource(collection);
-
-		return featureSource;
-	}
-
-	/**
-	 * Validates input file.
-	 * 
-	 * @param sourceFile the file containing WKT geometries.
-	 * @throws Exception if file is not an TXT file.
-	 */
-	public static void validateFile(File sourceFile) throws Exception {
-
-		if (!FilenameUtils.getExtension(sourceFile.toString()).equals("txt")) {
-			throw new Exception("File selected is not an txt file");
-		}
-
-	}
-
-	/**
-	 * Creates the feature type schema for the geometries.
-	 *
-	 * @return a {@link org.geotools.api.feature.simple.SimpleFeatureType} that
-	 *         defines the schema for the features.
-	 */
-	private static SimpleFeatureType createFeatureType() {
-		
-		// Initiate featuretypebuilder
-		SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
-		
-		// Add name, CRS and Geometry object to builder
-		builder.setName("WKT_to_geom");
-		builder.setCRS(DefaultGeographicCRS.WGS84);
-		builder.add("the_geom", Geometry.class);
-		
-		// Build featuretype
-		SimpleFeatureType featureType = builder.buildFeatureType();
-
-		return featureType;
-	}
-
-	/**
-	 * Reads and parses TXT files containing WKT geometries.
-	 * 
-	 * @param sourceFile  the file containing WKT geometries.
-	 * @param featureType a
-	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
-	 *                    that defines the schema for the features.
-	 * @return A {@link java.util.List} containing the resulting
-	 *         {@link org.geotools.api.feature.simple.SimpleFeature} from geometry
-	 *         parsing
-	 * @throws Exception if an error occurs during file reading or geometry parsing.
-	 */
-	private static List<SimpleFeature> readAndParseFile(File sourceFile, SimpleFeatureType featureType)
-			throws Exception {
-		
-		// List to store geometry features
-		List<SimpleFeature> features = new ArrayList<>(); 
-		
-		// Initiate WTKReader and SimpleFeatureBuilder
-		WKTReader reader = new WKTReader(); 
-		SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
-
-		// Read txt file and add geometry features to list
-		try (Scanner s = new Scanner(sourceFile)) {
-			
-			 // Array for storing invalid (non-WKT) lines
-			List<String> invalidLines = new ArrayList<>();
-			
-			while (s.hasNext()) {
-				String line = s.nextLine();
-
-				// Try catch reading wkt string
-				//  => If the string cant be converted to Geometry object store the string
-				// in invalidLines array
-				try {
-					features.add(parseLine(reader, featureBuilder, line));
-				} catch (Exception e) {
-					invalidLines.add(line);
-				}
-
-			}
-
-			s.close();
-
-			if (!invalidLines.isEmpty()) {
-				JOptionPane.showMessageDialog(null, "Number of invalid lines: " + invalidLines.size(), "Error",
-						JOptionPane.ERROR_MESSAGE);
-			}
-
-		} catch (IOException e) {
-			throw new IOException("Error reading file: " + e.getMessage(), e);
-		}
-
-		return features;
-	}
-
-	/**
-	 * Parses a single WKT input line to
-	 * {@link org.geotools.api.feature.simple.SimpleFeature}.
-	 * 
-	 * @param reader         a {@link org.locationtech.jts.io.WKTReader} object.
-	 * @param featureBuilder a
-	 *                       {@link org.geotools.feature.simple.SimpleFeatureBuilder}
-	 *                       object.
-	 * @param line           input WKT String.
-	 * @return a {@link org.geotools.api.feature.simple.SimpleFeature} resulting
-	 *         from the input WKT String
-	 * @throws ParseException if input WKT String is not valid.
-	 */
-	private static SimpleFeature parseLine(WKTReader reader, SimpleFeatureBuilder featureBuilder, String line)
-			throws ParseException {
-		
-		// Parse wkt String to Geometry object
-		Geometry geometry = reader.read(line);
-		
-		// Add Geometry object to featurebuilder
-		featureBuilder.add(geometry); 
-		
-		// Build feature
-		SimpleFeature feature = featureBuilder.buildFeature(null); 
-
-		return feature;
-	}
-}
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FilenameUtils;
+import org.geotools.api.data.SimpleFeatureSource;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.api.referencing.FactoryException;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * TXTFileParser: Parses TXT files containing Well-Known Text (WKT) geometries
+ * and converts them into a SimpleFeatureSource for mapping.
+ */
+public class TXTFileParser {
+
+	private static final Logger LOGGER = Logging.getLogger(TXTFileParser.class);
+
+	/**
+	 * Parses a TXT file containing WKT geometries and converts it into a
+	 * {@link org.geotools.api.data.SimpleFeatureSource}
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return a {@link org.geotools.api.data.SimpleFeatureSource} containing the
+	 *         geometries from the file.
+	 * @throws Exception if an error occurs during file reading or geometry parsing.
+	 */
+	public static SimpleFeatureSource getTXTFile(File sourceFile) throws Exception {
+		return getTXTFile(sourceFile, ReadMode.SCANNER);
+	}
+
+	/**
+	 * Parses a TXT file containing WKT geometries and converts it into a
+	 * {@link org.geotools.api.data.SimpleFeatureSource} using the specified
+	 * {@link ReadMode}. Invalid lines are skipped and summarized in the log; use
+	 * {@link #loadTXTFile(File, ReadMode, LoadOptions)} to receive the report.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param readMode   the {@link ReadMode} used to read the file.
+	 * @return a {@link org.geotools.api.data.SimpleFeatureSource} containing the
+	 *         geometries from the file.
+	 * @throws Exception if an error occurs during file reading or geometry parsing.
+	 */
+	public static SimpleFeatureSource getTXTFile(File sourceFile, ReadMode readMode) throws Exception {
+
+		LoadResult result = loadTXTFile(sourceFile, readMode, LoadOptions.getDefault());
+
+		if (result.getErrors().getErrorCount() > 0) {
+			LOGGER.warning(sourceFile.getName() + ": " + result.getErrors().getSummary());
+		}
+
+		return result.getFeatureSource();
+	}
+
+	/**
+	 * Parses a TXT file containing WKT geometries and converts it into a
+	 * {@link org.geotools.api.data.SimpleFeatureSource} using the specified
+	 * {@link ReadMode}. Invalid lines are handled according to the
+	 * {@link InvalidLinePolicy} of the options and reported in the result rather
+	 * than shown, so the caller decides how and on which thread to present them.
+	 * Progress is reported to the {@link LoadProgress} of the options, which can
+	 * cancel the load. Compressed files are always read with
+	 * {@link ReadMode#SCANNER}, decompressed by a {@link DecompressionPipeline}.
+	 * Parsed geometries are validated according to the {@link GeometryValidation}
+	 * of the options.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param readMode   the {@link ReadMode} used to read the file.
+	 * @param options    the {@link LoadOptions} of the load.
+	 * @return a {@link LoadResult} holding the
+	 *         {@link org.geotools.api.data.SimpleFeatureSource} and the
+	 *         {@link ParseErrorReport} of the file.
+	 * @throws Exception if an error occurs during file reading or geometry
+	 *                   parsing, if {@link InvalidLinePolicy#FAIL_FAST} aborted
+	 *                   the load, or a
+	 *                   {@link java.util.concurrent.CancellationException} if the
+	 *                   load has been cancelled.
+	 */
+	public static LoadResult loadTXTFile(File sourceFile, ReadMode readMode, LoadOptions options) throws Exception {
+
+		// Validate whether file is TXT => else throw exception
+		validateFile(sourceFile);
+
+		return loadTXTFile(sourceFile, readMode, DelimitedFormat.detect(sourceFile), options);
+	}
+
+	/**
+	 * Loads a validated TXT file whose {@link DelimitedFormat} is already known,
+	 * as described in {@link #loadTXTFile(File, ReadMode, LoadOptions)}.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param readMode   the {@link ReadMode} used to read the file.
+	 * @param format     the {@link DelimitedFormat} of the file, or {@code null}
+	 *                   for plain WKT lines.
+	 * @param options    the {@link LoadOptions} of the load.
+	 * @return a {@link LoadResult} of the file.
+	 * @throws Exception if the file can't be loaded.
+	 */
+	private static LoadResult loadTXTFile(File sourceFile, ReadMode readMode, DelimitedFormat format,
+			LoadOptions options) throws Exception {
+
+		// Compressed files can't be mapped => decompress and read them sequentially
+		if (Compression.of(sourceFile) != Compression.NONE) {
+			readMode = ReadMode.SCANNER;
+		}
+
+		long start = System.nanoTime();
+
+		// Create Schema => the columns of a delimited file, else the geometry only
+		SimpleFeatureType featureType = format != null ? format.getFeatureType()
+				: createFeatureType(getSourceCRS(sourceFile));
+
+		// Decode a previously parsed copy of the file, if there is one. Rejected
+		// lines and attribute columns aren't cached => files loaded with
+		// WRITE_REJECTS and delimited files are always parsed
+		GeometryCache cache = options.getInvalidLinePolicy() != InvalidLinePolicy.WRITE_REJECTS && format == null
+				? GeometryCache.getDefault()
+				: null;
+		PhaseTimer timer = new PhaseTimer().start();
+		GeometryCache.Entry cached = cache != null ? cache.read(sourceFile, featureType) : null;
+		timer.lap(LoadPhase.CACHE_READ);
+
+		// Read and Parse file
+		List<SimpleFeature> features;
+		ParseErrorReport errors = null;
+		boolean loaded = false;
+		try {
+			if (cached != null) {
+				features = cached.getFeatures();
+				errors = cached.getErrors();
+				checkInvalidCount(sourceFile, errors, options);
+				options.getProgress().bytesRead(sourceFile.length());
+			} else if (readMode == ReadMode.SCANNER) {
+				errors = options.createReport();
+				features = readAndParseFile(sourceFile, featureType, format, errors, options, timer);
+			} else {
+				ParallelTXTFileParser.ChunkResult result = ParallelTXTFileParser.readAndParseFile(sourceFile,
+						featureType, format, readMode == ReadMode.PARALLEL, options);
+				features = result.getFeatures();
+				errors = result.getErrors();
+				timer.merge(result.getTimer());
+			}
+
+			// Cancelled after the last check => don't build or cache anything
+			options.checkCancelled();
+
+			// Parsing is done => release the spare capacity of the packed arrays
+			if (features instanceof CompactFeatureList) {
+				((CompactFeatureList) features).trimToSize();
+			}
+
+			// Store freshly parsed features for the next time the file is opened
+			if (cached == null && cache != null) {
+				cache.write(sourceFile, features, errors);
+			}
+
+			// Collect the rejected lines of all ranges next to the source file
+			if (options.getInvalidLinePolicy() == InvalidLinePolicy.WRITE_REJECTS) {
+				errors.writeRejects(options.getRejectsFile(sourceFile));
+			}
+			loaded = true;
+
+		} finally {
+
+			// Failed or cancelled => don't leave temporary rejects files behind
+			if (!loaded && errors != null) {
+				errors.discardRejects();
+			}
+		}
+
+		// Validate after caching => the cache keeps the geometries as parsed
+		ValidationReport validation = new ValidationReport();
+		timer.start();
+		features = GeometryValidator.validate(features, options.getGeometryValidation(), validation);
+		timer.lap(LoadPhase.GEOMETRY_VALIDATE);
+		if (validation.getInvalidCount() > 0) {
+			LOGGER.info(sourceFile.getName() + ": " + validation);
+		}
+
+		// Create a spatially indexed featureSource
+		timer.start();
+		SimpleFeatureSource featureSource = new IndexedFeatureSource(featureType, features);
+		timer.lap(LoadPhase.COLLECTION_CREATE);
+
+		LoadStatistics statistics = new LoadStatistics(sourceFile, readMode, features.size(),
+				(int) errors.getErrorCount(), System.nanoTime() - start, timer);
+		LoadMetrics.getInstance().recordLoad(statistics);
+
+		return new LoadResult(sourceFile, featureSource, errors, validation, statistics);
+	}
+
+	/**
+	 * Opens a TXT file containing WKT geometries the way its size calls for:
+	 * parsed sequentially through a {@link MappedLineReader}, in parallel from
+	 * {@value Constants#PARALLEL_FILE_SIZE} bytes, or streamed from disk from
+	 * {@value Constants#STREAMING_FILE_SIZE} bytes. Streaming reads plain,
+	 * uncompressed WKT lines only, so delimited and compressed files are always
+	 * loaded.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param options    the {@link LoadOptions} of the load.
+	 * @return a {@link LoadResult}; streamed files have an empty
+	 *         {@link ParseErrorReport} and no {@link LoadStatistics}.
+	 * @throws Exception if an error occurs during file reading or geometry
+	 *                   parsing.
+	 */
+	public static LoadResult openTXTFile(File sourceFile, LoadOptions options) throws Exception {
+
+		// Validate whether file is TXT => else throw exception
+		validateFile(sourceFile);
+
+		// Detect the layout once => the load reuses it
+		DelimitedFormat format = DelimitedFormat.detect(sourceFile);
+		if (sourceFile.length() >= Constants.STREAMING_FILE_SIZE && Compression.of(sourceFile) == Compression.NONE
+				&& format == null) {
+			return new LoadResult(sourceFile, getStreamingTXTFile(sourceFile), new ParseErrorReport(false), null);
+		}
+
+		ReadMode readMode = sourceFile.length() >= Constants.PARALLEL_FILE_SIZE ? ReadMode.PARALLEL
+				: ReadMode.MAPPED;
+
+		return loadTXTFile(sourceFile, readMode, format, options);
+	}
+
+	/**
+	 * Applies {@link InvalidLinePolicy#FAIL_FAST} to the counts of a cached file,
+	 * so a file is rejected no matter whether it was cached.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param errors     the {@link ParseErrorReport} of the file.
+	 * @param options    the {@link LoadOptions} of the load.
+	 * @throws IOException if the file has too many invalid lines.
+	 */
+	private static void checkInvalidCount(File sourceFile, ParseErrorReport errors, LoadOptions options)
+			throws IOException {
+
+		// Blank lines never count towards the limit
+		long invalidCount = errors.getErrorCount() - errors.getCount(ParseErrorType.BLANK);
+		if (options.isExceeded(invalidCount)) {
+			throw new IOException(tooManyInvalidLines(sourceFile, options));
+		}
+	}
+
+	/**
+	 * Describes a load aborted by {@link InvalidLinePolicy#FAIL_FAST}.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param options    the {@link LoadOptions} of the load.
+	 * @return the error message.
+	 */
+	static String tooManyInvalidLines(File sourceFile, LoadOptions options) {
+		return "Too many invalid lines in " + sourceFile.getName() + ", more than " + options.getMaxInvalidLines();
+	}
+
+	/**
+	 * Opens a TXT file containing WKT geometries as a streaming
+	 * {@link org.geotools.api.data.SimpleFeatureSource}. Features are parsed from
+	 * disk on every request instead of being loaded into memory up front; invalid
+	 * lines are skipped silently.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return a {@link org.geotools.api.data.SimpleFeatureSource} backed by a
+	 *         {@link TXTDataStore}.
+	 * @throws Exception if the file is not an uncompressed TXT file or cannot be
+	 *                   opened.
+	 */
+	public static SimpleFeatureSource getStreamingTXTFile(File sourceFile) throws Exception {
+
+		// Validate whether file is TXT => else throw exception
+		validateFile(sourceFile);
+		validateUncompressed(sourceFile);
+
+		// Create datastore and retrieve its only feature type
+		TXTDataStore dataStore = new TXTDataStore(sourceFile);
+		SimpleFeatureSource featureSource = dataStore.getFeatureSource(dataStore.getTypeNames()[0]);
+
+		return featureSource;
+	}
+
+	/**
+	 * Opens a TXT file containing WKT geometries that is still being appended to.
+	 * The returned source starts empty and a {@link TXTFileFollower} appends the
+	 * features of the file to it in the background, including every complete
+	 * line appended later. Closing the source stops following the file.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return an {@link AppendableFeatureSource} fed by the file.
+	 * @throws Exception if the file is not an uncompressed TXT file.
+	 */
+	public static AppendableFeatureSource getFollowingTXTFile(File sourceFile) throws Exception {
+
+		// Validate whether file is TXT => else throw exception
+		validateFile(sourceFile);
+		validateUncompressed(sourceFile);
+
+		AppendableFeatureSource featureSource = new AppendableFeatureSource(
+				createFeatureType(getSourceCRS(sourceFile)));
+		featureSource.attach(new TXTFileFollower(sourceFile, featureSource));
+
+		return featureSource;
+	}
+
+	/**
+	 * Validates input file. A compression extension, e.g. {@code .gz}, is
+	 * ignored.
+	 * 
+	 * @param sourceFile the file containing WKT geometries.
+	 * @throws Exception if file is not a TXT, CSV or TSV file.
+	 */
+	public static void validateFile(File sourceFile) throws Exception {
+
+		if (!isInputFile(sourceFile)) {
+			throw new Exception("File selected is not a txt, csv or tsv file");
+		}
+
+	}
+
+	/**
+	 * Checks whether a file has one of the
+	 * {@link Constants#INPUT_EXTENSIONS}, optionally followed by a compression
+	 * extension.
+	 *
+	 * @param sourceFile the file to be checked.
+	 * @return {@code true} for TXT, CSV and TSV files.
+	 */
+	static boolean isInputFile(File sourceFile) {
+
+		String extension = FilenameUtils.getExtension(Compression.stripExtension(sourceFile));
+		return Arrays.asList(Constants.INPUT_EXTENSIONS).contains(extension);
+	}
+
+	/**
+	 * Validates that an input file can be read at random positions.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @throws Exception if file is compressed.
+	 */
+	private static void validateUncompressed(File sourceFile) throws Exception {
+
+		if (Compression.of(sourceFile) != Compression.NONE) {
+			throw new Exception("Compressed files can't be streamed or followed");
+		}
+
+	}
+
+	/**
+	 * Retrieves the extensions of all readable files, uncompressed and
+	 * compressed, e.g. {@code txt} and {@code txt.gz}.
+	 *
+	 * @return the file extensions without leading dot.
+	 */
+	public static String[] getInputExtensions() {
+
+		List<String> extensions = new ArrayList<>();
+		for (Compression compression : Compression.values()) {
+			for (String extension : Constants.INPUT_EXTENSIONS) {
+				extensions.add(compression == Compression.NONE ? extension
+						: extension + "." + compression.getExtension());
+			}
+		}
+
+		return extensions.toArray(new String[0]);
+	}
+
+	/**
+	 * Reads the CRS of a TXT file from the {@code .prj} file next to it, e.g.
+	 * {@code tiles.prj} for {@code tiles.txt} or {@code tiles.txt.gz}, holding
+	 * either the WKT of the CRS, as written for shapefiles, or a code such as
+	 * {@code EPSG:3857}. Codes are read with longitude or easting first, the
+	 * order of WKT coordinates. Files without a {@code .prj} file are WGS84.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return the
+	 *         {@link org.geotools.api.referencing.crs.CoordinateReferenceSystem}
+	 *         of the geometries.
+	 * @throws IOException if the {@code .prj} file can't be read or parsed.
+	 */
+	public static CoordinateReferenceSystem getSourceCRS(File sourceFile) throws IOException {
+
+		File prjFile = new File(FilenameUtils.removeExtension(Compression.stripExtension(sourceFile)) + ".prj");
+		if (!prjFile.isFile()) {
+			return DefaultGeographicCRS.WGS84;
+		}
+
+		String definition = new String(Files.readAllBytes(prjFile.toPath()), StandardCharsets.UTF_8).trim();
+		try {
+			return definition.contains("[") ? CRS.parseWKT(definition) : CRS.decode(definition, true);
+		} catch (FactoryException e) {
+			throw new IOException("Invalid CRS in " + prjFile.getName() + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates the feature type schema for WGS84 geometries.
+	 *
+	 * @return a {@link org.geotools.api.feature.simple.SimpleFeatureType} that
+	 *         defines the schema for the features.
+	 */
+	public static SimpleFeatureType createFeatureType() {
+		return createFeatureType(DefaultGeographicCRS.WGS84);
+	}
+
+	/**
+	 * Creates the feature type schema for the geometries.
+	 *
+	 * @param crs the
+	 *            {@link org.geotools.api.referencing.crs.CoordinateReferenceSystem}
+	 *            of the geometries.
+	 * @return a {@link org.geotools.api.feature.simple.SimpleFeatureType} that
+	 *         defines the schema for the features.
+	 */
+	static SimpleFeatureType createFeatureType(CoordinateReferenceSystem crs) {
+		
+		// Initiate featuretypebuilder
+		SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
+		
+		// Add name, CRS and Geometry object to builder
+		builder.setName("WKT_to_geom");
+		builder.setCRS(crs);
+		builder.add(Constants.GEOMETRY_ATTRIBUTE, Geometry.class);
+		
+		// Build featuretype
+		SimpleFeatureType featureType = builder.buildFeatureType();
+
+		return featureType;
+	}
+
+	/**
+	 * Creates the list receiving the parsed features: a
+	 * {@link CompactFeatureList} unless the
+	 * {@value Constants#COMPACT_FEATURES_PROPERTY} system property is
+	 * {@code false}.
+	 *
+	 * @param featureType the schema created by
+	 *                    {@link #createFeatureType(CoordinateReferenceSystem)}.
+	 * @return an empty {@link java.util.List} for
+	 *         {@link org.geotools.api.feature.simple.SimpleFeature}s.
+	 */
+	static List<SimpleFeature> createFeatureList(SimpleFeatureType featureType) {
+		return createFeatureList(featureType, null);
+	}
+
+	/**
+	 * Creates the list receiving the parsed features of a file with the given
+	 * layout.
+	 *
+	 * @param featureType the schema of the features.
+	 * @param format      the {@link DelimitedFormat} of the file, or
+	 *                    {@code null} for plain WKT lines.
+	 * @return an empty {@link java.util.List} for
+	 *         {@link org.geotools.api.feature.simple.SimpleFeature}s.
+	 */
+	static List<SimpleFeature> createFeatureList(SimpleFeatureType featureType, DelimitedFormat format) {
+
+		if (Boolean.parseBoolean(System.getProperty(Constants.COMPACT_FEATURES_PROPERTY, "true"))) {
+			return format != null ? new CompactFeatureList(format) : new CompactFeatureList(featureType);
+		}
+
+		return new ArrayList<>();
+	}
+
+	/**
+	 * Reads and parses TXT files containing WKT geometries.
+	 * 
+	 * @param sourceFile  the file containing WKT geometries.
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 * @param format      the {@link DelimitedFormat} of the file, or
+	 *                    {@code null} for plain WKT lines.
+	 * @param errors      the {@link ParseErrorReport} receiving the lines that
+	 *                    could not be parsed.
+	 * @param options     the {@link LoadOptions} of the load.
+	 * @param timer       the {@link PhaseTimer} receiving the read, parse and
+	 *                    build times.
+	 * @return A {@link java.util.List} containing the resulting
+	 *         {@link org.geotools.api.feature.simple.SimpleFeature} from geometry
+	 *         parsing
+	 * @throws Exception if an error occurs during file reading or geometry parsing.
+	 */
+	private static List<SimpleFeature> readAndParseFile(File sourceFile, SimpleFeatureType featureType,
+			DelimitedFormat format, ParseErrorReport errors, LoadOptions options, PhaseTimer timer)
+			throws Exception {
+		
+		// List to store geometry features
+		List<SimpleFeature> features = createFeatureList(featureType, format);
+		
+		// Initiate WTKReader and SimpleFeatureBuilder
+		FastWKTReader reader = new FastWKTReader();
+		SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
+
+		// Compressed files are decompressed on another thread while being read
+		Compression compression = Compression.of(sourceFile);
+		DecompressionPipeline pipeline = compression != Compression.NONE
+				? new DecompressionPipeline(sourceFile, compression)
+				: null;
+
+		// Read txt file and add geometry features to list
+		try (Scanner s = pipeline != null ? new Scanner(pipeline, Constants.INPUT_CHARSET)
+				: new Scanner(sourceFile, Constants.INPUT_CHARSET)) {
+			
+			long lineNumber = 0;
+			long invalidCount = 0;
+
+			// The Scanner hides byte positions => count characters plus newline;
+			// compressed files report the compressed bytes consumed instead
+			LoadProgress progress = options.getProgress();
+			long consumed = 0;
+			boolean preview = true;
+
+			// The first non-blank line of a delimited file with header names the columns
+			boolean headerPending = format != null && format.hasHeader();
+
+			while (true) {
+				timer.startLine();
+				if (!s.hasNext()) {
+					break;
+				}
+				String line = s.nextLine();
+				lineNumber++;
+				timer.lap(LoadPhase.FILE_READ);
+
+				// Report progress and check for cancellation every few bytes
+				consumed += line.length() + 1;
+				if (consumed >= Constants.PROGRESS_INTERVAL) {
+					progress.bytesRead(pipeline != null ? pipeline.takeCompressedBytes() : consumed);
+					consumed = 0;
+					options.checkCancelled();
+				}
+
+				// Hand out the start of the file while the rest is parsed
+				if (preview && features.size() == Constants.PREVIEW_FEATURE_COUNT) {
+					progress.preview(new ArrayList<>(features));
+					preview = false;
+				}
+
+				// Scanner.hasNext() skips trailing blank lines => these are followed by content
+				if (MappedLineReader.isBlank(line)) {
+					errors.addBlankLines(1);
+					continue;
+				}
+
+				if (headerPending) {
+					headerPending = false;
+					continue;
+				}
+
+				// Try catch reading wkt string
+				//  => If the string cant be converted to Geometry object record it in
+				// the error report; the Scanner knows no byte offsets
+				try {
+					features.add(parseLine(reader, featureBuilder, format, line, timer));
+				} catch (Exception e) {
+					timer.lap(LoadPhase.WKT_PARSE);
+					errors.addError(e, lineNumber, -1, line);
+					if (options.isExceeded(++invalidCount)) {
+						throw new IOException(tooManyInvalidLines(sourceFile, options));
+					}
+				}
+
+			}
+
+			s.close();
+			progress.bytesRead(pipeline != null ? pipeline.takeCompressedBytes() : consumed);
+
+		} catch (IOException e) {
+			throw new IOException("Error reading file: " + e.getMessage(), e);
+		} finally {
+			errors.closeRejects();
+		}
+
+		return features;
+	}
+
+	/**
+	 * Parses a single WKT input line to
+	 * {@link org.geotools.api.feature.simple.SimpleFeature}.
+	 * 
+	 * @param reader         a {@link FastWKTReader} object.
+	 * @param featureBuilder a
+	 *                       {@link org.geotools.feature.simple.SimpleFeatureBuilder}
+	 *                       object.
+	 * @param line           input WKT line.
+	 * @return a {@link org.geotools.api.feature.simple.SimpleFeature} resulting
+	 *         from the input WKT String
+	 * @throws ParseException if input WKT String is not valid.
+	 */
+	public static SimpleFeature parseLine(FastWKTReader reader, SimpleFeatureBuilder featureBuilder,
+			CharSequence line) throws ParseException {
+		
+		// Parse wkt String to Geometry object
+		Geometry geometry = reader.read(line);
+		
+		// Add Geometry object to featurebuilder
+		featureBuilder.add(geometry); 
+		
+		// Build feature
+		SimpleFeature feature = featureBuilder.buildFeature(null); 
+
+		return feature;
+	}
+
+	/**
+	 * Parses a single WKT input line to
+	 * {@link org.geotools.api.feature.simple.SimpleFeature}, adding the parse and
+	 * build times to a {@link PhaseTimer}. If parsing fails, the caller is
+	 * expected to lap the parse time itself.
+	 * 
+	 * @param reader         a {@link FastWKTReader} object.
+	 * @param featureBuilder a
+	 *                       {@link org.geotools.feature.simple.SimpleFeatureBuilder}
+	 *                       object.
+	 * @param line           input WKT line.
+	 * @param timer          the running {@link PhaseTimer}.
+	 * @return a {@link org.geotools.api.feature.simple.SimpleFeature} resulting
+	 *         from the input WKT String
+	 * @throws ParseException if input WKT String is not valid.
+	 */
+	static SimpleFeature parseLine(FastWKTReader reader, SimpleFeatureBuilder featureBuilder, CharSequence line,
+			PhaseTimer timer) throws ParseException {
+		
+		// Parse wkt String to Geometry object
+		Geometry geometry = reader.read(line);
+		timer.lap(LoadPhase.WKT_PARSE);
+		
+		// Add Geometry object to featurebuilder and build feature
+		featureBuilder.add(geometry); 
+		SimpleFeature feature = featureBuilder.buildFeature(null); 
+		timer.lap(LoadPhase.FEATURE_BUILD);
+
+		return feature;
+	}
+
+	/**
+	 * Parses a single input line to
+	 * {@link org.geotools.api.feature.simple.SimpleFeature}: a plain WKT line, or
+	 * a delimited line if a {@link DelimitedFormat} is given.
+	 * 
+	 * @param reader         a {@link FastWKTReader} object.
+	 * @param featureBuilder a
+	 *                       {@link org.geotools.feature.simple.SimpleFeatureBuilder}
+	 *                       object, used for plain WKT lines.
+	 * @param format         the {@link DelimitedFormat} of the file, or
+	 *                       {@code null}.
+	 * @param line           input line.
+	 * @param timer          the running {@link PhaseTimer}.
+	 * @return a {@link org.geotools.api.feature.simple.SimpleFeature} resulting
+	 *         from the input line
+	 * @throws ParseException if the input line is not valid.
+	 */
+	static SimpleFeature parseLine(FastWKTReader reader, SimpleFeatureBuilder featureBuilder, DelimitedFormat format,
+			CharSequence line, PhaseTimer timer) throws ParseException {
+
+		if (format != null) {
+			return format.parseLine(reader, line, timer);
+		}
+
+		return parseLine(reader, featureBuilder, line, timer);
+	}
+}
\ No newline at end of file
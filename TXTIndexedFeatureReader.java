@@ -0,0 +1,122 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.data.simple.SimpleFeatureReader;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+
+/**
+ * TXTIndexedFeatureReader: {@link org.geotools.data.simple.SimpleFeatureReader}
+ * that only reads and parses the lines of a TXT file found by a
+ * {@link TXTSpatialIndex} query. Feature ids match those of
+ * {@link TXTFeatureReader}.
+ */
+public class TXTIndexedFeatureReader implements SimpleFeatureReader {
+
+	private final SimpleFeatureType featureType;
+	private final FileChannel channel;
+	private final TXTSpatialIndex.Hits hits;
+
+	// Initiate WTKReader and SimpleFeatureBuilder for this reader only
+	private final FastWKTReader reader = new FastWKTReader();
+	private final SimpleFeatureBuilder featureBuilder;
+
+	// Reused buffer and view for the line being parsed
+	private ByteBuffer buffer = ByteBuffer.allocate(Constants.READ_BUFFER_SIZE);
+	private final MappedLineReader.LineView line = new MappedLineReader.LineView();
+
+	private int hit;
+	private SimpleFeature nextFeature;
+
+	/**
+	 * Constructor: Constructs a {@link TXTIndexedFeatureReader} over the lines
+	 * found by an index query.
+	 *
+	 * @param sourceFile  the file containing WKT geometries.
+	 * @param featureType a
+	 *                    {@link org.geotools.api.feature.simple.SimpleFeatureType}
+	 *                    that defines the schema for the features.
+	 * @param hits        the {@link TXTSpatialIndex.Hits} to read.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public TXTIndexedFeatureReader(File sourceFile, SimpleFeatureType featureType, TXTSpatialIndex.Hits hits)
+			throws IOException {
+		this.featureType = featureType;
+		this.featureBuilder = new SimpleFeatureBuilder(featureType);
+		this.hits = hits;
+		this.channel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+	}
+
+	@Override
+	public SimpleFeatureType getFeatureType() {
+		return this.featureType;
+	}
+
+	@Override
+	public boolean hasNext() throws IOException {
+
+		while (this.nextFeature == null && this.hit < this.hits.size()) {
+			int current = this.hit++;
+			readLine(this.hits.getOffset(current), this.hits.getLength(current));
+			try {
+				this.featureBuilder.add(this.reader.read(this.line));
+				String featureId = this.featureType.getTypeName() + "." + this.hits.getLineNumber(current);
+				this.nextFeature = this.featureBuilder.buildFeature(featureId);
+			} catch (Exception e) {
+				// The file changed since the index was built => skip the line
+				this.featureBuilder.reset();
+			}
+		}
+
+		return this.nextFeature != null;
+	}
+
+	@Override
+	public SimpleFeature next() throws IOException, NoSuchElementException {
+
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more features in file");
+		}
+
+		SimpleFeature feature = this.nextFeature;
+		this.nextFeature = null;
+
+		return feature;
+	}
+
+	/**
+	 * Reads a single line into the reused buffer and points the line view at it.
+	 *
+	 * @param offset the position of the first byte of the line.
+	 * @param length the length of the line in bytes.
+	 * @throws IOException if an error occurs during file reading.
+	 */
+	private void readLine(long offset, int length) throws IOException {
+
+		if (this.buffer.capacity() < length) {
+			this.buffer = ByteBuffer.allocate(length);
+		}
+
+		this.buffer.clear();
+		this.buffer.limit(length);
+		while (this.buffer.hasRemaining()) {
+			if (this.channel.read(this.buffer, offset + this.buffer.position()) < 0) {
+				break;
+			}
+		}
+
+		this.line.reset(this.buffer, 0, this.buffer.position());
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -1,211 +1,617 @@
-package org.geotools.tutorial.txtreader;
-
-import java.awt.event.ActionEvent;
-import java.io.File;
-
-import javax.swing.Action;
-import javax.swing.JButton;
-import javax.swing.JDialog;
-import javax.swing.JOptionPane;
-import javax.swing.JPanel;
-import javax.swing.JToolBar;
-import javax.swing.SwingWorker;
-
-import org.geotools.api.data.SimpleFeatureSource;
-import org.geotools.api.style.Style;
-import org.geotools.map.MapContent;
-import org.geotools.swing.JMapFrame;
-import org.geotools.swing.action.SafeAction;
-import org.geotools.swing.data.JFileDataStoreChooser;
-
-/**
- * Main Class: Generates and handles UI inputs.
- */
-public class TXTReader {
-
-	private static MapManager mapManager = new MapManager(new MapContent());
-	private static JMapFrame mapFrame = new JMapFrame(mapManager.getMap());
-
-	/**
-	 * Initiates UI.
-	 * 
-	 * @param args Default args (not used).
-	 */
-	public static void main(String[] args) {
-
-		// Initiate tool- and statusbar
-		mapFrame.enableToolBar(true);
-		mapFrame.enableStatusBar(true);
-
-		// Add toolbar to map
-		JToolBar toolbar = mapFrame.getToolBar();
-		toolbar.addSeparator();
-
-		// Add "add layer" and "remove layer" actions
-		toolbar.add(new JButton(new AddLayerAction()));
-		toolbar.add(new JButton(new ShowRemoveLayerAction()));
-
-		// Display the map frame. When it is closed the application will exit
-		mapFrame.setSize(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
-		mapFrame.setVisible(true);
-
-	}
-
-	/**
-	 * AddLayerAction class: Nested class inside of {@link TXTReader}. Handles the
-	 * "add layer" button action.
-	 */
-	private static class AddLayerAction extends SafeAction {
-
-		private static final long serialVersionUID = 1L;
-
-		/**
-		 * Constructor: provides name and description to button.
-		 */
-		public AddLayerAction() {
-			super("Add Layer");
-			putValue(Action.SHORT_DESCRIPTION, "Add Layer");
-		}
-
-		/**
-		 * Creates a {@link javax.swing.SwingWorker} to perform the
-		 * {@link TXTReader#addLayer()} method. Displays an error message if the action
-		 * fails.
-		 *
-		 * @param e the event triggering this action.
-		 */
-		@Override
-		public void action(ActionEvent e) {
-
-			// Use SwingWorker to make addLayer() work in a background thread
-			SwingWorker<Object, Object> worker = new SwingWorker<>() {
-
-				@Override
-				protected Object doInBackground() throws Exception {
-
-					// call the AddLayer method
-					addLayer();
-
-					return null;
-				}
-
-				@Override
-				protected void done() {
-					try {
-						get(); // Check if layer was added successfully => if not throw error message
-					} catch (Exception e) {
-						JOptionPane.showMessageDialog(null, "Failed to add layer: " + e.getMessage(), "Error",
-								JOptionPane.ERROR_MESSAGE);
-					}
-				}
-			};
-
-			worker.execute(); // Start swingworker
-
-		}
-	}
-
-	/**
-	 * Adds a new layer to the map by parsing a selected TXT file. Uses
-	 * {@link TXTFileParser#getTXTFile(File)} for parsing selected file and
-	 * {@link Styles#chooseStyle(javax.swing.JFrame)} for obtaining a selected style
-	 *
-	 * @throws Exception if the file selection, validation or parsing fails.
-	 */
-	private static void addLayer() throws Exception {
-
-		// Open file selector
-		File sourceFile = JFileDataStoreChooser.showOpenFile("txt", null);
-
-		if (sourceFile != null) { // Check if a file is selected
-
-			// Get featuresource and style
-			SimpleFeatureSource featureSource = TXTFileParser.getTXTFile(sourceFile);
-			Style style = Styles.chooseStyle(mapFrame);
-
-			// Add new layer
-			mapManager.addLayer(featureSource, style);
-		}
-	}
-
-	/**
-	 * ShowRemoveLayerAction class: Nested class inside of {@link TXTReader}.
-	 * Handles the "Remove Layer menu" button action.
-	 */
-	private static class ShowRemoveLayerAction extends SafeAction {
-
-		private static final long serialVersionUID = 1L;
-
-		/**
-		 * Constructor: provides name and description to button
-		 */
-		public ShowRemoveLayerAction() {
-			super("Remove Layer");
-			putValue(Action.SHORT_DESCRIPTION, "Remove Layer");
-		}
-
-		/**
-		 * Displays the remove layer menu by calling the
-		 * {@link TXTReader#showRemoveLayerMenu()} method.
-		 *
-		 * @param e the event triggering this action.
-		 * @throws Exception if an error occurs while showing the menu.
-		 */
-		@Override
-		public void action(ActionEvent e) throws Exception {
-			showRemoveLayerMenu();
-		}
-	}
-
-	/**
-	 * Displays a dialog allowing the user to remove layers from the map.
-	 *
-	 * @throws Exception if an error occurs while setting up the dialog or removing
-	 *                   layers.
-	 */
-	private static void showRemoveLayerMenu() throws Exception {
-
-		if (mapManager.getLayerCount() != 0) { // Check if there are layers present
-
-			// Initiate dialog and panel
-			JDialog dialog = DialogHelper.createDialog(mapFrame, "Remove Layer");
-			JPanel panel = DialogHelper.createPanel(mapManager.getLayerCount(), Constants.REMOVEMENU_COL_COUNT);
-
-			// Create local inner class for the "remove layer" action
-			class RemoveLayerAction extends SafeAction {
-
-				private static final long serialVersionUID = 1L;
-				private int id;
-
-				public RemoveLayerAction(int id) {
-					super("Remove Layer " + id);
-					this.id = id;
-					putValue(Action.SHORT_DESCRIPTION, "Remove Layer " + id);
-				}
-
-				@Override
-				public void action(ActionEvent e) throws Exception {
-					mapManager.removeLayer(id);
-					dialog.dispose();
-					showRemoveLayerMenu(); // Recall function to generate updated list of layers
-				}
-			}
-			
-			// Generate remove layer buttons
-			for (int i = 0; i < mapManager.getLayerCount(); i++) {
-				JButton button = new JButton(new RemoveLayerAction(i));
-				panel.add(button);
-			}
-
-			// Finish dialog setup
-			DialogHelper.setupDialog(dialog, panel, mapFrame);
-
-		} else {
-			
-			// Show message if there are no layers present
-			JOptionPane.showMessageDialog(null, "There are no layers to remove", "Remove Layer",
-					JOptionPane.INFORMATION_MESSAGE);
-		}
-	}
-
-}
+package org.geotools.tutorial.txtreader;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.Action;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JToolBar;
+import javax.swing.SwingWorker;
+
+import org.geotools.api.data.SimpleFeatureSource;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.api.style.Style;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.swing.JMapFrame;
+import org.geotools.swing.action.SafeAction;
+import org.geotools.swing.data.JFileDataStoreChooser;
+import org.geotools.swing.dialog.JCRSChooser;
+
+/**
+ * Main Class: Generates and handles UI inputs.
+ */
+public class TXTReader {
+
+	private static MapManager mapManager = new MapManager(new MapContent());
+	private static JMapFrame mapFrame = new JMapFrame(mapManager.getMap());
+
+	/**
+	 * Initiates UI. The {@link RenderMode} of the map pane can be selected with
+	 * the {@value Constants#RENDER_MODE_PROPERTY} system property and defaults to
+	 * {@link RenderMode#STREAMING}.
+	 * 
+	 * @param args Default args (not used).
+	 */
+	public static void main(String[] args) {
+
+		// Initiate tool- and statusbar
+		mapFrame.enableToolBar(true);
+		mapFrame.enableStatusBar(true);
+
+		// Add toolbar to map
+		JToolBar toolbar = mapFrame.getToolBar();
+		toolbar.addSeparator();
+
+		// Add "add layer" and "remove layer" actions
+		toolbar.add(new JButton(new AddLayerAction(false)));
+		toolbar.add(new JButton(new AddLayerAction(true)));
+		toolbar.add(new JButton(new BulkAddLayerAction()));
+		toolbar.add(new JButton(new ShowRemoveLayerAction()));
+		toolbar.add(new JButton(new DisplayCRSAction()));
+		toolbar.add(new JButton(new IdentifyAction()));
+
+		// Replace the default renderer according to the selected render mode
+		RenderMode renderMode = RenderMode
+				.valueOf(System.getProperty(Constants.RENDER_MODE_PROPERTY, RenderMode.STREAMING.name()));
+		if (renderMode == RenderMode.TILED) {
+			mapFrame.getMapPane().setRenderer(new TileCachingRenderer());
+		} else if (renderMode == RenderMode.LAYERED) {
+			mapFrame.getMapPane().setRenderer(new LayerCompositingRenderer());
+		}
+
+		// Display the map frame. When it is closed the application will exit
+		mapFrame.setSize(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
+		mapFrame.setVisible(true);
+
+	}
+
+	/**
+	 * AddLayerAction class: Nested class inside of {@link TXTReader}. Handles the
+	 * "add layer" button action.
+	 */
+	private static class AddLayerAction extends SafeAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final boolean follow;
+
+		/**
+		 * Constructor: provides name and description to button.
+		 *
+		 * @param follow whether the layer keeps following a file that is being
+		 *               appended to.
+		 */
+		public AddLayerAction(boolean follow) {
+			super(follow ? "Follow Layer" : "Add Layer");
+			putValue(Action.SHORT_DESCRIPTION, follow ? "Add Layer following a growing file" : "Add Layer");
+			this.follow = follow;
+		}
+
+		/**
+		 * Lets the user select a TXT file and a style, then creates a
+		 * {@link javax.swing.SwingWorker} to perform the
+		 * {@link TXTReader#addLayer(File, Style, boolean, LoadProgress)} method.
+		 * While the file is parsed, a progress dialog shows the share of bytes
+		 * consumed and can cancel the load, and the first features are shown as a
+		 * preview layer. Displays an error message if the action fails, or a
+		 * summary of the invalid lines once the layer has been added.
+		 *
+		 * @param e the event triggering this action.
+		 */
+		@Override
+		public void action(ActionEvent e) {
+
+			// Open file selector
+			File sourceFile = JFileDataStoreChooser.showOpenFile(TXTFileParser.getInputExtensions(), null);
+			if (sourceFile == null) {
+				return;
+			}
+
+			// Style is chosen up front => the preview can use it
+			Style style = Styles.chooseStyle(mapFrame);
+			if (style == null) {
+				return;
+			}
+
+			AtomicBoolean cancelled = new AtomicBoolean();
+			JProgressBar progressBar = new JProgressBar(0, 100);
+			JDialog dialog = DialogHelper.createProgressDialog(mapFrame, "Add Layer " + sourceFile.getName(),
+					progressBar, () -> cancelled.set(true));
+
+			// Use SwingWorker to make addLayer() work in a background thread
+			SwingWorker<LoadResult, Object> worker = new SwingWorker<>() {
+
+				// Guarded by the worker => no preview is added after done()
+				private Layer previewLayer;
+				private boolean finished;
+
+				@Override
+				protected LoadResult doInBackground() throws Exception {
+
+					// Report to the progress bar and the preview layer
+					LoadProgress progress = new LoadProgress() {
+
+						private final AtomicLong bytes = new AtomicLong();
+
+						@Override
+						public void bytesRead(long count) {
+							long total = Math.max(1, sourceFile.length());
+							setProgress((int) Math.min(100, this.bytes.addAndGet(count) * 100 / total));
+						}
+
+						@Override
+						public boolean isCancelled() {
+							return cancelled.get();
+						}
+
+						@Override
+						public void preview(List<SimpleFeature> features) {
+							showPreview(features);
+						}
+					};
+
+					// call the AddLayer method
+					return addLayer(sourceFile, style, AddLayerAction.this.follow, progress);
+				}
+
+				private synchronized void showPreview(List<SimpleFeature> features) {
+					if (!this.finished) {
+						this.previewLayer = mapManager.addPreviewLayer(features, style, sourceFile.getName());
+					}
+				}
+
+				private synchronized void removePreview() {
+					this.finished = true;
+					if (this.previewLayer != null) {
+						mapManager.removeLayer(this.previewLayer);
+					}
+				}
+
+				@Override
+				protected void done() {
+					dialog.dispose();
+					removePreview();
+
+					// Partially built features are unreachable once the load threw
+					if (cancelled.get()) {
+						return;
+					}
+
+					try {
+						// Check if layer was added successfully => if not throw error message
+						LoadResult result = get();
+
+						// Report invalid lines on the EDT, after the layer is on the map
+						if (result != null && result.getErrors().getErrorCount() > 0) {
+							JOptionPane.showMessageDialog(null, result.getErrors().getSummary(), "Invalid lines",
+									JOptionPane.WARNING_MESSAGE);
+						}
+						if (result != null && result.getValidation().getInvalidCount() > 0) {
+							JOptionPane.showMessageDialog(null, result.getValidation().getSummary(),
+									"Invalid geometries", JOptionPane.WARNING_MESSAGE);
+						}
+					} catch (Exception e) {
+						JOptionPane.showMessageDialog(null, "Failed to add layer: " + e.getMessage(), "Error",
+								JOptionPane.ERROR_MESSAGE);
+					}
+				}
+			};
+
+			// Progress changes arrive on the EDT
+			worker.addPropertyChangeListener(event -> {
+				if ("progress".equals(event.getPropertyName())) {
+					progressBar.setValue((Integer) event.getNewValue());
+				}
+			});
+
+			worker.execute(); // Start swingworker
+
+			// A followed file is opened at once and keeps loading as the layer
+			if (!this.follow) {
+				dialog.setVisible(true);
+			}
+		}
+	}
+
+	/**
+	 * Adds a new layer to the map by parsing a TXT file. Uses
+	 * {@link TXTFileParser#openTXTFile(File, LoadOptions)} for parsing the file,
+	 * in parallel for large files or streaming for files too large to keep in
+	 * memory, or {@link TXTFileParser#getFollowingTXTFile(File)} for files that
+	 * are being appended to.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param style      the {@link org.geotools.api.style.Style} of the new
+	 *                   layer.
+	 * @param follow     whether the layer keeps following the file.
+	 * @param progress   the {@link LoadProgress} of the load.
+	 * @return the {@link LoadResult} of the file, or {@code null} if the
+	 *         file isn't parsed up front.
+	 * @throws Exception if the file validation or parsing fails, or if the load
+	 *                   has been cancelled.
+	 */
+	private static LoadResult addLayer(File sourceFile, Style style, boolean follow, LoadProgress progress)
+			throws Exception {
+
+		// Get featuresource
+		SimpleFeatureSource featureSource;
+		LoadResult result = null;
+		if (follow) {
+			featureSource = TXTFileParser.getFollowingTXTFile(sourceFile);
+		} else {
+			result = TXTFileParser.openTXTFile(sourceFile, LoadOptions.getDefault().withProgress(progress));
+			featureSource = result.getFeatureSource();
+		}
+
+		// Add new layer
+		mapManager.addLayer(featureSource, style, sourceFile.getName());
+
+		return result;
+	}
+
+	/**
+	 * BulkAddLayerAction class: Nested class inside of {@link TXTReader}. Handles
+	 * the "add layers" button action, adding a layer per TXT file of the selected
+	 * files, folders or glob.
+	 */
+	private static class BulkAddLayerAction extends SafeAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor: provides name and description to button.
+		 */
+		public BulkAddLayerAction() {
+			super("Add Layers");
+			putValue(Action.SHORT_DESCRIPTION, "Add Layers from files, a folder or a pattern like *.txt");
+		}
+
+		/**
+		 * Lets the user select files, folders or type a glob and a style, then
+		 * loads the files through {@link TXTReader#addLayers(List, Style)}.
+		 *
+		 * @param e the event triggering this action.
+		 * @throws Exception if a folder can't be listed.
+		 */
+		@Override
+		public void action(ActionEvent e) throws Exception {
+
+			// Open file selector accepting several files and folders
+			JFileChooser chooser = new JFileChooser();
+			chooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+			chooser.setMultiSelectionEnabled(true);
+			if (chooser.showOpenDialog(mapFrame) != JFileChooser.APPROVE_OPTION) {
+				return;
+			}
+
+			// A typed glob only shows up as the single selected file
+			List<File> selection = new ArrayList<>(Arrays.asList(chooser.getSelectedFiles()));
+			if (selection.isEmpty() && chooser.getSelectedFile() != null) {
+				selection.add(chooser.getSelectedFile());
+			}
+
+			List<File> sourceFiles = new ArrayList<>();
+			for (File file : selection) {
+				sourceFiles.addAll(BulkLoader.listFiles(file));
+			}
+
+			if (sourceFiles.isEmpty()) {
+				JOptionPane.showMessageDialog(null, "No TXT files selected", "Add Layers",
+						JOptionPane.INFORMATION_MESSAGE);
+				return;
+			}
+
+			// Same style for all layers; closing the style dialog cancels
+			Style style = Styles.chooseStyle(mapFrame);
+			if (style != null) {
+				addLayers(sourceFiles, style);
+			}
+		}
+	}
+
+	/**
+	 * Loads TXT files concurrently through a {@link BulkLoader} in a
+	 * {@link javax.swing.SwingWorker}, showing the number of loaded files in a
+	 * progress dialog that can cancel the load. The layers are added in a single
+	 * batch once all files are loaded, followed by a summary of failed files and
+	 * invalid lines, if any.
+	 *
+	 * @param sourceFiles the TXT files to be loaded.
+	 * @param style       the {@link org.geotools.api.style.Style} of the new
+	 *                    layers.
+	 */
+	private static void addLayers(List<File> sourceFiles, Style style) {
+
+		BulkLoader loader = BulkLoader.createDefault();
+		List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+		JProgressBar progressBar = new JProgressBar(0, sourceFiles.size());
+		progressBar.setString("0 / " + sourceFiles.size() + " files");
+
+		// Cancelling makes the loader return at once => the worker finishes
+		JDialog dialog = DialogHelper.createProgressDialog(mapFrame, "Add Layers", progressBar, loader::cancel);
+
+		// Use SwingWorker to load the files in a background thread
+		SwingWorker<List<LoadResult>, Integer> worker = new SwingWorker<>() {
+
+			@Override
+			protected List<LoadResult> doInBackground() throws Exception {
+				List<LoadResult> results = loader.loadAll(sourceFiles, (sourceFile, error, completed, total) -> {
+					if (error != null) {
+						failures.add(sourceFile.getName() + ": " + error.getMessage());
+					}
+					publish(completed);
+				});
+
+				// Reproject here => adding the layers on the EDT finds them cached
+				List<SimpleFeatureSource> featureSources = new ArrayList<>();
+				for (LoadResult result : results) {
+					featureSources.add(result.getFeatureSource());
+				}
+				mapManager.prepareLayers(featureSources);
+
+				return results;
+			}
+
+			@Override
+			protected void process(List<Integer> chunks) {
+				int completed = chunks.get(chunks.size() - 1);
+				progressBar.setValue(completed);
+				progressBar.setString(completed + " / " + sourceFiles.size() + " files");
+			}
+
+			@Override
+			protected void done() {
+				dialog.dispose();
+				if (loader.isCancelled()) {
+					return; // Loaded features are dropped together with the worker
+				}
+
+				try {
+					List<LoadResult> results = get();
+
+					// Add all layers at once => a single repaint
+					List<SimpleFeatureSource> featureSources = new ArrayList<>();
+					List<String> titles = new ArrayList<>();
+					long invalidCount = 0;
+					List<String> invalidGeometries = new ArrayList<>();
+					for (LoadResult result : results) {
+						featureSources.add(result.getFeatureSource());
+						titles.add(result.getSourceFile().getName());
+						invalidCount += result.getErrors().getErrorCount();
+						if (result.getValidation().getInvalidCount() > 0) {
+							invalidGeometries.add(result.getSourceFile().getName() + ": " + result.getValidation());
+						}
+					}
+					mapManager.addLayers(featureSources, style, titles);
+
+					showBulkSummary(results.size(), failures, invalidCount, invalidGeometries);
+				} catch (Exception e) {
+					JOptionPane.showMessageDialog(null, "Failed to add layers: " + e.getMessage(), "Error",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		};
+
+		worker.execute(); // Start swingworker
+		dialog.setVisible(true);
+	}
+
+	/**
+	 * Displays the files that failed to load and the number of invalid lines of
+	 * a bulk load, if there are any.
+	 *
+	 * @param loadedCount  the number of loaded files.
+	 * @param failures     a description per file that failed to load.
+	 * @param invalidCount the number of invalid lines of all loaded files.
+	 * @param invalidGeometries the {@link ValidationReport} per file with
+	 *                          invalid geometries.
+	 */
+	private static void showBulkSummary(int loadedCount, List<String> failures, long invalidCount,
+			List<String> invalidGeometries) {
+
+		if (failures.isEmpty() && invalidCount == 0 && invalidGeometries.isEmpty()) {
+			return;
+		}
+
+		StringBuilder message = new StringBuilder("Added " + loadedCount + " layers");
+		message.append("\nNumber of invalid lines: ").append(invalidCount);
+		appendSamples(message, "Invalid geometries in " + invalidGeometries.size() + " files:", invalidGeometries);
+		appendSamples(message, "Failed to load " + failures.size() + " files:", failures);
+
+		JOptionPane.showMessageDialog(null, message.toString(), "Add Layers", JOptionPane.WARNING_MESSAGE);
+	}
+
+	/**
+	 * Appends a heading and the first {@value Constants#ERROR_SAMPLE_LIMIT}
+	 * entries of a list to a message, if the list isn't empty.
+	 */
+	private static void appendSamples(StringBuilder message, String heading, List<String> entries) {
+
+		if (entries.isEmpty()) {
+			return;
+		}
+
+		message.append("\n").append(heading);
+		for (String entry : entries.subList(0, Math.min(entries.size(), Constants.ERROR_SAMPLE_LIMIT))) {
+			message.append("\n    ").append(entry);
+		}
+		if (entries.size() > Constants.ERROR_SAMPLE_LIMIT) {
+			message.append("\n    ...");
+		}
+	}
+
+	/**
+	 * DisplayCRSAction class: Nested class inside of {@link TXTReader}. Handles
+	 * the "display CRS" button action.
+	 */
+	private static class DisplayCRSAction extends SafeAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor: provides name and description to button.
+		 */
+		public DisplayCRSAction() {
+			super("Display CRS");
+			putValue(Action.SHORT_DESCRIPTION, "Reproject all layers into another CRS");
+		}
+
+		/**
+		 * Lets the user select a CRS, then reprojects the layers through
+		 * {@link MapManager#setDisplayCRS(CoordinateReferenceSystem)} in a
+		 * {@link javax.swing.SwingWorker}.
+		 *
+		 * @param e the event triggering this action.
+		 */
+		@Override
+		public void action(ActionEvent e) {
+
+			CoordinateReferenceSystem crs = JCRSChooser.showDialog("Display CRS");
+			if (crs == null) {
+				return;
+			}
+
+			new SwingWorker<Void, Void>() {
+
+				@Override
+				protected Void doInBackground() throws Exception {
+					mapManager.setDisplayCRS(crs);
+					return null;
+				}
+
+				@Override
+				protected void done() {
+					try {
+						get();
+					} catch (Exception e) {
+						JOptionPane.showMessageDialog(null, "Failed to reproject layers: " + e.getMessage(), "Error",
+								JOptionPane.ERROR_MESSAGE);
+					}
+				}
+			}.execute();
+		}
+	}
+
+	/**
+	 * IdentifyAction class: Nested class inside of {@link TXTReader}. Handles the
+	 * "identify" button action.
+	 */
+	private static class IdentifyAction extends SafeAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor: provides name and description to button.
+		 */
+		public IdentifyAction() {
+			super("Identify");
+			putValue(Action.SHORT_DESCRIPTION, "Click the map to list the features at that position");
+		}
+
+		/**
+		 * Switches the map pane to an {@link IdentifyTool}.
+		 *
+		 * @param e the event triggering this action.
+		 */
+		@Override
+		public void action(ActionEvent e) {
+			mapFrame.getMapPane().setCursorTool(new IdentifyTool(mapManager));
+		}
+	}
+
+	/**
+	 * ShowRemoveLayerAction class: Nested class inside of {@link TXTReader}.
+	 * Handles the "Remove Layer menu" button action.
+	 */
+	private static class ShowRemoveLayerAction extends SafeAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor: provides name and description to button
+		 */
+		public ShowRemoveLayerAction() {
+			super("Remove Layer");
+			putValue(Action.SHORT_DESCRIPTION, "Remove Layer");
+		}
+
+		/**
+		 * Displays the remove layer menu by calling the
+		 * {@link TXTReader#showRemoveLayerMenu()} method.
+		 *
+		 * @param e the event triggering this action.
+		 * @throws Exception if an error occurs while showing the menu.
+		 */
+		@Override
+		public void action(ActionEvent e) throws Exception {
+			showRemoveLayerMenu();
+		}
+	}
+
+	/**
+	 * Displays a dialog allowing the user to remove layers from the map.
+	 *
+	 * @throws Exception if an error occurs while setting up the dialog or removing
+	 *                   layers.
+	 */
+	private static void showRemoveLayerMenu() throws Exception {
+
+		List<Layer> layers = mapManager.getLayers();
+		if (!layers.isEmpty()) { // Check if there are layers present
+
+			// Initiate dialog and panel
+			JDialog dialog = DialogHelper.createDialog(mapFrame, "Remove Layer");
+			JPanel panel = DialogHelper.createPanel(layers.size(), Constants.REMOVEMENU_COL_COUNT);
+
+			// Create local inner class for the "remove layer" action
+			class RemoveLayerAction extends SafeAction {
+
+				private static final long serialVersionUID = 1L;
+				private long id;
+
+				public RemoveLayerAction(long id, String title) {
+					super(title != null ? "Remove " + title : "Remove Layer " + id);
+					this.id = id;
+					putValue(Action.SHORT_DESCRIPTION, "Remove Layer " + id);
+				}
+
+				@Override
+				public void action(ActionEvent e) throws Exception {
+					mapManager.removeLayer(id);
+					dialog.dispose();
+					showRemoveLayerMenu(); // Recall function to generate updated list of layers
+				}
+			}
+			
+			// Generate remove layer buttons, identified by the stable layer ids
+			for (Layer layer : layers) {
+				JButton button = new JButton(new RemoveLayerAction(mapManager.getLayerId(layer), layer.getTitle()));
+				panel.add(button);
+			}
+
+			// Finish dialog setup
+			DialogHelper.setupDialog(dialog, panel, mapFrame);
+
+		} else {
+			
+			// Show message if there are no layers present
+			JOptionPane.showMessageDialog(null, "There are no layers to remove", "Remove Layer",
+					JOptionPane.INFORMATION_MESSAGE);
+		}
+	}
+
+}
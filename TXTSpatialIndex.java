@@ -0,0 +1,632 @@
+package org.geotools.tutorial.txtreader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * TXTSpatialIndex: Sidecar index for a TXT file containing WKT geometries. The
+ * index file stores the byte offset, length, line number and envelope of every
+ * valid line, sorted along a Hilbert curve, followed by a packed R-tree over the
+ * envelopes. Bounding box queries only have to read and parse the lines whose
+ * envelopes intersect the box.
+ *
+ * Envelopes are stored as floats rounded outwards, so they may be slightly
+ * larger than the geometries; query results are candidates that still have to
+ * be filtered against the exact geometries.
+ */
+public class TXTSpatialIndex implements Closeable {
+
+	public static final String EXTENSION = ".idx";
+
+	private static final int MAGIC = 0x54585449; // "TXTI"
+	private static final int VERSION = 1;
+
+	private static final int NODE_SIZE = 16;
+
+	// magic, version, source size, source mtime, feature count, entry count, level count
+	private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+	// offset (long), length (int), line number (int), envelope (4 floats)
+	private static final int ENTRY_BYTES = 8 + 4 + 4 + 4 * 4;
+
+	private final FileChannel channel;
+	private final long sourceSize;
+	private final long sourceModified;
+	private final int featureCount;
+	private final int entryCount;
+	private final long entriesStart;
+
+	// Node envelopes per tree level, from the leaves to the root
+	private final float[][] levels;
+
+	/**
+	 * Constructor: Constructs a {@link TXTSpatialIndex} by reading the header and
+	 * tree nodes of an index file.
+	 *
+	 * @param indexFile the index file.
+	 * @throws IOException if the index file cannot be read.
+	 */
+	private TXTSpatialIndex(File indexFile) throws IOException {
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(indexFile), Constants.READ_BUFFER_SIZE))) {
+
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Not a TXT index file: " + indexFile);
+			}
+
+			this.sourceSize = in.readLong();
+			this.sourceModified = in.readLong();
+			this.featureCount = in.readInt();
+			this.entryCount = in.readInt();
+
+			// Read level sizes, then skip the entries to read the node envelopes
+			int levelCount = in.readInt();
+			int[] nodeCounts = new int[levelCount];
+			for (int i = 0; i < levelCount; i++) {
+				nodeCounts[i] = in.readInt();
+			}
+			this.entriesStart = HEADER_BYTES + 4L * levelCount;
+
+			long remaining = (long) this.entryCount * ENTRY_BYTES;
+			while (remaining > 0) {
+				long skipped = in.skip(remaining);
+				if (skipped <= 0) {
+					throw new IOException("Unexpected end of index file: " + indexFile);
+				}
+				remaining -= skipped;
+			}
+
+			this.levels = new float[levelCount][];
+			for (int i = 0; i < levelCount; i++) {
+				this.levels[i] = new float[nodeCounts[i] * 4];
+				for (int j = 0; j < this.levels[i].length; j++) {
+					this.levels[i][j] = in.readFloat();
+				}
+			}
+		}
+
+		this.channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ);
+	}
+
+	/**
+	 * Opens the sidecar index of a TXT file, building it first if it does not
+	 * exist or if the size or modification time of the TXT file changed since
+	 * it was built.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return the {@link TXTSpatialIndex} of the file.
+	 * @throws IOException if the index cannot be read or written.
+	 */
+	public static TXTSpatialIndex open(File sourceFile) throws IOException {
+
+		File indexFile = getIndexFile(sourceFile);
+
+		if (indexFile.exists()) {
+			TXTSpatialIndex index = new TXTSpatialIndex(indexFile);
+			if (index.isCurrent(sourceFile)) {
+				return index;
+			}
+			index.close();
+		}
+
+		build(sourceFile, indexFile);
+
+		return new TXTSpatialIndex(indexFile);
+	}
+
+	/**
+	 * Retrieves the location of the sidecar index of a TXT file.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return the index file next to the TXT file.
+	 */
+	public static File getIndexFile(File sourceFile) {
+		return new File(sourceFile.getPath() + EXTENSION);
+	}
+
+	/**
+	 * Checks whether this index still matches a TXT file.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @return {@code true} if size and modification time are unchanged.
+	 */
+	public boolean isCurrent(File sourceFile) {
+		return sourceFile.length() == this.sourceSize && sourceFile.lastModified() == this.sourceModified;
+	}
+
+	/**
+	 * Retrieves the number of valid features in the TXT file, including those
+	 * with empty geometries which are not part of the tree.
+	 *
+	 * @return the number of features.
+	 */
+	public int getFeatureCount() {
+		return this.featureCount;
+	}
+
+	/**
+	 * Retrieves the envelope of all indexed geometries.
+	 *
+	 * @return the {@link org.locationtech.jts.geom.Envelope} of the root node,
+	 *         or a null envelope if nothing was indexed.
+	 */
+	public Envelope getBounds() {
+
+		if (this.entryCount == 0) {
+			return new Envelope();
+		}
+
+		float[] root = this.levels[this.levels.length - 1];
+		return new Envelope(root[0], root[2], root[1], root[3]);
+	}
+
+	/**
+	 * Finds the lines whose envelopes intersect a bounding box.
+	 *
+	 * @param bbox the {@link org.locationtech.jts.geom.Envelope} to search.
+	 * @return the matching {@link Hits}, sorted by their position in the file.
+	 * @throws IOException if the index file cannot be read.
+	 */
+	public Hits query(Envelope bbox) throws IOException {
+
+		Hits hits = new Hits();
+		if (this.entryCount == 0) {
+			return hits;
+		}
+
+		ByteBuffer leaf = ByteBuffer.allocate(NODE_SIZE * ENTRY_BYTES);
+
+		// Depth-first traversal, stack holds (level, node) pairs
+		int[] stack = new int[2 * NODE_SIZE * this.levels.length + 2];
+		int top = 0;
+		stack[top++] = this.levels.length - 1;
+		stack[top++] = 0;
+
+		while (top > 0) {
+			int node = stack[--top];
+			int level = stack[--top];
+
+			if (!intersects(this.levels[level], node, bbox)) {
+				continue;
+			}
+
+			int firstChild = node * NODE_SIZE;
+
+			if (level == 0) {
+				readLeaf(leaf, firstChild, bbox, hits);
+				continue;
+			}
+
+			int lastChild = Math.min(firstChild + NODE_SIZE, this.levels[level - 1].length / 4);
+			for (int child = firstChild; child < lastChild; child++) {
+				stack[top++] = level - 1;
+				stack[top++] = child;
+			}
+		}
+
+		hits.sort();
+
+		return hits;
+	}
+
+	/**
+	 * Reads the entries below a leaf node and adds those intersecting the
+	 * bounding box to the hits.
+	 */
+	private void readLeaf(ByteBuffer leaf, int firstEntry, Envelope bbox, Hits hits) throws IOException {
+
+		int count = Math.min(NODE_SIZE, this.entryCount - firstEntry);
+
+		leaf.clear();
+		leaf.limit(count * ENTRY_BYTES);
+		long position = this.entriesStart + (long) firstEntry * ENTRY_BYTES;
+		while (leaf.hasRemaining()) {
+			if (this.channel.read(leaf, position + leaf.position()) < 0) {
+				throw new IOException("Unexpected end of index file");
+			}
+		}
+		leaf.flip();
+
+		for (int i = 0; i < count; i++) {
+			long offset = leaf.getLong();
+			int length = leaf.getInt();
+			int lineNumber = leaf.getInt();
+			float minX = leaf.getFloat();
+			float minY = leaf.getFloat();
+			float maxX = leaf.getFloat();
+			float maxY = leaf.getFloat();
+
+			if (minX <= bbox.getMaxX() && maxX >= bbox.getMinX() && minY <= bbox.getMaxY()
+					&& maxY >= bbox.getMinY()) {
+				hits.add(offset, length, lineNumber);
+			}
+		}
+	}
+
+	private static boolean intersects(float[] boxes, int node, Envelope bbox) {
+		int i = node * 4;
+		return boxes[i] <= bbox.getMaxX() && boxes[i + 2] >= bbox.getMinX() && boxes[i + 1] <= bbox.getMaxY()
+				&& boxes[i + 3] >= bbox.getMinY();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	/**
+	 * Builds the sidecar index of a TXT file in a single pass over the file. The
+	 * index is written to a temporary file first and then moved into place.
+	 *
+	 * @param sourceFile the file containing WKT geometries.
+	 * @param indexFile  the index file to write.
+	 * @throws IOException if the TXT file cannot be read or the index cannot be
+	 *                     written.
+	 */
+	private static void build(File sourceFile, File indexFile) throws IOException {
+
+		// Remember size and modification time before reading
+		long sourceSize = sourceFile.length();
+		long sourceModified = sourceFile.lastModified();
+
+		// Collect offsets, lengths, line numbers and envelopes of all valid lines
+		Entries entries = new Entries();
+		int featureCount = 0;
+		FastWKTReader reader = new FastWKTReader();
+
+		try (MappedLineReader lines = new MappedLineReader(sourceFile)) {
+
+			int lineNumber = 0;
+			while (lines.next()) {
+				lineNumber++;
+				CharSequence line = lines.line();
+				if (MappedLineReader.isBlank(line)) {
+					continue;
+				}
+
+				Geometry geometry;
+				try {
+					geometry = reader.read(line);
+				} catch (Exception e) {
+					continue;
+				}
+
+				featureCount++;
+
+				// Empty geometries never intersect a bounding box
+				if (!geometry.isEmpty()) {
+					entries.add(lines.lineOffset(), line.length(), lineNumber, geometry.getEnvelopeInternal());
+				}
+			}
+		}
+
+		// Sort entries along a Hilbert curve so that nearby lines share nodes
+		int[] order = entries.hilbertOrder();
+
+		// Compute node envelopes level by level
+		List<float[]> levels = new ArrayList<>();
+		float[] children = entries.boxesInOrder(order);
+		do {
+			children = packLevel(children);
+			levels.add(children);
+		} while (children.length > 4);
+
+		File tempFile = new File(indexFile.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tempFile), Constants.READ_BUFFER_SIZE))) {
+
+			// Header
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(sourceSize);
+			out.writeLong(sourceModified);
+			out.writeInt(featureCount);
+			out.writeInt(entries.size);
+			out.writeInt(levels.size());
+			for (float[] level : levels) {
+				out.writeInt(level.length / 4);
+			}
+
+			// Entries in Hilbert order
+			for (int i : order) {
+				out.writeLong(entries.offsets[i]);
+				out.writeInt(entries.lengths[i]);
+				out.writeInt(entries.lineNumbers[i]);
+				for (int j = 0; j < 4; j++) {
+					out.writeFloat(entries.boxes[i * 4 + j]);
+				}
+			}
+
+			// Tree levels from the leaves to the root
+			for (float[] level : levels) {
+				for (float value : level) {
+					out.writeFloat(value);
+				}
+			}
+		}
+
+		Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Computes the envelopes of the parent nodes of a level.
+	 *
+	 * @param children the envelopes of the child nodes (or entries).
+	 * @return the envelopes of the parent nodes.
+	 */
+	private static float[] packLevel(float[] children) {
+
+		int childCount = children.length / 4;
+		int nodeCount = Math.max(1, (childCount + NODE_SIZE - 1) / NODE_SIZE);
+		float[] nodes = new float[nodeCount * 4];
+
+		for (int node = 0; node < nodeCount; node++) {
+			float minX = Float.POSITIVE_INFINITY;
+			float minY = Float.POSITIVE_INFINITY;
+			float maxX = Float.NEGATIVE_INFINITY;
+			float maxY = Float.NEGATIVE_INFINITY;
+
+			int last = Math.min((node + 1) * NODE_SIZE, childCount);
+			for (int child = node * NODE_SIZE; child < last; child++) {
+				minX = Math.min(minX, children[child * 4]);
+				minY = Math.min(minY, children[child * 4 + 1]);
+				maxX = Math.max(maxX, children[child * 4 + 2]);
+				maxY = Math.max(maxY, children[child * 4 + 3]);
+			}
+
+			nodes[node * 4] = minX;
+			nodes[node * 4 + 1] = minY;
+			nodes[node * 4 + 2] = maxX;
+			nodes[node * 4 + 3] = maxY;
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Hits class: Nested class inside of {@link TXTSpatialIndex}. Holds the
+	 * positions of the lines found by a query.
+	 */
+	public static class Hits {
+
+		private long[] offsets = new long[64];
+		private int[] lengths = new int[64];
+		private int[] lineNumbers = new int[64];
+		private int size;
+
+		private void add(long offset, int length, int lineNumber) {
+			if (this.size == this.offsets.length) {
+				this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+				this.lengths = Arrays.copyOf(this.lengths, this.size * 2);
+				this.lineNumbers = Arrays.copyOf(this.lineNumbers, this.size * 2);
+			}
+			this.offsets[this.size] = offset;
+			this.lengths[this.size] = length;
+			this.lineNumbers[this.size] = lineNumber;
+			this.size++;
+		}
+
+		/**
+		 * Sorts the hits by position so the file is read front to back.
+		 */
+		private void sort() {
+
+			long[] positions = this.offsets;
+			int[] order = IntStream.range(0, this.size).boxed()
+					.sorted((a, b) -> Long.compare(positions[a], positions[b])).mapToInt(Integer::intValue).toArray();
+
+			long[] sortedOffsets = new long[this.size];
+			int[] sortedLengths = new int[this.size];
+			int[] sortedLineNumbers = new int[this.size];
+			for (int i = 0; i < this.size; i++) {
+				sortedOffsets[i] = this.offsets[order[i]];
+				sortedLengths[i] = this.lengths[order[i]];
+				sortedLineNumbers[i] = this.lineNumbers[order[i]];
+			}
+
+			this.offsets = sortedOffsets;
+			this.lengths = sortedLengths;
+			this.lineNumbers = sortedLineNumbers;
+		}
+
+		/**
+		 * Retrieves the number of hits.
+		 *
+		 * @return the number of lines found.
+		 */
+		public int size() {
+			return this.size;
+		}
+
+		/**
+		 * Retrieves the byte offset of a hit in the TXT file.
+		 *
+		 * @param i the index of the hit.
+		 * @return the position of the first byte of the line.
+		 */
+		public long getOffset(int i) {
+			return this.offsets[i];
+		}
+
+		/**
+		 * Retrieves the length of a hit in bytes, without line terminator.
+		 *
+		 * @param i the index of the hit.
+		 * @return the length of the line.
+		 */
+		public int getLength(int i) {
+			return this.lengths[i];
+		}
+
+		/**
+		 * Retrieves the (1-based) line number of a hit.
+		 *
+		 * @param i the index of the hit.
+		 * @return the line number in the TXT file.
+		 */
+		public int getLineNumber(int i) {
+			return this.lineNumbers[i];
+		}
+	}
+
+	/**
+	 * Entries class: Nested class inside of {@link TXTSpatialIndex}. Growable
+	 * primitive columns collecting the index entries during a build.
+	 */
+	private static class Entries {
+
+		private long[] offsets = new long[1024];
+		private int[] lengths = new int[1024];
+		private int[] lineNumbers = new int[1024];
+		private float[] boxes = new float[1024 * 4];
+		private int size;
+
+		// Extent of all entries, used to scale Hilbert coordinates
+		private final Envelope extent = new Envelope();
+
+		private void add(long offset, int length, int lineNumber, Envelope envelope) {
+
+			if (this.size == this.offsets.length) {
+				int capacity = this.size * 2;
+				this.offsets = Arrays.copyOf(this.offsets, capacity);
+				this.lengths = Arrays.copyOf(this.lengths, capacity);
+				this.lineNumbers = Arrays.copyOf(this.lineNumbers, capacity);
+				this.boxes = Arrays.copyOf(this.boxes, capacity * 4);
+			}
+
+			this.offsets[this.size] = offset;
+			this.lengths[this.size] = length;
+			this.lineNumbers[this.size] = lineNumber;
+
+			// Round outwards so the float box always contains the geometry
+			this.boxes[this.size * 4] = Math.nextDown((float) envelope.getMinX());
+			this.boxes[this.size * 4 + 1] = Math.nextDown((float) envelope.getMinY());
+			this.boxes[this.size * 4 + 2] = Math.nextUp((float) envelope.getMaxX());
+			this.boxes[this.size * 4 + 3] = Math.nextUp((float) envelope.getMaxY());
+
+			this.extent.expandToInclude(envelope);
+			this.size++;
+		}
+
+		/**
+		 * Sorts the entries by the Hilbert value of their envelope centers.
+		 *
+		 * @return the entry indexes in Hilbert order.
+		 */
+		private int[] hilbertOrder() {
+
+			double width = this.extent.getWidth() > 0 ? this.extent.getWidth() : 1;
+			double height = this.extent.getHeight() > 0 ? this.extent.getHeight() : 1;
+
+			// Pack (31-bit Hilbert value, entry index) into sortable longs
+			long[] keys = new long[this.size];
+			for (int i = 0; i < this.size; i++) {
+				double centerX = (this.boxes[i * 4] + this.boxes[i * 4 + 2]) / 2.0;
+				double centerY = (this.boxes[i * 4 + 1] + this.boxes[i * 4 + 3]) / 2.0;
+				int x = (int) Math.max(0, Math.min(0xFFFF, 0xFFFF * (centerX - this.extent.getMinX()) / width));
+				int y = (int) Math.max(0, Math.min(0xFFFF, 0xFFFF * (centerY - this.extent.getMinY()) / height));
+				keys[i] = ((hilbert(x, y) & 0xFFFFFFFFL) >>> 1) << 32 | i;
+			}
+			Arrays.parallelSort(keys);
+
+			int[] order = new int[this.size];
+			for (int i = 0; i < this.size; i++) {
+				order[i] = (int) keys[i];
+			}
+
+			return order;
+		}
+
+		private float[] boxesInOrder(int[] order) {
+			float[] sorted = new float[order.length * 4];
+			for (int i = 0; i < order.length; i++) {
+				System.arraycopy(this.boxes, order[i] * 4, sorted, i * 4, 4);
+			}
+			return sorted;
+		}
+
+		/**
+		 * Computes the position of a point on a 16-bit Hilbert curve.
+		 *
+		 * @param x the x coordinate, between 0 and 0xFFFF.
+		 * @param y the y coordinate, between 0 and 0xFFFF.
+		 * @return the (unsigned) 32-bit Hilbert value.
+		 */
+		private static int hilbert(int x, int y) {
+
+			int a = x ^ y;
+			int b = 0xFFFF ^ a;
+			int c = 0xFFFF ^ (x | y);
+			int d = x & (y ^ 0xFFFF);
+
+			int aa = a | (b >> 1);
+			int bb = (a >> 1) ^ a;
+			int cc = ((c >> 1) ^ (b & (d >> 1))) ^ c;
+			int dd = ((a & (c >> 1)) ^ (d >> 1)) ^ d;
+
+			a = aa;
+			b = bb;
+			c = cc;
+			d = dd;
+			aa = (a & (a >> 2)) ^ (b & (b >> 2));
+			bb = (a & (b >> 2)) ^ (b & ((a ^ b) >> 2));
+			cc ^= (a & (c >> 2)) ^ (b & (d >> 2));
+			dd ^= (b & (c >> 2)) ^ ((a ^ b) & (d >> 2));
+
+			a = aa;
+			b = bb;
+			c = cc;
+			d = dd;
+			aa = (a & (a >> 4)) ^ (b & (b >> 4));
+			bb = (a & (b >> 4)) ^ (b & ((a ^ b) >> 4));
+			cc ^= (a & (c >> 4)) ^ (b & (d >> 4));
+			dd ^= (b & (c >> 4)) ^ ((a ^ b) & (d >> 4));
+
+			a = aa;
+			b = bb;
+			c = cc;
+			d = dd;
+			cc ^= (a & (c >> 8)) ^ (b & (d >> 8));
+			dd ^= (b & (c >> 8)) ^ ((a ^ b) & (d >> 8));
+
+			a = cc ^ (cc >> 1);
+			b = dd ^ (dd >> 1);
+
+			int i0 = x ^ y;
+			int i1 = b | (0xFFFF ^ (i0 | a));
+
+			i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+			i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+			i0 = (i0 | (i0 << 2)) & 0x33333333;
+			i0 = (i0 | (i0 << 1)) & 0x55555555;
+
+			i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+			i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+			i1 = (i1 | (i1 << 2)) & 0x33333333;
+			i1 = (i1 | (i1 << 1)) & 0x55555555;
+
+			return (i1 << 1) | i0;
+		}
+	}
+}
@@ -0,0 +1,558 @@
+package org.geotools.tutorial.txtreader;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.map.MapLayerEvent;
+import org.geotools.map.event.MapLayerListEvent;
+import org.geotools.map.event.MapLayerListListener;
+import org.geotools.renderer.GTRenderer;
+import org.geotools.renderer.RenderListener;
+import org.geotools.renderer.lite.StreamingRenderer;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * TileCachingRenderer: {@link org.geotools.renderer.GTRenderer} that renders the
+ * map into fixed-size image tiles aligned to a global pixel grid. Tiles are
+ * keyed by (scale, column, row, layer-set version), rendered concurrently by a
+ * worker pool and kept in an LRU cache bounded by memory, so panning mostly
+ * draws cached tiles. Adding or removing a layer only invalidates the tiles
+ * covering the bounds of that layer, and features appended to an
+ * {@link AppendableFeatureSource} only invalidate the tiles they cover.
+ */
+public class TileCachingRenderer implements GTRenderer, MapLayerListListener {
+
+	private static final Logger LOGGER = Logging.getLogger(TileCachingRenderer.class);
+
+	private static final int TILE_BYTES = Constants.TILE_SIZE * Constants.TILE_SIZE * 4;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), runnable -> {
+				Thread thread = new Thread(runnable, "tile-renderer");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	// Access-ordered map => iteration starts at the least recently used tile
+	private final LinkedHashMap<TileKey, Tile> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final List<RenderListener> listeners = new CopyOnWriteArrayList<>();
+	private final List<StreamingRenderer> activeRenderers = new CopyOnWriteArrayList<>();
+	private final AtomicLong layerSetVersion = new AtomicLong();
+
+	// Counts area invalidations; the most recent ones are kept with their area,
+	// so tiles rendering across one are only dropped if they intersect it
+	private long invalidations;
+	private final ArrayDeque<Invalidation> invalidated = new ArrayDeque<>();
+
+	private MapContent mapContent;
+	private RenderingHints java2DHints;
+	private Map<Object, Object> rendererHints = new HashMap<>();
+
+	@Override
+	public void setMapContent(MapContent mapContent) {
+
+		if (this.mapContent != null) {
+			this.mapContent.removeMapLayerListListener(this);
+		}
+
+		this.mapContent = mapContent;
+		if (mapContent != null) {
+			mapContent.addMapLayerListListener(this);
+		}
+
+		invalidateAll();
+	}
+
+	@Override
+	public MapContent getMapContent() {
+		return this.mapContent;
+	}
+
+	@Override
+	public void paint(Graphics2D graphics, Rectangle paintArea, AffineTransform worldToScreen) {
+		paint(graphics, paintArea, null, worldToScreen);
+	}
+
+	@Override
+	public void paint(Graphics2D graphics, Rectangle paintArea, ReferencedEnvelope mapArea) {
+		paint(graphics, paintArea, mapArea, null);
+	}
+
+	@Override
+	public void paint(Graphics2D graphics, Rectangle paintArea, ReferencedEnvelope mapArea,
+			AffineTransform worldToScreen) {
+
+		if (this.mapContent == null) {
+			return;
+		}
+
+		// Derive whichever of map area and transform is missing
+		if (mapArea == null) {
+			mapArea = this.mapContent.getViewport().getBounds();
+		}
+		if (worldToScreen == null) {
+			worldToScreen = createWorldToScreen(paintArea, mapArea);
+		}
+
+		// Rotated or sheared views can't be tiled => render directly
+		if (worldToScreen.getShearX() != 0 || worldToScreen.getShearY() != 0) {
+			createRenderer().paint(graphics, paintArea, mapArea, worldToScreen);
+			return;
+		}
+
+		// Quantized => the scale recomputed on every pan still hits cached tiles
+		double scaleX = quantize(worldToScreen.getScaleX());
+		double scaleY = quantize(worldToScreen.getScaleY());
+		long offsetX = Math.round(worldToScreen.getTranslateX());
+		long offsetY = Math.round(worldToScreen.getTranslateY());
+		int size = Constants.TILE_SIZE;
+
+		// Tiles covering the paint area in global pixel coordinates
+		long firstColumn = Math.floorDiv(paintArea.x - offsetX, size);
+		long lastColumn = Math.floorDiv(paintArea.x + paintArea.width - 1 - offsetX, size);
+		long firstRow = Math.floorDiv(paintArea.y - offsetY, size);
+		long lastRow = Math.floorDiv(paintArea.y + paintArea.height - 1 - offsetY, size);
+
+		CoordinateReferenceSystem crs = mapArea.getCoordinateReferenceSystem();
+		long version = this.layerSetVersion.get();
+
+		Map<TileKey, Tile> tiles = new LinkedHashMap<>();
+		Map<TileKey, Future<Tile>> pending = new LinkedHashMap<>();
+
+		for (long row = firstRow; row <= lastRow; row++) {
+			for (long column = firstColumn; column <= lastColumn; column++) {
+				TileKey key = new TileKey(scaleX, scaleY, column, row, crs, version);
+				Tile tile = get(key);
+				if (tile != null) {
+					tiles.put(key, tile);
+				} else {
+					pending.put(key, this.executor.submit(createTileTask(key)));
+				}
+			}
+		}
+
+		// Wait for missing tiles and cache them
+		for (Map.Entry<TileKey, Future<Tile>> entry : pending.entrySet()) {
+			try {
+				Tile tile = entry.getValue().get();
+				put(entry.getKey(), tile);
+				tiles.put(entry.getKey(), tile);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				LOGGER.log(Level.WARNING, "Could not render tile " + entry.getKey(), e.getCause());
+				fireError(e);
+			}
+		}
+
+		// Draw tiles at their screen position
+		for (Map.Entry<TileKey, Tile> entry : tiles.entrySet()) {
+			TileKey key = entry.getKey();
+			int x = (int) (key.column * size + offsetX);
+			int y = (int) (key.row * size + offsetY);
+			graphics.drawImage(entry.getValue().image, x, y, null);
+		}
+	}
+
+	/**
+	 * Creates the task that renders a single tile with its own
+	 * {@link org.geotools.renderer.lite.StreamingRenderer}.
+	 *
+	 * @param key the {@link TileKey} of the tile.
+	 * @return a {@link java.util.concurrent.Callable} producing the tile.
+	 */
+	private Callable<Tile> createTileTask(TileKey key) {
+
+		return () -> {
+			long invalidations = getInvalidations();
+			int size = Constants.TILE_SIZE;
+
+			// Tile transform: world => global pixels, shifted to the tile origin
+			AffineTransform tileTransform = new AffineTransform(key.scaleX, 0, 0, key.scaleY, -key.column * size,
+					-key.row * size);
+			ReferencedEnvelope tileArea = getWorldBounds(key);
+
+			BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = image.createGraphics();
+
+			StreamingRenderer renderer = createRenderer();
+			this.activeRenderers.add(renderer);
+			try {
+				renderer.paint(graphics, new Rectangle(0, 0, size, size), tileArea, tileTransform);
+			} finally {
+				this.activeRenderers.remove(renderer);
+				graphics.dispose();
+			}
+
+			return new Tile(image, tileArea, invalidations);
+		};
+	}
+
+	/**
+	 * Creates a {@link org.geotools.renderer.lite.StreamingRenderer} with the
+	 * map content, hints and listeners of this renderer.
+	 *
+	 * @return a new {@link org.geotools.renderer.lite.StreamingRenderer}.
+	 */
+	private StreamingRenderer createRenderer() {
+
+		StreamingRenderer renderer = new StreamingRenderer();
+		renderer.setMapContent(this.mapContent);
+		renderer.setRendererHints(this.rendererHints);
+		if (this.java2DHints != null) {
+			renderer.setJava2DHints(this.java2DHints);
+		}
+		for (RenderListener listener : this.listeners) {
+			renderer.addRenderListener(listener);
+		}
+
+		return renderer;
+	}
+
+	/**
+	 * Computes the world envelope covered by a tile.
+	 *
+	 * @param key the {@link TileKey} of the tile.
+	 * @return the {@link org.geotools.geometry.jts.ReferencedEnvelope} of the
+	 *         tile.
+	 */
+	private static ReferencedEnvelope getWorldBounds(TileKey key) {
+
+		int size = Constants.TILE_SIZE;
+		double x1 = key.column * size / key.scaleX;
+		double x2 = (key.column + 1) * size / key.scaleX;
+		double y1 = key.row * size / key.scaleY;
+		double y2 = (key.row + 1) * size / key.scaleY;
+
+		return new ReferencedEnvelope(Math.min(x1, x2), Math.max(x1, x2), Math.min(y1, y2), Math.max(y1, y2),
+				key.crs);
+	}
+
+	/**
+	 * Rounds a scale to {@value Constants#TILE_SCALE_DIGITS} significant digits,
+	 * so scales differing only in their last bits share tiles. The difference
+	 * is far below a pixel across the tile grid.
+	 */
+	private static double quantize(double scale) {
+		return new BigDecimal(scale).round(new MathContext(Constants.TILE_SCALE_DIGITS)).doubleValue();
+	}
+
+	/**
+	 * Creates the world to screen transform mapping a map area onto a paint area.
+	 */
+	private static AffineTransform createWorldToScreen(Rectangle paintArea, ReferencedEnvelope mapArea) {
+
+		double scaleX = paintArea.getWidth() / mapArea.getWidth();
+		double scaleY = paintArea.getHeight() / mapArea.getHeight();
+
+		AffineTransform transform = new AffineTransform(scaleX, 0, 0, -scaleY, paintArea.x, paintArea.y);
+		transform.translate(-mapArea.getMinX(), -mapArea.getMaxY());
+
+		return transform;
+	}
+
+	private synchronized Tile get(TileKey key) {
+		return this.cache.get(key);
+	}
+
+	private synchronized long getInvalidations() {
+		return this.invalidations;
+	}
+
+	/**
+	 * Caches a tile and evicts least recently used tiles beyond the memory limit.
+	 */
+	private synchronized void put(TileKey key, Tile tile) {
+
+		// Drop tiles rendered for an older layer set
+		if (key.version != this.layerSetVersion.get()) {
+			return;
+		}
+
+		// Area invalidated while rendering => tile may already be outdated
+		if (tile.invalidations != this.invalidations && isInvalidated(tile)) {
+			return;
+		}
+
+		this.cache.put(key, tile);
+
+		Iterator<TileKey> iterator = this.cache.keySet().iterator();
+		while ((long) this.cache.size() * TILE_BYTES > Constants.TILE_CACHE_BYTES && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Checks whether an area covered by a tile was invalidated after its
+	 * rendering started.
+	 */
+	private boolean isInvalidated(Tile tile) {
+
+		// Older invalidations have been forgotten => tile may be affected
+		Invalidation oldest = this.invalidated.peekFirst();
+		if (oldest == null || oldest.number > tile.invalidations + 1) {
+			return true;
+		}
+
+		for (Invalidation invalidation : this.invalidated) {
+			if (invalidation.number > tile.invalidations && intersects(invalidation.area, tile.area)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks whether a changed area intersects the area of a tile, in the CRS of
+	 * the tile.
+	 */
+	private static boolean intersects(ReferencedEnvelope area, ReferencedEnvelope tileArea) {
+		try {
+			Envelope changed = area.transform(tileArea.getCoordinateReferenceSystem(), true);
+			return changed.intersects(tileArea);
+		} catch (Exception e) {
+			// Can't compare areas => tile may be affected
+			return true;
+		}
+	}
+
+	/**
+	 * Removes all cached tiles intersecting an area. Tiles still rendering are
+	 * not cached when they complete if they intersect the area.
+	 *
+	 * @param area the {@link org.geotools.geometry.jts.ReferencedEnvelope} that
+	 *             changed, or {@code null} if its extent is unknown.
+	 */
+	public synchronized void invalidate(ReferencedEnvelope area) {
+
+		if (area == null || area.isNull()) {
+			invalidateAll();
+			return;
+		}
+
+		this.invalidations++;
+		this.invalidated.addLast(new Invalidation(this.invalidations, area));
+		if (this.invalidated.size() > Constants.TILE_INVALIDATION_HISTORY) {
+			this.invalidated.removeFirst();
+		}
+
+		Iterator<Map.Entry<TileKey, Tile>> iterator = this.cache.entrySet().iterator();
+		while (iterator.hasNext()) {
+			if (intersects(area, iterator.next().getValue().area)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached tiles by moving to a new layer-set version.
+	 */
+	public synchronized void invalidateAll() {
+		this.layerSetVersion.incrementAndGet();
+		this.cache.clear();
+		this.invalidated.clear();
+	}
+
+	@Override
+	public void layerAdded(MapLayerListEvent event) {
+		invalidate(getBounds(event.getElement()));
+	}
+
+	@Override
+	public void layerRemoved(MapLayerListEvent event) {
+		invalidate(getBounds(event.getElement()));
+	}
+
+	@Override
+	public void layerChanged(MapLayerListEvent event) {
+
+		// Appended features only affect the area they cover
+		MapLayerEvent layerEvent = event.getMapLayerEvent();
+		Layer layer = event.getElement();
+		if (layerEvent != null && layerEvent.getReason() == MapLayerEvent.DATA_CHANGED && layer != null
+				&& layer.getFeatureSource() instanceof AppendableFeatureSource) {
+			invalidate(((AppendableFeatureSource) layer.getFeatureSource()).getLastChangeBounds());
+			return;
+		}
+
+		invalidateAll();
+	}
+
+	@Override
+	public void layerMoved(MapLayerListEvent event) {
+		invalidateAll();
+	}
+
+	@Override
+	public void layerPreDispose(MapLayerListEvent event) {
+		// Removal is handled by layerRemoved
+	}
+
+	private static ReferencedEnvelope getBounds(Layer layer) {
+		try {
+			return layer == null ? null : layer.getBounds();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Stops the worker pool and detaches this renderer from its map content.
+	 */
+	public void dispose() {
+		setMapContent(null);
+		this.executor.shutdownNow();
+	}
+
+	@Override
+	public void stopRendering() {
+		for (StreamingRenderer renderer : this.activeRenderers) {
+			renderer.stopRendering();
+		}
+	}
+
+	@Override
+	public void addRenderListener(RenderListener listener) {
+		this.listeners.add(listener);
+	}
+
+	@Override
+	public void removeRenderListener(RenderListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	private void fireError(Exception e) {
+		for (RenderListener listener : this.listeners) {
+			listener.errorOccurred(e);
+		}
+	}
+
+	@Override
+	public void setJava2DHints(RenderingHints hints) {
+		this.java2DHints = hints;
+		invalidateAll();
+	}
+
+	@Override
+	public RenderingHints getJava2DHints() {
+		return this.java2DHints;
+	}
+
+	@Override
+	public void setRendererHints(Map<Object, Object> hints) {
+		this.rendererHints = hints != null ? hints : new HashMap<>();
+		invalidateAll();
+	}
+
+	@Override
+	public Map<Object, Object> getRendererHints() {
+		return this.rendererHints;
+	}
+
+	/**
+	 * TileKey class: Nested class inside of {@link TileCachingRenderer}.
+	 * Identifies a tile by scale, position, CRS and layer-set version.
+	 */
+	private static class TileKey {
+
+		private final double scaleX;
+		private final double scaleY;
+		private final long column;
+		private final long row;
+		private final CoordinateReferenceSystem crs;
+		private final long version;
+
+		TileKey(double scaleX, double scaleY, long column, long row, CoordinateReferenceSystem crs, long version) {
+			this.scaleX = scaleX;
+			this.scaleY = scaleY;
+			this.column = column;
+			this.row = row;
+			this.crs = crs;
+			this.version = version;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof TileKey)) {
+				return false;
+			}
+			TileKey key = (TileKey) other;
+			return Double.compare(this.scaleX, key.scaleX) == 0 && Double.compare(this.scaleY, key.scaleY) == 0
+					&& this.column == key.column && this.row == key.row && this.version == key.version
+					&& Objects.equals(this.crs, key.crs);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.scaleX, this.scaleY, this.column, this.row, this.version);
+		}
+
+		@Override
+		public String toString() {
+			return "(" + this.scaleX + ", " + this.column + ", " + this.row + ", v" + this.version + ")";
+		}
+	}
+
+	/**
+	 * Invalidation class: Nested class inside of {@link TileCachingRenderer}. An
+	 * invalidated area and its position in the invalidation count.
+	 */
+	private static class Invalidation {
+
+		private final long number;
+		private final ReferencedEnvelope area;
+
+		Invalidation(long number, ReferencedEnvelope area) {
+			this.number = number;
+			this.area = area;
+		}
+	}
+
+	/**
+	 * Tile class: Nested class inside of {@link TileCachingRenderer}. A rendered
+	 * tile image, the world area it covers and the invalidation count when its
+	 * rendering started.
+	 */
+	private static class Tile {
+
+		private final BufferedImage image;
+		private final ReferencedEnvelope area;
+		private final long invalidations;
+
+		Tile(BufferedImage image, ReferencedEnvelope area, long invalidations) {
+			this.image = image;
+			this.area = area;
+			this.invalidations = invalidations;
+		}
+	}
+}
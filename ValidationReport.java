@@ -0,0 +1,91 @@
+package org.geotools.tutorial.txtreader;
+
+/**
+ * ValidationReport: Counts of the geometry validation of a single TXT file by
+ * {@link GeometryValidator}.
+ */
+public class ValidationReport {
+
+	private long checkedCount;
+	private long skippedCount;
+	private long repairedCount;
+	private long rejectedCount;
+
+	/**
+	 * Adds the counts of a validated batch of features.
+	 *
+	 * @param checked  the number of geometries tested for validity.
+	 * @param skipped  the number of points and missing geometries, which are
+	 *                 not tested.
+	 * @param repaired the number of invalid geometries that were repaired.
+	 * @param rejected the number of invalid geometries that were dropped.
+	 */
+	void add(long checked, long skipped, long repaired, long rejected) {
+		this.checkedCount += checked;
+		this.skippedCount += skipped;
+		this.repairedCount += repaired;
+		this.rejectedCount += rejected;
+	}
+
+	/**
+	 * Retrieves the number of geometries tested for validity.
+	 *
+	 * @return the checked count.
+	 */
+	public long getCheckedCount() {
+		return this.checkedCount;
+	}
+
+	/**
+	 * Retrieves the number of points and missing geometries, which are not
+	 * tested.
+	 *
+	 * @return the skipped count.
+	 */
+	public long getSkippedCount() {
+		return this.skippedCount;
+	}
+
+	/**
+	 * Retrieves the number of invalid geometries that were repaired.
+	 *
+	 * @return the repaired count.
+	 */
+	public long getRepairedCount() {
+		return this.repairedCount;
+	}
+
+	/**
+	 * Retrieves the number of invalid geometries that were dropped.
+	 *
+	 * @return the rejected count.
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount;
+	}
+
+	/**
+	 * Retrieves the number of geometries that were found invalid.
+	 *
+	 * @return the sum of repaired and rejected geometries.
+	 */
+	public long getInvalidCount() {
+		return this.repairedCount + this.rejectedCount;
+	}
+
+	/**
+	 * Summarizes the report for display.
+	 *
+	 * @return a multi-line summary of the counts.
+	 */
+	public String getSummary() {
+		return "Number of invalid geometries: " + getInvalidCount() + "\nREPAIRED: " + this.repairedCount
+				+ "\nREJECTED: " + this.rejectedCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d checked, %d skipped, %d repaired, %d rejected", this.checkedCount,
+				this.skippedCount, this.repairedCount, this.rejectedCount);
+	}
+}
@@ -0,0 +1,47 @@
+package org.geotools.tutorial.txtreader.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner: Runs the benchmarks with the GC profiler attached, so
+ * allocation rates are reported next to the timings, and writes the results
+ * as JSON for comparison across builds. Regular JMH command line options (e.g.
+ * a benchmark name pattern or {@code -p lines=1000}) are passed through.
+ */
+public class BenchmarkRunner {
+
+	private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args JMH command line options.
+	 * @throws RunnerException             if a benchmark fails.
+	 * @throws CommandLineOptionException if the options can't be parsed.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+
+		// Run all benchmarks unless a pattern is given
+		OptionsBuilder builder = new OptionsBuilder();
+		if (commandLine.getIncludes().isEmpty()) {
+			builder.include(".*Benchmark.*");
+		}
+
+		Options options = builder.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+				.result(commandLine.getResult().orElse(DEFAULT_RESULT_FILE))
+				.build();
+
+		new Runner(options).run();
+	}
+}
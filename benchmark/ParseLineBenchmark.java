@@ -0,0 +1,89 @@
+package org.geotools.tutorial.txtreader.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.tutorial.txtreader.FastWKTReader;
+import org.geotools.tutorial.txtreader.TXTFileParser;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ParseLineBenchmark: Measures the per-line steps of the parser separately:
+ * WKT parsing alone, feature building alone, and both together through
+ * {@link TXTFileParser#parseLine(FastWKTReader, SimpleFeatureBuilder, CharSequence)}.
+ * Every invocation handles the next line of a pre-generated set, so the
+ * results are per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseLineBenchmark {
+
+	// Power of two => cheap wrap-around of the line index
+	private static final int LINE_COUNT = 1024;
+
+	@Param({ "POINT", "LINESTRING", "POLYGON", "MULTIPOLYGON" })
+	public WKTDataGenerator.Shape shape;
+
+	@Param({ "8", "64", "512" })
+	public int vertices;
+
+	private String[] lines;
+	private Geometry[] geometries;
+
+	private FastWKTReader reader;
+	private SimpleFeatureBuilder featureBuilder;
+
+	private int index;
+
+	@Setup
+	public void setUp() throws ParseException {
+
+		this.lines = new WKTDataGenerator(42, this.vertices).createLines(this.shape, LINE_COUNT);
+		this.reader = new FastWKTReader();
+		this.featureBuilder = new SimpleFeatureBuilder(TXTFileParser.createFeatureType());
+
+		// Parsed once up front for the feature building benchmark
+		this.geometries = new Geometry[LINE_COUNT];
+		for (int i = 0; i < LINE_COUNT; i++) {
+			this.geometries[i] = this.reader.read(this.lines[i]);
+		}
+	}
+
+	private int nextIndex() {
+		this.index = (this.index + 1) & (LINE_COUNT - 1);
+		return this.index;
+	}
+
+	@Benchmark
+	public SimpleFeature parseLine() throws ParseException {
+		return TXTFileParser.parseLine(this.reader, this.featureBuilder, this.lines[nextIndex()]);
+	}
+
+	@Benchmark
+	public Geometry readGeometry() throws ParseException {
+		return this.reader.read(this.lines[nextIndex()]);
+	}
+
+	@Benchmark
+	public SimpleFeature buildFeature() {
+		this.featureBuilder.add(this.geometries[nextIndex()]);
+		return this.featureBuilder.buildFeature(null);
+	}
+}
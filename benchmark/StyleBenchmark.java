@@ -0,0 +1,138 @@
+package org.geotools.tutorial.txtreader.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.geotools.api.data.SimpleFeatureSource;
+import org.geotools.api.style.FeatureTypeStyle;
+import org.geotools.api.style.Rule;
+import org.geotools.api.style.Style;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.MapContent;
+import org.geotools.renderer.lite.StreamingRenderer;
+import org.geotools.tutorial.txtreader.Constants;
+import org.geotools.tutorial.txtreader.ReadMode;
+import org.geotools.tutorial.txtreader.Styles;
+import org.geotools.tutorial.txtreader.TXTFileParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StyleBenchmark: Measures {@link Styles#createStyle(Color, Color)} and
+ * rendering a mixed-geometry layer with that style, compared to the same style
+ * with the geometry dimension filters removed from its rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StyleBenchmark {
+
+	@Param({ "20000" })
+	public int lines;
+
+	@Param({ "16" })
+	public int vertices;
+
+	private File file;
+
+	private MapContent filteredMap;
+	private MapContent unfilteredMap;
+
+	private BufferedImage image;
+	private Rectangle paintArea;
+	private ReferencedEnvelope mapArea;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		this.file = Files.createTempFile("benchmark", ".txt").toFile();
+		new WKTDataGenerator(42, this.vertices).writeFile(this.file, WKTDataGenerator.Shape.MIXED, this.lines);
+
+		SimpleFeatureSource featureSource = TXTFileParser.getTXTFile(this.file, ReadMode.MAPPED);
+		this.mapArea = featureSource.getBounds();
+
+		this.filteredMap = createMap(featureSource, Styles.createStyle(Color.BLACK, Color.RED));
+		this.unfilteredMap = createMap(featureSource, removeFilters(Styles.createStyle(Color.BLACK, Color.RED)));
+
+		this.image = new BufferedImage(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		this.paintArea = new Rectangle(0, 0, Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.filteredMap.dispose();
+		this.unfilteredMap.dispose();
+		Files.deleteIfExists(this.file.toPath());
+	}
+
+	private static MapContent createMap(SimpleFeatureSource featureSource, Style style) {
+		MapContent map = new MapContent();
+		map.addLayer(new FeatureLayer(featureSource, style));
+		return map;
+	}
+
+	/**
+	 * Removes the filters of all rules, so every feature goes through every
+	 * symbolizer.
+	 */
+	private static Style removeFilters(Style style) {
+
+		for (FeatureTypeStyle featureTypeStyle : style.featureTypeStyles()) {
+			for (Rule rule : featureTypeStyle.rules()) {
+				rule.setFilter(null);
+			}
+		}
+
+		return style;
+	}
+
+	private BufferedImage render(MapContent map) {
+
+		Graphics2D graphics = this.image.createGraphics();
+		try {
+			StreamingRenderer renderer = new StreamingRenderer();
+			renderer.setMapContent(map);
+			renderer.paint(graphics, this.paintArea, this.mapArea);
+		} finally {
+			graphics.dispose();
+		}
+
+		return this.image;
+	}
+
+	@Benchmark
+	public Style createStyle() {
+		return Styles.createStyle(Color.BLACK, Color.RED);
+	}
+
+	@Benchmark
+	public BufferedImage renderFiltered() {
+		return render(this.filteredMap);
+	}
+
+	@Benchmark
+	public BufferedImage renderUnfiltered() {
+		return render(this.unfilteredMap);
+	}
+}
@@ -0,0 +1,67 @@
+package org.geotools.tutorial.txtreader.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.geotools.api.data.SimpleFeatureSource;
+import org.geotools.tutorial.txtreader.ReadMode;
+import org.geotools.tutorial.txtreader.TXTFileParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TXTFileParserBenchmark: Measures loading a whole generated TXT file into a
+ * {@link org.geotools.api.data.SimpleFeatureSource} with
+ * {@link TXTFileParser#getTXTFile(File, ReadMode)}, for every {@link ReadMode}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TXTFileParserBenchmark {
+
+	@Param({ "10000", "100000" })
+	public int lines;
+
+	@Param({ "8", "64" })
+	public int vertices;
+
+	@Param({ "MIXED" })
+	public WKTDataGenerator.Shape shape;
+
+	@Param({ "SCANNER", "MAPPED", "PARALLEL" })
+	public ReadMode readMode;
+
+	private File file;
+
+	@Setup(Level.Trial)
+	public void createFile() throws IOException {
+		this.file = Files.createTempFile("benchmark", ".txt").toFile();
+		new WKTDataGenerator(42, this.vertices).writeFile(this.file, this.shape, this.lines);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(this.file.toPath());
+	}
+
+	@Benchmark
+	public SimpleFeatureSource getTXTFile() throws Exception {
+		return TXTFileParser.getTXTFile(this.file, this.readMode);
+	}
+}
@@ -0,0 +1,231 @@
+package org.geotools.tutorial.txtreader.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * WKTDataGenerator: Generates synthetic TXT files with one WKT geometry per
+ * line for the benchmarks. Output is deterministic for a given seed, so runs
+ * on different builds parse the same input.
+ */
+public class WKTDataGenerator {
+
+	/**
+	 * Shape enum: Nested enum inside of {@link WKTDataGenerator}. The kinds of
+	 * geometries that can be generated.
+	 */
+	public enum Shape {
+		POINT, LINESTRING, POLYGON, MULTIPOINT, MULTILINESTRING, MULTIPOLYGON, GEOMETRYCOLLECTION, MIXED;
+	}
+
+	// Shapes picked from for MIXED lines
+	private static final Shape[] MIXED_SHAPES = { Shape.POINT, Shape.LINESTRING, Shape.POLYGON, Shape.MULTIPOINT,
+			Shape.MULTILINESTRING, Shape.MULTIPOLYGON, Shape.GEOMETRYCOLLECTION };
+
+	private static final int MAX_PARTS = 4;
+
+	private final Random random;
+	private final int vertices;
+
+	/**
+	 * Constructor: Constructs a {@link WKTDataGenerator}.
+	 *
+	 * @param seed     the seed of the random coordinates.
+	 * @param vertices the number of vertices of every line, ring or multipoint
+	 *                 part.
+	 */
+	public WKTDataGenerator(long seed, int vertices) {
+		this.random = new Random(seed);
+		this.vertices = Math.max(4, vertices);
+	}
+
+	/**
+	 * Writes a TXT file of generated geometries.
+	 *
+	 * @param file  the file to be written.
+	 * @param shape the {@link Shape} of the geometries.
+	 * @param lines the number of lines.
+	 * @return the written file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public File writeFile(File file, Shape shape, int lines) throws IOException {
+
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.US_ASCII)) {
+			for (int i = 0; i < lines; i++) {
+				writer.write(nextLine(shape));
+				writer.newLine();
+			}
+		}
+
+		return file;
+	}
+
+	/**
+	 * Generates lines of generated geometries.
+	 *
+	 * @param shape the {@link Shape} of the geometries.
+	 * @param lines the number of lines.
+	 * @return an array of WKT strings.
+	 */
+	public String[] createLines(Shape shape, int lines) {
+
+		String[] result = new String[lines];
+		for (int i = 0; i < lines; i++) {
+			result[i] = nextLine(shape);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Generates a single WKT geometry.
+	 *
+	 * @param shape the {@link Shape} of the geometry.
+	 * @return the WKT string.
+	 */
+	public String nextLine(Shape shape) {
+
+		if (shape == Shape.MIXED) {
+			shape = MIXED_SHAPES[this.random.nextInt(MIXED_SHAPES.length)];
+		}
+
+		StringBuilder builder = new StringBuilder(this.vertices * 24 + 16);
+		builder.append(shape.name()).append(' ');
+
+		switch (shape) {
+		case POINT:
+			builder.append('(');
+			appendCoordinate(builder, randomX(), randomY());
+			builder.append(')');
+			break;
+		case LINESTRING:
+			appendLine(builder);
+			break;
+		case POLYGON:
+			appendPolygon(builder);
+			break;
+		case MULTIPOINT:
+			appendLine(builder);
+			break;
+		case MULTILINESTRING:
+			appendParts(builder, false);
+			break;
+		case MULTIPOLYGON:
+			appendParts(builder, true);
+			break;
+		case GEOMETRYCOLLECTION:
+			appendCollection(builder);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported shape: " + shape);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Appends a parenthesized random walk of vertices.
+	 */
+	private void appendLine(StringBuilder builder) {
+
+		double x = randomX();
+		double y = randomY();
+
+		builder.append('(');
+		for (int i = 0; i < this.vertices; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			appendCoordinate(builder, x, y);
+			x = clamp(x + this.random.nextGaussian() * 0.01, -180, 180);
+			y = clamp(y + this.random.nextGaussian() * 0.01, -90, 90);
+		}
+		builder.append(')');
+	}
+
+	/**
+	 * Appends a polygon with a single closed, star-shaped ring.
+	 */
+	private void appendPolygon(StringBuilder builder) {
+
+		double centerX = randomX();
+		double centerY = randomY();
+		double radius = 0.001 + this.random.nextDouble() * 0.05;
+
+		// Angles increase around the center => ring doesn't self-intersect
+		double firstX = 0;
+		double firstY = 0;
+		builder.append("((");
+		for (int i = 0; i < this.vertices - 1; i++) {
+			double angle = 2 * Math.PI * i / (this.vertices - 1);
+			double distance = radius * (0.5 + this.random.nextDouble() * 0.5);
+			double x = centerX + Math.cos(angle) * distance;
+			double y = centerY + Math.sin(angle) * distance;
+			if (i == 0) {
+				firstX = x;
+				firstY = y;
+			}
+			appendCoordinate(builder, x, y);
+			builder.append(", ");
+		}
+
+		// Close the ring with its first coordinate
+		appendCoordinate(builder, firstX, firstY);
+		builder.append("))");
+	}
+
+	/**
+	 * Appends the parts of a multi linestring or multi polygon.
+	 */
+	private void appendParts(StringBuilder builder, boolean polygons) {
+
+		int parts = 2 + this.random.nextInt(MAX_PARTS - 1);
+
+		builder.append('(');
+		for (int i = 0; i < parts; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			if (polygons) {
+				appendPolygon(builder);
+			} else {
+				appendLine(builder);
+			}
+		}
+		builder.append(')');
+	}
+
+	/**
+	 * Appends a collection of one point, one linestring and one polygon.
+	 */
+	private void appendCollection(StringBuilder builder) {
+
+		builder.append("(POINT (");
+		appendCoordinate(builder, randomX(), randomY());
+		builder.append("), LINESTRING ");
+		appendLine(builder);
+		builder.append(", POLYGON ");
+		appendPolygon(builder);
+		builder.append(')');
+	}
+
+	private static void appendCoordinate(StringBuilder builder, double x, double y) {
+		builder.append(x).append(' ').append(y);
+	}
+
+	private double randomX() {
+		return this.random.nextDouble() * 360 - 180;
+	}
+
+	private double randomY() {
+		return this.random.nextDouble() * 180 - 90;
+	}
+
+	private static double clamp(double value, double min, double max) {
+		return Math.max(min, Math.min(max, value));
+	}
+}
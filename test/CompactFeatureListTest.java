@@ -0,0 +1,137 @@
+package org.geotools.tutorial.txtreader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * CompactFeatureListTest: Round-trip tests for {@link CompactFeatureList},
+ * checking that every geometry is decoded with the type, coordinates and
+ * ordinates it was added with.
+ */
+public class CompactFeatureListTest {
+
+	private final GeometryFactory geometryFactory = new GeometryFactory(PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+	private final WKTReader reader = new WKTReader();
+
+	@Test
+	public void testSupportedTypes() throws Exception {
+		assertRoundTrip("POINT (1 2)");
+		assertRoundTrip("LINESTRING (1 2, 3 4, 5 6)");
+		assertRoundTrip("LINEARRING (0 0, 1 0, 1 1, 0 0)");
+		assertRoundTrip("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))");
+		assertRoundTrip("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 4, 2 2))");
+		assertRoundTrip("MULTIPOINT ((1 2), (3 4))");
+		assertRoundTrip("MULTILINESTRING ((1 2, 3 4), (5 6, 7 8))");
+		assertRoundTrip("MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))");
+		assertRoundTrip("GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (1 2, 3 4))");
+		assertRoundTrip("GEOMETRYCOLLECTION (GEOMETRYCOLLECTION (POINT (1 2)), MULTIPOINT ((3 4)))");
+	}
+
+	@Test
+	public void testEmptyGeometries() throws Exception {
+		assertRoundTrip("POINT EMPTY");
+		assertRoundTrip("LINESTRING EMPTY");
+		assertRoundTrip("POLYGON EMPTY");
+		assertRoundTrip("MULTIPOINT EMPTY");
+		assertRoundTrip("MULTILINESTRING EMPTY");
+		assertRoundTrip("MULTIPOLYGON EMPTY");
+		assertRoundTrip("GEOMETRYCOLLECTION EMPTY");
+		assertRoundTrip("GEOMETRYCOLLECTION (POINT EMPTY, LINESTRING (1 2, 3 4))");
+	}
+
+	@Test
+	public void testNullGeometry() {
+
+		CompactFeatureList features = new CompactFeatureList(TXTFileParser.createFeatureType());
+		features.addGeometry(null, null);
+
+		assertEquals(1, features.size());
+		assertNull(features.getGeometry(0));
+		assertNull(features.get(0).getDefaultGeometry());
+	}
+
+	@Test
+	public void testZAndMCoordinates() throws Exception {
+		assertRoundTrip("POINT Z (1 2 3)");
+		assertRoundTrip("POINT M (1 2 3)");
+		assertRoundTrip("POINT ZM (1 2 3 4)");
+		assertRoundTrip("LINESTRING Z (1 2 3, 4 5 6)");
+		assertRoundTrip("LINESTRING ZM (1 2 3 4, 5 6 7 8)");
+		assertRoundTrip("POLYGON M ((0 0 1, 10 0 2, 10 10 3, 0 0 1))");
+		assertRoundTrip("MULTIPOINT Z ((1 2 3), (4 5 6))");
+	}
+
+	@Test
+	public void testMixedDimensions() {
+
+		// Z only in a later part => stored for the whole feature
+		Point xy = point(2, 0, 1, 2);
+		Point xyz = point(3, 0, 3, 4, 5);
+		assertRoundTrip(this.geometryFactory.createGeometryCollection(new Geometry[] { xy, xyz }));
+		assertRoundTrip(this.geometryFactory.createMultiPoint(new Point[] { xy, xyz }));
+
+		// Z and M in different parts => measures must not land in Z
+		Point xym = point(3, 1, 1, 2, 7);
+		assertRoundTrip(this.geometryFactory.createGeometryCollection(new Geometry[] { xym, xyz }));
+		assertRoundTrip(this.geometryFactory.createGeometryCollection(new Geometry[] { xy, xym }));
+
+		// Z only in a hole
+		LinearRing shell = this.geometryFactory
+				.createLinearRing(sequence(2, 0, 0, 0, 10, 0, 10, 10, 0, 10, 0, 0));
+		LinearRing hole = this.geometryFactory
+				.createLinearRing(sequence(3, 0, 2, 2, 1, 4, 2, 2, 4, 4, 3, 2, 2, 1));
+		assertRoundTrip(this.geometryFactory.createPolygon(shell, new LinearRing[] { hole }));
+	}
+
+	private void assertRoundTrip(String wkt) throws ParseException {
+		assertRoundTrip(this.reader.read(wkt));
+	}
+
+	/**
+	 * Asserts that a geometry is decoded the same way it was added, next to
+	 * another feature so offsets are checked as well.
+	 */
+	private static void assertRoundTrip(Geometry expected) {
+
+		CompactFeatureList features = new CompactFeatureList(TXTFileParser.createFeatureType());
+		features.addGeometry(expected, null);
+		features.addGeometry(expected, null);
+
+		for (int index = 0; index < features.size(); index++) {
+			Geometry actual = features.getGeometry(index);
+			String wkt = expected.toText();
+
+			assertEquals(wkt, expected.getGeometryType(), actual.getGeometryType());
+			assertTrue(wkt + " decoded as " + actual, expected.equalsExact(actual));
+
+			// equalsExact only compares X and Y
+			Coordinate[] expectedCoordinates = expected.getCoordinates();
+			Coordinate[] actualCoordinates = actual.getCoordinates();
+			assertEquals(wkt, expectedCoordinates.length, actualCoordinates.length);
+			for (int i = 0; i < expectedCoordinates.length; i++) {
+				assertEquals(wkt, expectedCoordinates[i].getZ(), actualCoordinates[i].getZ(), 0);
+				assertEquals(wkt, expectedCoordinates[i].getM(), actualCoordinates[i].getM(), 0);
+			}
+		}
+	}
+
+	private Point point(int dimension, int measures, double... ordinates) {
+		return this.geometryFactory.createPoint(sequence(dimension, measures, ordinates));
+	}
+
+	private static CoordinateSequence sequence(int dimension, int measures, double... ordinates) {
+		return PackedCoordinateSequenceFactory.DOUBLE_FACTORY.create(ordinates, dimension, measures);
+	}
+}
@@ -0,0 +1,85 @@
+package org.geotools.tutorial.txtreader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * DelimitedFormatTest: Tests for {@link DelimitedFormat}, loading delimited
+ * files through every {@link ReadMode}.
+ */
+public class DelimitedFormatTest {
+
+	private static final List<String> NAMES = Arrays.asList("Caf\u00e9", "Z\u00fcrich", "\u6771\u4eac", "plain");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testNonAsciiAttributesWithScanner() throws Exception {
+		assertEquals(NAMES, loadNames(ReadMode.SCANNER));
+	}
+
+	@Test
+	public void testNonAsciiAttributesWithMapped() throws Exception {
+		assertEquals(NAMES, loadNames(ReadMode.MAPPED));
+	}
+
+	@Test
+	public void testNonAsciiAttributesWithParallel() throws Exception {
+		assertEquals(NAMES, loadNames(ReadMode.PARALLEL));
+	}
+
+	@Test
+	public void testDetectNonAsciiHeader() throws Exception {
+
+		DelimitedFormat format = DelimitedFormat.detect(writeFile("gr\u00f6\u00dfe;WKT", "1;POINT (1 2)"));
+
+		assertNotNull(format);
+		assertEquals(';', format.getDelimiter());
+		assertNotNull(format.getFeatureType().getDescriptor("gr\u00f6\u00dfe"));
+	}
+
+	/**
+	 * Loads a UTF-8 file with a non-ASCII name column and returns the names in
+	 * file order.
+	 */
+	private List<String> loadNames(ReadMode readMode) throws Exception {
+
+		List<String> lines = new ArrayList<>();
+		lines.add("name;WKT");
+		for (int i = 0; i < NAMES.size(); i++) {
+			lines.add(NAMES.get(i) + ";POINT (" + i + " " + i + ")");
+		}
+
+		LoadResult result = TXTFileParser.loadTXTFile(writeFile(lines.toArray(new String[0])), readMode,
+				new LoadOptions(InvalidLinePolicy.SKIP, Constants.MAX_INVALID_LINES));
+		assertEquals(0, result.getErrors().getErrorCount());
+
+		List<String> names = new ArrayList<>();
+		for (SimpleFeature feature : ((IndexedFeatureSource) result.getFeatureSource()).getFeatureList()) {
+			names.add((String) feature.getAttribute("name"));
+		}
+
+		return names;
+	}
+
+	private File writeFile(String... lines) throws IOException {
+
+		File file = this.folder.newFile("delimited.csv");
+		Files.write(file.toPath(), Arrays.asList(lines), Constants.INPUT_CHARSET);
+
+		return file;
+	}
+}
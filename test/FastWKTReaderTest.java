@@ -0,0 +1,179 @@
+package org.geotools.tutorial.txtreader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * FastWKTReaderTest: Conformance tests for {@link FastWKTReader}, checking
+ * that every input gives the geometry or the
+ * {@link org.locationtech.jts.io.ParseException} of a
+ * {@link org.locationtech.jts.io.WKTReader}.
+ */
+public class FastWKTReaderTest {
+
+	private final FastWKTReader fastReader = new FastWKTReader();
+	private final WKTReader reader = new WKTReader();
+
+	@Test
+	public void testSupportedTypes() throws Exception {
+		assertSameGeometry("POINT (1 2)");
+		assertSameGeometry("LINESTRING (1 2, 3 4, 5 6)");
+		assertSameGeometry("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))");
+		assertSameGeometry("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 4, 2 2))");
+		assertSameGeometry("MULTIPOINT ((1 2), (3 4))");
+		assertSameGeometry("MULTIPOINT (1 2, 3 4)");
+		assertSameGeometry("MULTILINESTRING ((1 2, 3 4), (5 6, 7 8))");
+		assertSameGeometry("MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))");
+		assertSameGeometry("GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (1 2, 3 4))");
+		assertSameGeometry("GEOMETRYCOLLECTION (GEOMETRYCOLLECTION (POINT (1 2)), MULTIPOINT ((3 4)))");
+	}
+
+	@Test
+	public void testFormatting() throws Exception {
+		assertSameGeometry("point(1 2)");
+		assertSameGeometry("  LineString ( 1  2 ,3 4 )  ");
+		assertSameGeometry("POLYGON((0 0,1 0,1 1,0 0))");
+		assertSameGeometry("POINT\t(-1.5\n.5)");
+		assertSameResult("POINT (1 2) trailing");
+	}
+
+	@Test
+	public void testEmptyGeometries() throws Exception {
+		assertSameGeometry("POINT EMPTY");
+		assertSameGeometry("LINESTRING EMPTY");
+		assertSameGeometry("POLYGON EMPTY");
+		assertSameGeometry("MULTIPOINT EMPTY");
+		assertSameGeometry("MULTILINESTRING EMPTY");
+		assertSameGeometry("MULTIPOLYGON EMPTY");
+		assertSameGeometry("GEOMETRYCOLLECTION EMPTY");
+		assertSameResult("MULTIPOINT ((1 2), EMPTY)");
+		assertSameGeometry("GEOMETRYCOLLECTION (POINT EMPTY, LINESTRING (1 2, 3 4))");
+	}
+
+	@Test
+	public void testZAndMCoordinates() throws Exception {
+		assertSameGeometry("POINT (1 2 3)");
+		assertSameGeometry("POINT Z (1 2 3)");
+		assertSameGeometry("POINT M (1 2 3)");
+		assertSameGeometry("POINT ZM (1 2 3 4)");
+		assertSameGeometry("POINT (1 2 3 4)");
+		assertSameGeometry("LINESTRING Z (1 2 3, 4 5 6)");
+		assertSameGeometry("POLYGON Z ((0 0 1, 10 0 2, 10 10 3, 0 0 1))");
+		assertSameGeometry("MULTIPOINT Z ((1 2 3), (4 5 6))");
+		assertSameGeometry("POINT Z EMPTY");
+	}
+
+	@Test
+	public void testExponents() throws Exception {
+		assertSameGeometry("POINT (1e3 -2.5E-4)");
+		assertSameGeometry("POINT (1E+22 1e-22)");
+		assertSameGeometry("POINT (1e23 1e-300)");
+		assertSameGeometry("POINT (1.7976931348623157E308 4.9E-324)");
+		assertSameGeometry("LINESTRING (0.5e1 -0.5e-1, 123.456e-2 7E0)");
+	}
+
+	@Test
+	public void testSignificantDigits() throws Exception {
+		assertSameGeometry("POINT (123456789012345 0.123456789012345)");
+		assertSameGeometry("POINT (1234567890123456 0.1234567890123456)");
+		assertSameGeometry("POINT (0.12345678901234567 1234567890.123456789)");
+		assertSameGeometry("POINT (9007199254740993 -9007199254740993)");
+		assertSameGeometry("POINT (12345678901234567890123 0.000000000000000000001234567890123456789)");
+		assertSameGeometry("POINT (8.0516170883181 52.265286389399)");
+		assertSameGeometry("POINT (0 -0)");
+		assertSameGeometry("POINT (000123.4500 -0.000)");
+	}
+
+	@Test
+	public void testMixedOrdinateCounts() throws Exception {
+		assertSameResult("LINESTRING (1 2, 3 4 5)");
+		assertSameResult("LINESTRING (1 2 3, 4 5)");
+		assertSameResult("LINESTRING Z (1 2, 3 4)");
+		assertSameResult("MULTIPOINT ((1 2), (3 4 5))");
+		assertSameResult("GEOMETRYCOLLECTION (POINT (1 2), POINT (3 4 5))");
+	}
+
+	@Test
+	public void testInvalidInput() throws Exception {
+		assertSameException("");
+		assertSameException("POINT");
+		assertSameException("POINT (1)");
+		assertSameException("POINT (1 2");
+		assertSameException("POINT (1 x)");
+		assertSameException("POINT (1e 2)");
+		assertSameException("LINESTRING (1 2,)");
+		assertSameException("POLYGON (0 0, 1 0, 1 1, 0 0)");
+		assertSameException("MULTIPOLYGON ((0 0, 1 0, 1 1, 0 0))");
+		assertSameException("CIRCLE (1 2)");
+		assertSameException("GEOMETRYCOLLECTION (1 2)");
+	}
+
+	/**
+	 * Asserts that a WKT text is valid and read the same way by both readers.
+	 */
+	private void assertSameGeometry(String wkt) throws ParseException {
+		assertSameGeometry(wkt, this.reader.read(wkt), this.fastReader.read(wkt));
+	}
+
+	/**
+	 * Asserts that a WKT text gives the same geometry, or the same exception, with
+	 * both readers.
+	 */
+	private void assertSameResult(String wkt) throws ParseException {
+
+		Geometry expected;
+		try {
+			expected = this.reader.read(wkt);
+		} catch (ParseException e) {
+			assertSameException(wkt);
+			return;
+		}
+
+		assertSameGeometry(wkt, expected, this.fastReader.read(wkt));
+	}
+
+	/**
+	 * Asserts that a WKT text is invalid and rejected the same way by both
+	 * readers.
+	 */
+	private void assertSameException(String wkt) {
+
+		ParseException expected = null;
+		try {
+			this.reader.read(wkt);
+		} catch (ParseException e) {
+			expected = e;
+		}
+		assertNotNull("WKTReader accepted " + wkt, expected);
+
+		try {
+			this.fastReader.read(wkt);
+			fail("FastWKTReader accepted " + wkt);
+		} catch (ParseException e) {
+			assertEquals(wkt, expected.getMessage(), e.getMessage());
+		}
+	}
+
+	private static void assertSameGeometry(String wkt, Geometry expected, Geometry actual) {
+
+		assertEquals(wkt, expected.getGeometryType(), actual.getGeometryType());
+		assertTrue(wkt + " read as " + actual, expected.equalsExact(actual));
+
+		// equalsExact only compares X and Y
+		Coordinate[] expectedCoordinates = expected.getCoordinates();
+		Coordinate[] actualCoordinates = actual.getCoordinates();
+		assertEquals(wkt, expectedCoordinates.length, actualCoordinates.length);
+		for (int i = 0; i < expectedCoordinates.length; i++) {
+			assertEquals(wkt, expectedCoordinates[i].getZ(), actualCoordinates[i].getZ(), 0);
+			assertEquals(wkt, expectedCoordinates[i].getM(), actualCoordinates[i].getM(), 0);
+		}
+	}
+}
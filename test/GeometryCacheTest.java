@@ -0,0 +1,125 @@
+package org.geotools.tutorial.txtreader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * GeometryCacheTest: Round-trip tests for {@link GeometryCache}, checking that
+ * cached geometries keep their Z and M ordinates.
+ */
+public class GeometryCacheTest {
+
+	private static final long WRITE_TIMEOUT_MILLIS = 10_000;
+
+	private final GeometryFactory geometryFactory = new GeometryFactory(PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+	private final SimpleFeatureType featureType = TXTFileParser.createFeatureType();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRoundTripXYZM() throws Exception {
+
+		WKTReader reader = new WKTReader();
+		assertRoundTrip(Arrays.asList(reader.read("POINT (1 2)"), reader.read("POINT Z (1 2 3)"),
+				reader.read("POINT M (1 2 3)"), reader.read("POINT ZM (1 2 3 4)"),
+				reader.read("LINESTRING ZM (1 2 3 4, 5 6 7 8)"),
+				reader.read("POLYGON M ((0 0 1, 10 0 2, 10 10 3, 0 0 1))")));
+	}
+
+	@Test
+	public void testRoundTripPartially3D() throws Exception {
+
+		// Z or M only in a later part or a hole => must not be dropped
+		Point xy = point(2, 0, 1, 2);
+		Point xyz = point(3, 0, 3, 4, 5);
+		Point xym = point(3, 1, 6, 7, 8);
+		LinearRing shell = this.geometryFactory
+				.createLinearRing(sequence(2, 0, 0, 0, 10, 0, 10, 10, 0, 10, 0, 0));
+		LinearRing hole = this.geometryFactory
+				.createLinearRing(sequence(3, 0, 2, 2, 1, 4, 2, 2, 4, 4, 3, 2, 2, 1));
+
+		assertRoundTrip(Arrays.asList(this.geometryFactory.createMultiPoint(new Point[] { xy, xyz }),
+				this.geometryFactory.createGeometryCollection(new Geometry[] { xy, xym }),
+				this.geometryFactory.createGeometryCollection(new Geometry[] { xy, xyz, xym }),
+				this.geometryFactory.createPolygon(shell, new LinearRing[] { hole })));
+	}
+
+	/**
+	 * Asserts that geometries written to the cache are read back with the same
+	 * coordinates and ordinates.
+	 */
+	private void assertRoundTrip(List<Geometry> geometries) throws Exception {
+
+		File sourceFile = this.folder.newFile();
+		Files.write(sourceFile.toPath(), Arrays.asList("POINT (1 2)"), Constants.INPUT_CHARSET);
+
+		SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(this.featureType);
+		List<SimpleFeature> features = new ArrayList<>();
+		for (Geometry geometry : geometries) {
+			featureBuilder.add(geometry);
+			features.add(featureBuilder.buildFeature(null));
+		}
+
+		GeometryCache cache = new GeometryCache(this.folder.newFolder(), Long.MAX_VALUE);
+		cache.write(sourceFile, features, new ParseErrorReport(false));
+
+		// Written in the background => wait for the cache file
+		GeometryCache.Entry entry = cache.read(sourceFile, this.featureType);
+		long deadline = System.currentTimeMillis() + WRITE_TIMEOUT_MILLIS;
+		while (entry == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			entry = cache.read(sourceFile, this.featureType);
+		}
+		assertNotNull("Cache file not written", entry);
+
+		List<SimpleFeature> cached = entry.getFeatures();
+		assertEquals(geometries.size(), cached.size());
+		for (int index = 0; index < geometries.size(); index++) {
+			Geometry expected = geometries.get(index);
+			Geometry actual = (Geometry) cached.get(index).getDefaultGeometry();
+			String wkt = expected.toText();
+
+			assertEquals(wkt, expected.getGeometryType(), actual.getGeometryType());
+			assertTrue(wkt + " read as " + actual, expected.equalsExact(actual));
+
+			// equalsExact only compares X and Y
+			Coordinate[] expectedCoordinates = expected.getCoordinates();
+			Coordinate[] actualCoordinates = actual.getCoordinates();
+			for (int i = 0; i < expectedCoordinates.length; i++) {
+				assertEquals(wkt, expectedCoordinates[i].getZ(), actualCoordinates[i].getZ(), 0);
+				assertEquals(wkt, expectedCoordinates[i].getM(), actualCoordinates[i].getM(), 0);
+			}
+		}
+	}
+
+	private Point point(int dimension, int measures, double... ordinates) {
+		return this.geometryFactory.createPoint(sequence(dimension, measures, ordinates));
+	}
+
+	private static CoordinateSequence sequence(int dimension, int measures, double... ordinates) {
+		return PackedCoordinateSequenceFactory.DOUBLE_FACTORY.create(ordinates, dimension, measures);
+	}
+}
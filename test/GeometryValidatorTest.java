@@ -0,0 +1,102 @@
+package org.geotools.tutorial.txtreader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * GeometryValidatorTest: Tests for {@link GeometryValidator}.
+ */
+public class GeometryValidatorTest {
+
+	// Self-intersecting bow tie => invalid, repaired into two triangles
+	private static final String BOW_TIE = "POLYGON ((0 0, 10 10, 10 0, 0 10, 0 0))";
+
+	private static final String[] LINES = { "POINT (1 2)", "LINESTRING (0 0, 5 5)", BOW_TIE,
+			"POLYGON ((0 0, 1 0, 1 1, 0 0))" };
+
+	private final SimpleFeatureType featureType = TXTFileParser.createFeatureType();
+
+	@Test
+	public void testRepairCopiesFeatures() throws Exception {
+
+		List<SimpleFeature> features = createFeatures(new ArrayList<>());
+		Geometry invalid = (Geometry) features.get(2).getDefaultGeometry();
+
+		ValidationReport report = new ValidationReport();
+		List<SimpleFeature> validated = GeometryValidator.validate(features, GeometryValidation.REPAIR, report);
+
+		assertEquals(1, report.getRepairedCount());
+		assertEquals(features.size(), validated.size());
+		assertSame(invalid, features.get(2).getDefaultGeometry());
+		assertNotSame(features.get(2), validated.get(2));
+		assertTrue(((Geometry) validated.get(2).getDefaultGeometry()).isValid());
+		assertSame(features.get(3), validated.get(3));
+	}
+
+	@Test
+	public void testRepairPackedFeatures() throws Exception {
+
+		CompactFeatureList features = (CompactFeatureList) createFeatures(new CompactFeatureList(this.featureType));
+
+		ValidationReport report = new ValidationReport();
+		List<SimpleFeature> validated = GeometryValidator.validate(features, GeometryValidation.REPAIR, report);
+
+		assertEquals(1, report.getRepairedCount());
+		assertEquals(features.size(), validated.size());
+		assertTrue(validated instanceof CompactFeatureList);
+		assertTrue(features.getGeometry(2).equalsExact(new WKTReader().read(BOW_TIE)));
+		assertTrue(((Geometry) validated.get(2).getDefaultGeometry()).isValid());
+		for (int i : new int[] { 0, 1, 3 }) {
+			assertTrue(features.getGeometry(i).equalsExact(((CompactFeatureList) validated).getGeometry(i)));
+		}
+	}
+
+	@Test
+	public void testRejectPackedFeatures() throws Exception {
+
+		CompactFeatureList features = (CompactFeatureList) createFeatures(new CompactFeatureList(this.featureType));
+
+		ValidationReport report = new ValidationReport();
+		List<SimpleFeature> validated = GeometryValidator.validate(features, GeometryValidation.REJECT, report);
+
+		assertEquals(1, report.getRejectedCount());
+		assertEquals(features.size() - 1, validated.size());
+		assertTrue(features.getGeometry(3).equalsExact(((CompactFeatureList) validated).getGeometry(2)));
+	}
+
+	@Test
+	public void testValidFeaturesAreKept() throws Exception {
+
+		List<SimpleFeature> features = createFeatures(new ArrayList<>());
+		features.remove(2);
+
+		List<SimpleFeature> validated = GeometryValidator.validate(features, GeometryValidation.REPAIR,
+				new ValidationReport());
+
+		assertSame(features, validated);
+	}
+
+	private List<SimpleFeature> createFeatures(List<SimpleFeature> features) throws Exception {
+
+		WKTReader reader = new WKTReader();
+		SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(this.featureType);
+		for (String line : LINES) {
+			featureBuilder.add(reader.read(line));
+			features.add(featureBuilder.buildFeature(null));
+		}
+
+		return features;
+	}
+}
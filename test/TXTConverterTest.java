@@ -0,0 +1,157 @@
+package org.geotools.tutorial.txtreader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.geotools.api.data.Query;
+import org.geotools.api.feature.simple.SimpleFeature;
+import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.api.referencing.crs.ProjectedCRS;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * TXTConverterTest: Tests for {@link TXTConverter}, converting TXT files into
+ * Shapefiles.
+ */
+public class TXTConverterTest {
+
+	private static final List<String> LINES = Arrays.asList("POINT (1 2)", "LINESTRING (0 0, 1 1)", "",
+			"POLYGON ((0 0, 1 0, 1 1, 0 0))", "POINT (3 4)", "not wkt");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testConvertGzip() throws Exception {
+
+		File sourceFile = this.folder.newFile("shapes.txt.gz");
+		try (Writer writer = new OutputStreamWriter(
+				new GZIPOutputStream(Files.newOutputStream(sourceFile.toPath())), Constants.INPUT_CHARSET)) {
+			for (String line : LINES) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		}
+
+		File outputDirectory = this.folder.newFolder("gzip");
+		LoadStatistics statistics = TXTConverter.convert(sourceFile, outputDirectory);
+
+		assertEquals(4, statistics.getFeatureCount());
+		assertEquals(1, statistics.getInvalidCount());
+		assertEquals(2, countFeatures(new File(outputDirectory, "shapes_point.shp")));
+		assertEquals(1, countFeatures(new File(outputDirectory, "shapes_line.shp")));
+		assertEquals(1, countFeatures(new File(outputDirectory, "shapes_polygon.shp")));
+		assertFalse(new File(outputDirectory, "shapes_multipoint.shp").exists());
+	}
+
+	@Test
+	public void testConvertPlain() throws Exception {
+
+		File sourceFile = this.folder.newFile("shapes.txt");
+		Files.write(sourceFile.toPath(), LINES, Constants.INPUT_CHARSET);
+
+		File outputDirectory = this.folder.newFolder("plain");
+		LoadStatistics statistics = TXTConverter.convert(sourceFile, outputDirectory);
+
+		assertEquals(4, statistics.getFeatureCount());
+		assertEquals(1, statistics.getInvalidCount());
+		assertTrue(new File(outputDirectory, "shapes_point.shp").isFile());
+	}
+
+	@Test
+	public void testConvertDelimited() throws Exception {
+
+		File sourceFile = this.folder.newFile("places.csv");
+		Files.write(sourceFile.toPath(),
+				Arrays.asList("id;name;WKT", "1;Caf\u00e9;POINT (1 2)", "2;Bridge;LINESTRING (0 0, 1 1)"),
+				Constants.INPUT_CHARSET);
+
+		File outputDirectory = this.folder.newFolder("delimited");
+		LoadStatistics statistics = TXTConverter.convert(sourceFile, outputDirectory);
+
+		assertEquals(2, statistics.getFeatureCount());
+		assertEquals(0, statistics.getInvalidCount());
+
+		ShapefileDataStore dataStore = new ShapefileDataStore(
+				new File(outputDirectory, "places_point.shp").toURI().toURL());
+		try (SimpleFeatureIterator features = dataStore.getFeatureSource().getFeatures().features()) {
+			SimpleFeature feature = features.next();
+			assertEquals(1, ((Number) feature.getAttribute("id")).intValue());
+			assertEquals("Caf\u00e9", feature.getAttribute("name"));
+			assertEquals(2, ((Number) feature.getAttribute("line")).intValue());
+			assertFalse(features.hasNext());
+		} finally {
+			dataStore.dispose();
+		}
+	}
+
+	@Test
+	public void testConvertKeepsSourceCRS() throws Exception {
+
+		File sourceFile = this.folder.newFile("projected.txt");
+		Files.write(sourceFile.toPath(), Arrays.asList("POINT (1000000 6000000)"), Constants.INPUT_CHARSET);
+		Files.write(this.folder.getRoot().toPath().resolve("projected.prj"),
+				CRS.decode("EPSG:3857", true).toWKT().getBytes(Constants.INPUT_CHARSET));
+
+		File outputDirectory = this.folder.newFolder("projected");
+		TXTConverter.convert(sourceFile, outputDirectory);
+
+		CoordinateReferenceSystem crs = readCRS(new File(outputDirectory, "projected_point.shp"));
+		assertTrue(String.valueOf(crs), crs instanceof ProjectedCRS);
+	}
+
+	@Test
+	public void testConvertDefaultsToWGS84() throws Exception {
+
+		File sourceFile = this.folder.newFile("geographic.txt");
+		Files.write(sourceFile.toPath(), Arrays.asList("POINT (8 52)"), Constants.INPUT_CHARSET);
+
+		File outputDirectory = this.folder.newFolder("geographic");
+		TXTConverter.convert(sourceFile, outputDirectory);
+
+		CoordinateReferenceSystem crs = readCRS(new File(outputDirectory, "geographic_point.shp"));
+		assertTrue(String.valueOf(crs), CRS.equalsIgnoreMetadata(DefaultGeographicCRS.WGS84, crs));
+	}
+
+	/**
+	 * Reads the CRS of a written Shapefile.
+	 */
+	private static CoordinateReferenceSystem readCRS(File shapefile) throws IOException {
+
+		ShapefileDataStore dataStore = new ShapefileDataStore(shapefile.toURI().toURL());
+		try {
+			return dataStore.getSchema().getCoordinateReferenceSystem();
+		} finally {
+			dataStore.dispose();
+		}
+	}
+
+	/**
+	 * Counts the features of a written Shapefile.
+	 */
+	private static int countFeatures(File shapefile) throws IOException {
+
+		ShapefileDataStore dataStore = new ShapefileDataStore(shapefile.toURI().toURL());
+		try {
+			return dataStore.getFeatureSource().getCount(Query.ALL);
+		} finally {
+			dataStore.dispose();
+		}
+	}
+}